@@ -0,0 +1,105 @@
+package com.expensetracker.benchmark.jmh;
+
+import com.expensetracker.service.ImportService;
+import com.expensetracker.util.CsvWriter;
+import com.expensetracker.util.DatabaseManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * JMH benchmark for {@link ImportService#importCsv} on a generated bank export of {@code rows}
+ * rows, imported into an empty database on every iteration.
+ * <p>
+ * Run alone with {@code mvn -Pjmh verify -Djmh.args="ImportBenchmarks"}; the batch size can be
+ * changed with {@code -Djmh.args="-jvmArgsAppend -Dimport.batchSize=... ImportBenchmarks"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class ImportBenchmarks {
+    private static final String[] CATEGORIES = {"Food & Dining", "Transportation", "Shopping", "Utilities", "Other"};
+    private static final String[] PAYEES = {"Corner Grocery", "City Transit", "Online Store, Inc.", "Power Co", "Misc"};
+    
+    @Param({"1000000"})
+    public int rows;
+    
+    private Path dir;
+    private Path file;
+    private ImportService importService;
+    
+    @Setup(Level.Trial)
+    public void writeStatement() throws IOException {
+        dir = Files.createTempDirectory("jmh-import");
+        file = dir.resolve("statement.csv");
+        LocalDate firstDay = LocalDate.of(2020, 1, 1);
+        try (CsvWriter csv = CsvWriter.open(file)) {
+            csv.field("Date").field("Description").field("Amount").field("Category").endRow();
+            for (int i = 0; i < rows; i++) {
+                int kind = i % CATEGORIES.length;
+                csv.date(firstDay.plusDays(i % 1800))
+                   .field(PAYEES[kind])
+                   .cents(100 + (i * 37L) % 20_000)
+                   .field(CATEGORIES[kind])
+                   .endRow();
+            }
+        }
+        System.setProperty("db.file", dir.resolve("import.db").toString());
+        importService = new ImportService();
+    }
+    
+    @Setup(Level.Iteration)
+    public void clearExpenses() {
+        DatabaseManager.getInstance().submitWrite(conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                return stmt.executeUpdate("DELETE FROM expenses");
+            }
+        }).join();
+    }
+    
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        DatabaseManager.getInstance().closeConnection();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+    
+    @Benchmark
+    public ImportService.ImportResult importCsv() {
+        ImportService.ImportResult result = importService.importCsv(file, null);
+        if (result.getImported() != rows) {
+            throw new IllegalStateException("Imported " + result.getImported() + " of " + rows + " rows: " + result);
+        }
+        return result;
+    }
+}
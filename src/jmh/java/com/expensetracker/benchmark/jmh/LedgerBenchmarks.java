@@ -0,0 +1,130 @@
+package com.expensetracker.benchmark.jmh;
+
+import com.expensetracker.dao.ExpenseDAO;
+import com.expensetracker.model.Category;
+import com.expensetracker.model.Expense;
+import com.expensetracker.service.BudgetService;
+import com.expensetracker.service.CategoryCache;
+import com.expensetracker.service.ReportService;
+import com.expensetracker.service.SearchService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for the queries behind the main view, the budget summary, the monthly CSV report
+ * and search, run against each size of {@link LedgerState}.
+ * <p>
+ * Run with {@code mvn -Pjmh verify}; results are written to {@code target/jmh-result.json}. Pass
+ * JMH options through {@code -Djmh.args=...}, e.g. {@code -Djmh.args="-p rows=10000 findByMonth"}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LedgerBenchmarks {
+    private ExpenseDAO expenseDAO;
+    private ReportService reportService;
+    private BudgetService budgetService;
+    private SearchService searchService;
+    private Path exportFile;
+    private List<Integer> categoryIds;
+    
+    @Setup(Level.Trial)
+    public void setUp(LedgerState ledger) throws IOException {
+        expenseDAO = new ExpenseDAO();
+        reportService = new ReportService();
+        budgetService = new BudgetService();
+        searchService = new SearchService();
+        exportFile = Files.createTempFile("jmh-report", ".csv");
+        categoryIds = CategoryCache.getInstance().getAll().stream().map(Category::getId).toList();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(exportFile);
+    }
+    
+    @Benchmark
+    public List<Expense> findByMonth(LedgerState ledger) {
+        return expenseDAO.findByMonth(ledger.month, ledger.year);
+    }
+    
+    @Benchmark
+    public double totalByCategoryAndMonth(LedgerState ledger) {
+        return expenseDAO.getTotalByCategoryAndMonth(ledger.categoryId, ledger.month, ledger.year);
+    }
+    
+    @Benchmark
+    public ReportService.MonthlyReport generateMonthlyReport(LedgerState ledger) {
+        return reportService.generateMonthlyReport(ledger.month, ledger.year);
+    }
+    
+    @Benchmark
+    public BudgetService.BudgetStatus budgetStatus(LedgerState ledger) {
+        return budgetService.getBudgetStatus(ledger.categoryId, ledger.month, ledger.year);
+    }
+    
+    /**
+     * The budget summary refresh as one query for every category.
+     */
+    @Benchmark
+    public Map<Integer, BudgetService.BudgetStatus> budgetStatuses(LedgerState ledger) {
+        return budgetService.getBudgetStatuses(ledger.month, ledger.year);
+    }
+    
+    /**
+     * The budget summary refresh done one category at a time, for comparison with
+     * {@link #budgetStatuses}.
+     */
+    @Benchmark
+    public Map<Integer, BudgetService.BudgetStatus> budgetStatusesPerCategory(LedgerState ledger) {
+        Map<Integer, BudgetService.BudgetStatus> statuses = new HashMap<>();
+        for (int categoryId : categoryIds) {
+            statuses.put(categoryId, budgetService.getBudgetStatus(categoryId, ledger.month, ledger.year));
+        }
+        return statuses;
+    }
+    
+    @Benchmark
+    public boolean exportToCSV(LedgerState ledger) {
+        return reportService.exportToCSV(exportFile.toString(), ledger.month, ledger.year);
+    }
+    
+    @Benchmark
+    public SearchService.SearchPage searchPrefix(SearchQuery search) {
+        return searchService.search(search.query, SearchService.Mode.PREFIX, search.order, 0, 100);
+    }
+    
+    /**
+     * Search input that prefixes many payees, one payee, a whole payee name and nothing, in both orders.
+     */
+    @State(Scope.Benchmark)
+    public static class SearchQuery {
+        @Param({"co", "cafe lu", "hardware depot", "zzz"})
+        public String query;
+        
+        @Param({"RECENT", "RELEVANCE"})
+        public SearchService.Order order;
+    }
+}
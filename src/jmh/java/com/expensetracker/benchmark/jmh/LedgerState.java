@@ -0,0 +1,67 @@
+package com.expensetracker.benchmark.jmh;
+
+import com.expensetracker.model.Category;
+import com.expensetracker.service.CategoryCache;
+import com.expensetracker.tools.LedgerGenerator;
+import com.expensetracker.util.DatabaseManager;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * A synthetic ledger of {@code rows} expenses spread over ten years, made by
+ * {@link LedgerGenerator}.
+ * <p>
+ * Ledgers are generated from a fixed seed, so every build measures the same data, and are kept
+ * in {@code target/jmh-ledgers} (or {@code -Djmh.ledgerDir=...}) so later runs skip generation.
+ * A ledger whose generation did not finish is rebuilt.
+ */
+@State(Scope.Benchmark)
+public class LedgerState {
+    private static final Path LEDGER_DIR = Path.of(System.getProperty("jmh.ledgerDir", "target/jmh-ledgers"));
+    private static final LocalDate LAST_DAY = LocalDate.of(2025, 12, 31);
+    
+    @Param({"10000", "1000000", "10000000"})
+    public int rows;
+    
+    /** Month and year the benchmarks query, in the middle of the last generated year. */
+    public final int month = 6;
+    public final int year = LAST_DAY.getYear();
+    public int categoryId;
+    
+    @Setup(Level.Trial)
+    public void openLedger() throws IOException {
+        Files.createDirectories(LEDGER_DIR);
+        Path db = LEDGER_DIR.resolve("ledger-" + rows + ".db");
+        Path complete = LEDGER_DIR.resolve("ledger-" + rows + ".complete");
+        boolean generate = !Files.exists(complete);
+        if (generate) {
+            for (String suffix : new String[] {"", "-wal", "-shm"}) {
+                Files.deleteIfExists(Path.of(db + suffix));
+            }
+        }
+        
+        System.setProperty("db.file", db.toAbsolutePath().toString());
+        if (generate) {
+            new LedgerGenerator(42).generate(rows, LAST_DAY, 10, null);
+            Files.createFile(complete);
+        }
+        categoryId = CategoryCache.getInstance().findByName("Food & Dining")
+            .or(() -> CategoryCache.getInstance().getAll().stream().findFirst())
+            .map(Category::getId)
+            .orElseThrow();
+    }
+    
+    @TearDown(Level.Trial)
+    public void closeLedger() {
+        DatabaseManager.getInstance().closeConnection();
+    }
+}
@@ -0,0 +1,51 @@
+package com.expensetracker.benchmark.jmh;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks comparing the cost of one {@link Expense} model with one {@link ExpenseRow}
+ * holding the same values.
+ * <p>
+ * Run with the GC profiler, {@code mvn -Pjmh verify -Djmh.args="-prof gc RowMemoryBenchmarks"};
+ * {@code gc.alloc.rate.norm} is the bytes allocated per row, which both types keep for as long as
+ * the row is held.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMemoryBenchmarks {
+    private static final LocalDate FIRST_DAY = LocalDate.of(2020, 1, 1);
+    // Notes repeat in real ledgers too; share them so only the per-row objects are measured
+    private static final String[] NOTES = {"Groceries", "Fuel", "Lunch", "Rent", "Streaming"};
+    
+    private int i;
+    
+    @Benchmark
+    public Expense expense() {
+        i = (i + 1) % 1_000_000;
+        return new Expense(i, 12.34 + i % 500, 1 + i % 12, FIRST_DAY.plusDays(i % 2000), NOTES[i % NOTES.length]);
+    }
+    
+    @Benchmark
+    public ExpenseRow expenseRow() {
+        i = (i + 1) % 1_000_000;
+        return new ExpenseRow(i, 1234 + (i % 500) * 100L, 1 + i % 12, FIRST_DAY.toEpochDay() + i % 2000,
+                              NOTES[i % NOTES.length]);
+    }
+}
@@ -1,12 +1,15 @@
 package com.expensetracker.dao;
 
 import com.expensetracker.model.Budget;
+import com.expensetracker.model.BudgetRow;
+import com.expensetracker.model.Money;
 import com.expensetracker.util.DatabaseManager;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -15,6 +18,33 @@ import java.util.logging.Logger;
  */
 public class BudgetDAO {
     private static final Logger LOGGER = Logger.getLogger(BudgetDAO.class.getName());
+    
+    private static final String SELECT_COLUMNS = "SELECT id, category_id, amount_cents, month, year FROM budgets ";
+    private static final String FIND_ALL_SQL = SELECT_COLUMNS + "ORDER BY year DESC, month DESC";
+    private static final String FIND_BY_MONTH_SQL = SELECT_COLUMNS + "WHERE month = ? AND year = ? ORDER BY category_id";
+    private static final String FIND_WITH_SPENDING_BY_MONTH_SQL =
+        "SELECT b.id, b.category_id, b.amount_cents, b.month, b.year, " +
+        "COALESCE(t.total_cents, 0) AS spent_cents FROM budgets b " +
+        "LEFT JOIN monthly_category_totals t ON t.category_id = b.category_id " +
+        "AND t.year = b.year AND t.month = b.month " +
+        "WHERE b.month = ? AND b.year = ? ORDER BY b.category_id";
+    private static final String FIND_BY_CATEGORY_AND_MONTH_SQL = SELECT_COLUMNS +
+                                                                 "WHERE category_id = ? AND month = ? AND year = ?";
+    private static final String FIND_BY_ID_SQL = SELECT_COLUMNS + "WHERE id = ?";
+    private static final String INSERT_SQL = "INSERT INTO budgets (category_id, amount_cents, month, year) VALUES (?, ?, ?, ?)";
+    private static final String UPDATE_SQL = "UPDATE budgets SET category_id = ?, amount_cents = ?, month = ?, year = ? WHERE id = ?";
+    private static final String DELETE_SQL = "DELETE FROM budgets WHERE id = ?";
+    
+    private static final DaoCall FIND_ALL = DaoCall.read("BudgetDAO.findAll", FIND_ALL_SQL);
+    private static final DaoCall FIND_BY_MONTH = DaoCall.read("BudgetDAO.findByMonth", FIND_BY_MONTH_SQL);
+    private static final DaoCall FIND_WITH_SPENDING_BY_MONTH =
+        DaoCall.read("BudgetDAO.findWithSpendingByMonth", FIND_WITH_SPENDING_BY_MONTH_SQL);
+    private static final DaoCall FIND_BY_CATEGORY_AND_MONTH =
+        DaoCall.read("BudgetDAO.findByCategoryAndMonth", FIND_BY_CATEGORY_AND_MONTH_SQL);
+    private static final DaoCall FIND_BY_ID = DaoCall.read("BudgetDAO.findById", FIND_BY_ID_SQL);
+    private static final DaoCall SAVE = DaoCall.write("BudgetDAO.save", null);
+    private static final DaoCall DELETE = DaoCall.write("BudgetDAO.delete", DELETE_SQL);
+    
     private final DatabaseManager dbManager;
     
     public BudgetDAO() {
@@ -22,187 +52,264 @@ public class BudgetDAO {
     }
     
     public List<Budget> findAll() {
-        List<Budget> budgets = new ArrayList<>();
-        String sql = "SELECT id, category_id, amount, month, year FROM budgets ORDER BY year DESC, month DESC";
-        
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            
-            while (rs.next()) {
-                Budget budget = new Budget(
-                    rs.getInt("id"),
-                    rs.getInt("category_id"),
-                    rs.getDouble("amount"),
-                    rs.getInt("month"),
-                    rs.getInt("year")
-                );
-                budgets.add(budget);
-            }
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error finding all budgets", e);
-        }
-        
-        return budgets;
-    }
-    
-    public List<Budget> findByMonth(int month, int year) {
-        List<Budget> budgets = new ArrayList<>();
-        String sql = "SELECT id, category_id, amount, month, year FROM budgets " +
-                    "WHERE month = ? AND year = ? ORDER BY category_id";
-        
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, month);
-            stmt.setInt(2, year);
+        return FIND_ALL.run(() -> {
+            List<Budget> budgets = new ArrayList<>();
             
-            try (ResultSet rs = stmt.executeQuery()) {
+            try (Connection conn = dbManager.getReadConnection();
+                 PreparedStatement stmt = conn.prepareStatement(FIND_ALL_SQL);
+                 ResultSet rs = stmt.executeQuery()) {
+                
                 while (rs.next()) {
                     Budget budget = new Budget(
                         rs.getInt("id"),
                         rs.getInt("category_id"),
-                        rs.getDouble("amount"),
+                        Money.toDouble(rs.getLong("amount_cents")),
                         rs.getInt("month"),
                         rs.getInt("year")
                     );
                     budgets.add(budget);
                 }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error finding all budgets", e);
             }
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error finding budgets by month: " + month + "/" + year, e);
-        }
-        
-        return budgets;
+            
+            return budgets;
+        }, List::size);
     }
     
-    public Optional<Budget> findByCategoryAndMonth(int categoryId, int month, int year) {
-        String sql = "SELECT id, category_id, amount, month, year FROM budgets " +
-                    "WHERE category_id = ? AND month = ? AND year = ?";
-        
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+    public List<Budget> findByMonth(int month, int year) {
+        return FIND_BY_MONTH.run(month, year, () -> {
+            List<Budget> budgets = new ArrayList<>();
+            
+            try (Connection conn = dbManager.getReadConnection();
+                 PreparedStatement stmt = conn.prepareStatement(FIND_BY_MONTH_SQL)) {
+                
+                stmt.setInt(1, month);
+                stmt.setInt(2, year);
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Budget budget = new Budget(
+                            rs.getInt("id"),
+                            rs.getInt("category_id"),
+                            Money.toDouble(rs.getLong("amount_cents")),
+                            rs.getInt("month"),
+                            rs.getInt("year")
+                        );
+                        budgets.add(budget);
+                    }
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error finding budgets by month: " + month + "/" + year, e);
+            }
             
-            stmt.setInt(1, categoryId);
-            stmt.setInt(2, month);
-            stmt.setInt(3, year);
+            return budgets;
+        }, List::size);
+    }
+    
+    /**
+     * Loads every budget of a month together with the amount already spent in its category,
+     * using one query that joins the budgets with the monthly category totals.
+     */
+    public List<BudgetSpending> findWithSpendingByMonth(int month, int year) {
+        return FIND_WITH_SPENDING_BY_MONTH.run(month, year, () -> {
+            List<BudgetSpending> spendings = new ArrayList<>();
             
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    Budget budget = new Budget(
-                        rs.getInt("id"),
-                        rs.getInt("category_id"),
-                        rs.getDouble("amount"),
-                        rs.getInt("month"),
-                        rs.getInt("year")
-                    );
-                    return Optional.of(budget);
+            try (Connection conn = dbManager.getReadConnection();
+                 PreparedStatement stmt = conn.prepareStatement(FIND_WITH_SPENDING_BY_MONTH_SQL)) {
+                
+                stmt.setInt(1, month);
+                stmt.setInt(2, year);
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        BudgetRow budget = new BudgetRow(
+                            rs.getInt("id"),
+                            rs.getInt("category_id"),
+                            rs.getLong("amount_cents"),
+                            rs.getInt("month"),
+                            rs.getInt("year")
+                        );
+                        spendings.add(new BudgetSpending(budget, rs.getLong("spent_cents")));
+                    }
                 }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error finding budget spending by month: " + month + "/" + year, e);
             }
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error finding budget by category and month", e);
-        }
-        
-        return Optional.empty();
+            
+            return spendings;
+        }, List::size);
     }
     
-    public Optional<Budget> findById(int id) {
-        String sql = "SELECT id, category_id, amount, month, year FROM budgets WHERE id = ?";
-        
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+    public Optional<Budget> findByCategoryAndMonth(int categoryId, int month, int year) {
+        return FIND_BY_CATEGORY_AND_MONTH.run(month, year, () -> {
+            try (Connection conn = dbManager.getReadConnection();
+                 PreparedStatement stmt = conn.prepareStatement(FIND_BY_CATEGORY_AND_MONTH_SQL)) {
+                
+                stmt.setInt(1, categoryId);
+                stmt.setInt(2, month);
+                stmt.setInt(3, year);
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        Budget budget = new Budget(
+                            rs.getInt("id"),
+                            rs.getInt("category_id"),
+                            Money.toDouble(rs.getLong("amount_cents")),
+                            rs.getInt("month"),
+                            rs.getInt("year")
+                        );
+                        return Optional.of(budget);
+                    }
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error finding budget by category and month", e);
+            }
             
-            stmt.setInt(1, id);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    Budget budget = new Budget(
-                        rs.getInt("id"),
-                        rs.getInt("category_id"),
-                        rs.getDouble("amount"),
-                        rs.getInt("month"),
-                        rs.getInt("year")
-                    );
-                    return Optional.of(budget);
+            return Optional.<Budget>empty();
+        }, budget -> budget.isPresent() ? 1 : 0);
+    }
+    
+    public Optional<Budget> findById(int id) {
+        return FIND_BY_ID.run(() -> {
+            try (Connection conn = dbManager.getReadConnection();
+                 PreparedStatement stmt = conn.prepareStatement(FIND_BY_ID_SQL)) {
+                
+                stmt.setInt(1, id);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        Budget budget = new Budget(
+                            rs.getInt("id"),
+                            rs.getInt("category_id"),
+                            Money.toDouble(rs.getLong("amount_cents")),
+                            rs.getInt("month"),
+                            rs.getInt("year")
+                        );
+                        return Optional.of(budget);
+                    }
                 }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error finding budget by id: " + id, e);
             }
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error finding budget by id: " + id, e);
-        }
-        
-        return Optional.empty();
+            
+            return Optional.<Budget>empty();
+        }, budget -> budget.isPresent() ? 1 : 0);
     }
     
     public boolean save(Budget budget) {
-        if (budget.getId() == 0) {
-            return insert(budget);
-        } else {
-            return update(budget);
-        }
+        return saveAsync(budget).join();
+    }
+    
+    /**
+     * Queues an insert or update on the writer thread. The future completes with {@code true}
+     * once the change is committed; failures are logged and reported as {@code false}.
+     */
+    public CompletableFuture<Boolean> saveAsync(Budget budget) {
+        return SAVE.submit(budget.getMonth(), budget.getYear(),
+                           () -> budget.getId() == 0 ? insert(budget) : update(budget),
+                           success -> success ? 1 : 0);
     }
     
-    private boolean insert(Budget budget) {
-        String sql = "INSERT INTO budgets (category_id, amount, month, year) VALUES (?, ?, ?, ?)";
+    private CompletableFuture<Boolean> insert(Budget budget) {
+        int categoryId = budget.getCategoryId();
+        long amountCents = Money.toCents(budget.getAmount());
+        int month = budget.getMonth();
+        int year = budget.getYear();
         
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            stmt.setInt(1, budget.getCategoryId());
-            stmt.setDouble(2, budget.getAmount());
-            stmt.setInt(3, budget.getMonth());
-            stmt.setInt(4, budget.getYear());
-            
-            int affectedRows = stmt.executeUpdate();
-            if (affectedRows > 0) {
-                try (ResultSet rs = stmt.getGeneratedKeys()) {
-                    if (rs.next()) {
-                        budget.setId(rs.getInt(1));
-                        return true;
+        return dbManager.submitWrite(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                stmt.setInt(1, categoryId);
+                stmt.setLong(2, amountCents);
+                stmt.setInt(3, month);
+                stmt.setInt(4, year);
+                
+                int affectedRows = stmt.executeUpdate();
+                if (affectedRows > 0) {
+                    try (ResultSet rs = stmt.getGeneratedKeys()) {
+                        if (rs.next()) {
+                            return rs.getInt(1);
+                        }
                     }
                 }
+                return 0;
+            }
+        }).thenApply(id -> {
+            if (id > 0) {
+                budget.setId(id);
+                return true;
             }
-        } catch (SQLException e) {
+            return false;
+        }).exceptionally(e -> {
             LOGGER.log(Level.SEVERE, "Error inserting budget", e);
-        }
-        
-        return false;
+            return false;
+        });
     }
     
-    private boolean update(Budget budget) {
-        String sql = "UPDATE budgets SET category_id = ?, amount = ?, month = ?, year = ? WHERE id = ?";
+    private CompletableFuture<Boolean> update(Budget budget) {
+        int categoryId = budget.getCategoryId();
+        long amountCents = Money.toCents(budget.getAmount());
+        int month = budget.getMonth();
+        int year = budget.getYear();
+        int id = budget.getId();
         
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, budget.getCategoryId());
-            stmt.setDouble(2, budget.getAmount());
-            stmt.setInt(3, budget.getMonth());
-            stmt.setInt(4, budget.getYear());
-            stmt.setInt(5, budget.getId());
-            
-            return stmt.executeUpdate() > 0;
-        } catch (SQLException e) {
+        return dbManager.submitWrite(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(UPDATE_SQL)) {
+                stmt.setInt(1, categoryId);
+                stmt.setLong(2, amountCents);
+                stmt.setInt(3, month);
+                stmt.setInt(4, year);
+                stmt.setInt(5, id);
+                
+                return stmt.executeUpdate() > 0;
+            }
+        }).exceptionally(e -> {
             LOGGER.log(Level.SEVERE, "Error updating budget", e);
-        }
-        
-        return false;
+            return false;
+        });
     }
     
     public boolean delete(int id) {
-        String sql = "DELETE FROM budgets WHERE id = ?";
-        
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
-        } catch (SQLException e) {
+        return deleteAsync(id).join();
+    }
+    
+    public CompletableFuture<Boolean> deleteAsync(int id) {
+        return DELETE.submit(() -> dbManager.submitWrite(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(DELETE_SQL)) {
+                stmt.setInt(1, id);
+                return stmt.executeUpdate() > 0;
+            }
+        }).exceptionally(e -> {
             LOGGER.log(Level.SEVERE, "Error deleting budget with id: " + id, e);
-        }
-        
-        return false;
+            return false;
+        }), deleted -> deleted ? 1 : 0);
     }
     
     public boolean exists(int categoryId, int month, int year) {
         return findByCategoryAndMonth(categoryId, month, year).isPresent();
     }
+    
+    /**
+     * A budget together with the amount spent in its category during the budget's month.
+     */
+    public static class BudgetSpending {
+        private final BudgetRow budget;
+        private final long spentCents;
+        
+        public BudgetSpending(BudgetRow budget, long spentCents) {
+            this.budget = budget;
+            this.spentCents = spentCents;
+        }
+        
+        public BudgetRow getBudget() {
+            return budget;
+        }
+        
+        public long getBudgetCents() {
+            return budget.amountCents();
+        }
+        
+        public long getSpentCents() {
+            return spentCents;
+        }
+    }
 }
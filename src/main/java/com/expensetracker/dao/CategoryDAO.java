@@ -1,12 +1,15 @@
 package com.expensetracker.dao;
 
 import com.expensetracker.model.Category;
+import com.expensetracker.model.CategoryRow;
 import com.expensetracker.util.DatabaseManager;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -15,150 +18,230 @@ import java.util.logging.Logger;
  */
 public class CategoryDAO {
     private static final Logger LOGGER = Logger.getLogger(CategoryDAO.class.getName());
+    private static final List<Runnable> CHANGE_LISTENERS = new CopyOnWriteArrayList<>();
+    
+    private static final String FIND_ALL_SQL = "SELECT id, name, color FROM categories ORDER BY name";
+    private static final String FIND_BY_ID_SQL = "SELECT id, name, color FROM categories WHERE id = ?";
+    private static final String FIND_BY_NAME_SQL = "SELECT id, name, color FROM categories WHERE name = ?";
+    private static final String INSERT_SQL = "INSERT INTO categories (name, color) VALUES (?, ?)";
+    private static final String UPDATE_SQL = "UPDATE categories SET name = ?, color = ? WHERE id = ?";
+    private static final String DELETE_SQL = "DELETE FROM categories WHERE id = ?";
+    
+    private static final DaoCall FIND_ALL = DaoCall.read("CategoryDAO.findAll", FIND_ALL_SQL);
+    private static final DaoCall FIND_ALL_ROWS = DaoCall.read("CategoryDAO.findAllRows", FIND_ALL_SQL);
+    private static final DaoCall FIND_BY_ID = DaoCall.read("CategoryDAO.findById", FIND_BY_ID_SQL);
+    private static final DaoCall FIND_BY_NAME = DaoCall.read("CategoryDAO.findByName", FIND_BY_NAME_SQL);
+    private static final DaoCall SAVE = DaoCall.write("CategoryDAO.save", null);
+    private static final DaoCall DELETE = DaoCall.write("CategoryDAO.delete", DELETE_SQL);
+    
     private final DatabaseManager dbManager;
     
     public CategoryDAO() {
         this.dbManager = DatabaseManager.getInstance();
     }
     
-    public List<Category> findAll() {
-        List<Category> categories = new ArrayList<>();
-        String sql = "SELECT id, name, color FROM categories ORDER BY name";
-        
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            
-            while (rs.next()) {
-                Category category = new Category(
-                    rs.getInt("id"),
-                    rs.getString("name"),
-                    rs.getString("color")
-                );
-                categories.add(category);
-            }
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error finding all categories", e);
-        }
-        
-        return categories;
+    /**
+     * Registers a callback run after every committed insert, update or delete of a category.
+     * Callbacks run on the thread that completes the write and must return quickly.
+     */
+    public static void addChangeListener(Runnable listener) {
+        CHANGE_LISTENERS.add(listener);
     }
     
-    public Optional<Category> findById(int id) {
-        String sql = "SELECT id, name, color FROM categories WHERE id = ?";
-        
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+    public static void removeChangeListener(Runnable listener) {
+        CHANGE_LISTENERS.remove(listener);
+    }
+    
+    public List<Category> findAll() {
+        return FIND_ALL.run(() -> {
+            List<Category> categories = new ArrayList<>();
             
-            stmt.setInt(1, id);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
+            try (Connection conn = dbManager.getReadConnection();
+                 PreparedStatement stmt = conn.prepareStatement(FIND_ALL_SQL);
+                 ResultSet rs = stmt.executeQuery()) {
+                
+                while (rs.next()) {
                     Category category = new Category(
                         rs.getInt("id"),
                         rs.getString("name"),
                         rs.getString("color")
                     );
-                    return Optional.of(category);
+                    categories.add(category);
                 }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error finding all categories", e);
             }
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error finding category by id: " + id, e);
-        }
-        
-        return Optional.empty();
+            
+            return categories;
+        }, List::size);
     }
     
-    public Optional<Category> findByName(String name) {
-        String sql = "SELECT id, name, color FROM categories WHERE name = ?";
-        
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+    /**
+     * Like {@link #findAll()}, but returns compact immutable rows. Returns an empty
+     * {@code Optional} on a database error, so callers that cache the result can tell a failed
+     * read from an empty table.
+     */
+    public Optional<List<CategoryRow>> findAllRows() {
+        return FIND_ALL_ROWS.run(() -> {
+            List<CategoryRow> categories = new ArrayList<>();
             
-            stmt.setString(1, name);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    Category category = new Category(
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getString("color")
-                    );
-                    return Optional.of(category);
+            try (Connection conn = dbManager.getReadConnection();
+                 PreparedStatement stmt = conn.prepareStatement(FIND_ALL_SQL);
+                 ResultSet rs = stmt.executeQuery()) {
+                
+                while (rs.next()) {
+                    categories.add(new CategoryRow(rs.getInt(1), rs.getString(2), rs.getString(3)));
                 }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error finding all category rows", e);
+                return Optional.<List<CategoryRow>>empty();
             }
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error finding category by name: " + name, e);
-        }
-        
-        return Optional.empty();
+            
+            return Optional.of(categories);
+        }, categories -> categories.map(List::size).orElse(0));
+    }
+    
+    public Optional<Category> findById(int id) {
+        return FIND_BY_ID.run(() -> {
+            try (Connection conn = dbManager.getReadConnection();
+                 PreparedStatement stmt = conn.prepareStatement(FIND_BY_ID_SQL)) {
+                
+                stmt.setInt(1, id);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        Category category = new Category(
+                            rs.getInt("id"),
+                            rs.getString("name"),
+                            rs.getString("color")
+                        );
+                        return Optional.of(category);
+                    }
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error finding category by id: " + id, e);
+            }
+            
+            return Optional.<Category>empty();
+        }, category -> category.isPresent() ? 1 : 0);
+    }
+    
+    public Optional<Category> findByName(String name) {
+        return FIND_BY_NAME.run(() -> {
+            try (Connection conn = dbManager.getReadConnection();
+                 PreparedStatement stmt = conn.prepareStatement(FIND_BY_NAME_SQL)) {
+                
+                stmt.setString(1, name);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        Category category = new Category(
+                            rs.getInt("id"),
+                            rs.getString("name"),
+                            rs.getString("color")
+                        );
+                        return Optional.of(category);
+                    }
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error finding category by name: " + name, e);
+            }
+            
+            return Optional.<Category>empty();
+        }, category -> category.isPresent() ? 1 : 0);
     }
     
     public boolean save(Category category) {
-        if (category.getId() == 0) {
-            return insert(category);
-        } else {
-            return update(category);
-        }
+        return saveAsync(category).join();
     }
     
-    private boolean insert(Category category) {
-        String sql = "INSERT INTO categories (name, color) VALUES (?, ?)";
+    /**
+     * Queues an insert or update on the writer thread. The future completes with {@code true}
+     * once the change is committed; failures are logged and reported as {@code false}.
+     */
+    public CompletableFuture<Boolean> saveAsync(Category category) {
+        return SAVE.submit(() -> category.getId() == 0 ? insert(category) : update(category),
+                           success -> success ? 1 : 0);
+    }
+    
+    private CompletableFuture<Boolean> insert(Category category) {
+        String name = category.getName();
+        String color = category.getColor();
         
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            stmt.setString(1, category.getName());
-            stmt.setString(2, category.getColor());
-            
-            int affectedRows = stmt.executeUpdate();
-            if (affectedRows > 0) {
-                try (ResultSet rs = stmt.getGeneratedKeys()) {
-                    if (rs.next()) {
-                        category.setId(rs.getInt(1));
-                        return true;
+        return dbManager.submitWrite(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                stmt.setString(1, name);
+                stmt.setString(2, color);
+                
+                int affectedRows = stmt.executeUpdate();
+                if (affectedRows > 0) {
+                    try (ResultSet rs = stmt.getGeneratedKeys()) {
+                        if (rs.next()) {
+                            return rs.getInt(1);
+                        }
                     }
                 }
+                return 0;
+            }
+        }).thenApply(id -> {
+            if (id > 0) {
+                category.setId(id);
+                return true;
             }
-        } catch (SQLException e) {
+            return false;
+        }).exceptionally(e -> {
             LOGGER.log(Level.SEVERE, "Error inserting category", e);
-        }
-        
-        return false;
+            return false;
+        }).thenApply(CategoryDAO::notifyIfChanged);
     }
     
-    private boolean update(Category category) {
-        String sql = "UPDATE categories SET name = ?, color = ? WHERE id = ?";
+    private CompletableFuture<Boolean> update(Category category) {
+        String name = category.getName();
+        String color = category.getColor();
+        int id = category.getId();
         
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, category.getName());
-            stmt.setString(2, category.getColor());
-            stmt.setInt(3, category.getId());
-            
-            return stmt.executeUpdate() > 0;
-        } catch (SQLException e) {
+        return dbManager.submitWrite(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(UPDATE_SQL)) {
+                stmt.setString(1, name);
+                stmt.setString(2, color);
+                stmt.setInt(3, id);
+                
+                return stmt.executeUpdate() > 0;
+            }
+        }).exceptionally(e -> {
             LOGGER.log(Level.SEVERE, "Error updating category", e);
-        }
-        
-        return false;
+            return false;
+        }).thenApply(CategoryDAO::notifyIfChanged);
     }
     
     public boolean delete(int id) {
-        String sql = "DELETE FROM categories WHERE id = ?";
-        
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
-        } catch (SQLException e) {
+        return deleteAsync(id).join();
+    }
+    
+    public CompletableFuture<Boolean> deleteAsync(int id) {
+        return DELETE.submit(() -> dbManager.submitWrite(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(DELETE_SQL)) {
+                stmt.setInt(1, id);
+                return stmt.executeUpdate() > 0;
+            }
+        }).exceptionally(e -> {
             LOGGER.log(Level.SEVERE, "Error deleting category with id: " + id, e);
-        }
-        
-        return false;
+            return false;
+        }).thenApply(CategoryDAO::notifyIfChanged), deleted -> deleted ? 1 : 0);
     }
     
     public boolean exists(String name) {
         return findByName(name).isPresent();
     }
+    
+    private static boolean notifyIfChanged(boolean changed) {
+        if (changed) {
+            for (Runnable listener : CHANGE_LISTENERS) {
+                try {
+                    listener.run();
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "Category change listener failed", e);
+                }
+            }
+        }
+        return changed;
+    }
 }
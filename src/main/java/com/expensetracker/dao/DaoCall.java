@@ -0,0 +1,138 @@
+package com.expensetracker.dao;
+
+import com.expensetracker.util.FlightEvents;
+import com.expensetracker.util.Metrics;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Instruments one DAO method: every call is timed into the method's {@code db_query_seconds}
+ * timer and row counter and recorded as a {@link FlightEvents.DatabaseQuery} event.
+ * <p>
+ * Every public DAO method that reaches the database runs its body through one of these, kept in
+ * a {@code static final} field; methods that only delegate to another DAO method are covered by
+ * that method. The body handles its own {@code SQLException}s as before:
+ * <pre>{@code
+ * private static final DaoCall FIND_BY_MONTH = DaoCall.read("ExpenseDAO.findByMonth", FIND_BY_MONTH_SQL);
+ *
+ * return FIND_BY_MONTH.run(month, year, () -> {
+ *     ...
+ *     return expenses;
+ * }, List::size);
+ * }</pre>
+ */
+final class DaoCall {
+    private final String method;
+    private final String sql;
+    private final Metrics.QueryMetrics metrics;
+    
+    private DaoCall(String method, String sql, Metrics.QueryMetrics metrics) {
+        this.method = method;
+        this.sql = sql;
+        this.metrics = metrics;
+    }
+    
+    /**
+     * A method that reads rows.
+     *
+     * @param sql the statement recorded with the event, or {@code null} if it varies between calls
+     */
+    static DaoCall read(String method, String sql) {
+        return new DaoCall(method, sql, Metrics.readQuery(method));
+    }
+    
+    /**
+     * A method that writes rows.
+     *
+     * @param sql the statement recorded with the event, or {@code null} if it varies between calls
+     */
+    static DaoCall write(String method, String sql) {
+        return new DaoCall(method, sql, Metrics.writeQuery(method));
+    }
+    
+    <T> T run(Supplier<T> body, ToLongFunction<? super T> rows) {
+        return run(start(), body, rows);
+    }
+    
+    <T> T run(int month, int year, Supplier<T> body, ToLongFunction<? super T> rows) {
+        return run(start(month, year), body, rows);
+    }
+    
+    <T> T run(LocalDate first, LocalDate last, Supplier<T> body, ToLongFunction<? super T> rows) {
+        return run(start(first, last), body, rows);
+    }
+    
+    /**
+     * Runs a body that queues a write. The call is timed until the write is committed, including
+     * the wait in the write queue.
+     */
+    <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> body, ToLongFunction<? super T> rows) {
+        return submit(start(), body, rows);
+    }
+    
+    <T> CompletableFuture<T> submit(int month, int year, Supplier<CompletableFuture<T>> body,
+                                    ToLongFunction<? super T> rows) {
+        return submit(start(month, year), body, rows);
+    }
+    
+    /**
+     * Starts a call that ends somewhere else, such as a stream that is read until it is closed.
+     */
+    Call start() {
+        return new Call(FlightEvents.DatabaseQuery.start(method, sql, 0, 0));
+    }
+    
+    Call start(int month, int year) {
+        return new Call(FlightEvents.DatabaseQuery.start(method, sql, month, year));
+    }
+    
+    Call start(LocalDate first, LocalDate last) {
+        return new Call(FlightEvents.DatabaseQuery.start(method, sql, first, last));
+    }
+    
+    private static <T> T run(Call call, Supplier<T> body, ToLongFunction<? super T> rows) {
+        T result = null;
+        try {
+            result = body.get();
+            return result;
+        } finally {
+            call.finish(result != null ? rows.applyAsLong(result) : 0);
+        }
+    }
+    
+    private static <T> CompletableFuture<T> submit(Call call, Supplier<CompletableFuture<T>> body,
+                                                   ToLongFunction<? super T> rows) {
+        CompletableFuture<T> result;
+        try {
+            result = body.get();
+        } catch (RuntimeException | Error e) {
+            call.finish(0);
+            throw e;
+        }
+        return result.whenComplete((value, e) -> call.finish(value != null ? rows.applyAsLong(value) : 0));
+    }
+    
+    /**
+     * One running call of the method.
+     */
+    final class Call {
+        private final long start;
+        private final FlightEvents.DatabaseQuery event;
+        
+        private Call(FlightEvents.DatabaseQuery event) {
+            this.start = metrics.start();
+            this.event = event;
+        }
+        
+        /**
+         * Ends the call, with the rows it read or wrote.
+         */
+        void finish(long rows) {
+            metrics.stop(start, rows);
+            event.finish(rows);
+        }
+    }
+}
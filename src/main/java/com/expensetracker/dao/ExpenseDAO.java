@@ -1,21 +1,109 @@
 package com.expensetracker.dao;
 
 import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseRow;
+import com.expensetracker.model.Money;
 import com.expensetracker.util.DatabaseManager;
+import com.expensetracker.util.ExpenseFingerprint;
 
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.SortedMap;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Data Access Object for Expense entity.
+ * <p>
+ * Amounts are stored as integer cents ({@code amount_cents}) and dates as days since
+ * 1970-01-01 ({@code epoch_day}), so rows map without parsing and sums are exact.
+ * The {@code find*Rows} variants return compact {@link ExpenseRow}s for callers that only
+ * read the values, avoiding the per-field property objects of {@link Expense}. The {@code stream*}
+ * methods read through an open cursor instead of building a list, so any range can be processed
+ * in constant memory. Every write also stores the row's {@link ExpenseFingerprint}, which imports
+ * use to skip expenses that already exist.
  */
 public class ExpenseDAO {
     private static final Logger LOGGER = Logger.getLogger(ExpenseDAO.class.getName());
+    private static final int FETCH_SIZE = Integer.getInteger("db.fetchSize", 1000);
+    // Stays well below SQLite's limit on bound parameters per statement
+    private static final int FINGERPRINT_LOOKUP_SIZE = 500;
+    
+    private static final String SELECT_COLUMNS = "SELECT id, amount_cents, category_id, epoch_day, notes FROM expenses ";
+    
+    // Month filters are half-open epoch-day ranges so SQLite can search the date indexes
+    static final String FIND_BY_MONTH_SQL = SELECT_COLUMNS +
+                                            "WHERE epoch_day >= ? AND epoch_day < ? ORDER BY epoch_day DESC";
+    // Keyset page in (epoch_day, id) order; the date index carries the rowid, so no sort is needed
+    static final String FIND_PAGE_SQL = SELECT_COLUMNS +
+                                        "WHERE epoch_day BETWEEN ? AND ? AND (epoch_day < ? OR id < ?) " +
+                                        "ORDER BY epoch_day DESC, id DESC LIMIT ? OFFSET ?";
+    static final String COUNT_BY_MONTH_SQL = "SELECT COALESCE(SUM(expense_count), 0) FROM monthly_category_totals " +
+                                             "WHERE year = ? AND month = ?";
+    static final String COUNT_ALL_SQL = "SELECT COALESCE(SUM(expense_count), 0) FROM monthly_category_totals";
+    // Totals come from the trigger-maintained monthly_category_totals rollup
+    static final String TOTAL_BY_CATEGORY_AND_MONTH_SQL = "SELECT total_cents FROM monthly_category_totals " +
+                                                          "WHERE category_id = ? AND year = ? AND month = ?";
+    static final String TOTAL_BY_MONTH_SQL = "SELECT COALESCE(SUM(total_cents), 0) FROM monthly_category_totals " +
+                                             "WHERE year = ? AND month = ?";
+    static final String SUMMARY_BY_MONTH_SQL = "SELECT category_id, epoch_day, SUM(amount_cents), COUNT(*), " +
+                                               "MIN(amount_cents), MAX(amount_cents) FROM expenses " +
+                                               "WHERE epoch_day >= ? AND epoch_day < ? " +
+                                               "GROUP BY category_id, epoch_day";
+    private static final String FIND_ALL_SQL = SELECT_COLUMNS + "ORDER BY epoch_day DESC";
+    private static final String FIND_BY_CATEGORY_SQL = SELECT_COLUMNS + "WHERE category_id = ? ORDER BY epoch_day DESC";
+    private static final String FIND_BY_DATE_RANGE_SQL = SELECT_COLUMNS +
+                                                         "WHERE epoch_day BETWEEN ? AND ? ORDER BY epoch_day DESC";
+    private static final String FIND_BY_DATE_RANGE_AND_CATEGORY_SQL = SELECT_COLUMNS +
+                                                                      "WHERE epoch_day BETWEEN ? AND ? AND category_id = ? " +
+                                                                      "ORDER BY epoch_day DESC";
+    private static final String FIND_BY_ID_SQL = SELECT_COLUMNS + "WHERE id = ?";
+    private static final String INSERT_SQL = "INSERT INTO expenses (amount_cents, category_id, epoch_day, notes, fingerprint) " +
+                                             "VALUES (?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL = "UPDATE expenses SET amount_cents = ?, category_id = ?, epoch_day = ?, " +
+                                             "notes = ?, fingerprint = ? WHERE id = ?";
+    private static final String DELETE_SQL = "DELETE FROM expenses WHERE id = ?";
+    
+    private static final DaoCall FIND_ALL = DaoCall.read("ExpenseDAO.findAll", FIND_ALL_SQL);
+    private static final DaoCall FIND_BY_MONTH = DaoCall.read("ExpenseDAO.findByMonth", FIND_BY_MONTH_SQL);
+    private static final DaoCall FIND_ROWS_BY_MONTH = DaoCall.read("ExpenseDAO.findRowsByMonth", FIND_BY_MONTH_SQL);
+    private static final DaoCall FIND_ROWS_PAGE = DaoCall.read("ExpenseDAO.findRowsPage", FIND_PAGE_SQL);
+    private static final DaoCall COUNT_BY_MONTH = DaoCall.read("ExpenseDAO.countByMonth", COUNT_BY_MONTH_SQL);
+    private static final DaoCall COUNT_ALL = DaoCall.read("ExpenseDAO.countAll", COUNT_ALL_SQL);
+    private static final DaoCall FIND_BY_CATEGORY = DaoCall.read("ExpenseDAO.findByCategory", FIND_BY_CATEGORY_SQL);
+    private static final DaoCall FIND_BY_DATE_RANGE = DaoCall.read("ExpenseDAO.findByDateRange", FIND_BY_DATE_RANGE_SQL);
+    private static final DaoCall FIND_ROWS_BY_DATE_RANGE =
+        DaoCall.read("ExpenseDAO.findRowsByDateRange", FIND_BY_DATE_RANGE_SQL);
+    private static final DaoCall STREAM_BY_DATE_RANGE =
+        DaoCall.read("ExpenseDAO.streamByDateRange", FIND_BY_DATE_RANGE_SQL);
+    private static final DaoCall STREAM_BY_DATE_RANGE_AND_CATEGORY =
+        DaoCall.read("ExpenseDAO.streamByDateRange", FIND_BY_DATE_RANGE_AND_CATEGORY_SQL);
+    private static final DaoCall STREAM_ALL = DaoCall.read("ExpenseDAO.streamAll", FIND_ALL_SQL);
+    private static final DaoCall FIND_BY_ID = DaoCall.read("ExpenseDAO.findById", FIND_BY_ID_SQL);
+    private static final DaoCall FIND_ROWS_BY_FINGERPRINTS = DaoCall.read("ExpenseDAO.findRowsByFingerprints", null);
+    private static final DaoCall TOTAL_BY_CATEGORY_AND_MONTH =
+        DaoCall.read("ExpenseDAO.getTotalCentsByCategoryAndMonth", TOTAL_BY_CATEGORY_AND_MONTH_SQL);
+    private static final DaoCall TOTAL_BY_MONTH = DaoCall.read("ExpenseDAO.getTotalCentsByMonth", TOTAL_BY_MONTH_SQL);
+    private static final DaoCall SUMMARIZE_MONTH = DaoCall.read("ExpenseDAO.summarizeMonth", SUMMARY_BY_MONTH_SQL);
+    private static final DaoCall SAVE = DaoCall.write("ExpenseDAO.save", null);
+    private static final DaoCall INSERT_BATCH = DaoCall.write("ExpenseDAO.insertBatch", INSERT_SQL);
+    private static final DaoCall DELETE = DaoCall.write("ExpenseDAO.delete", DELETE_SQL);
+    
+    
     private final DatabaseManager dbManager;
     
     public ExpenseDAO() {
@@ -23,236 +111,688 @@ public class ExpenseDAO {
     }
     
     public List<Expense> findAll() {
-        List<Expense> expenses = new ArrayList<>();
-        String sql = "SELECT id, amount, category_id, date, notes FROM expenses ORDER BY date DESC";
-        
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
+        return FIND_ALL.run(() -> {
+            List<Expense> expenses = new ArrayList<>();
             
-            while (rs.next()) {
-                Expense expense = new Expense(
-                    rs.getInt("id"),
-                    rs.getDouble("amount"),
-                    rs.getInt("category_id"),
-                    LocalDate.parse(rs.getString("date")),
-                    rs.getString("notes")
-                );
-                expenses.add(expense);
+            try (Connection conn = dbManager.getReadConnection();
+                 PreparedStatement stmt = conn.prepareStatement(FIND_ALL_SQL);
+                 ResultSet rs = stmt.executeQuery()) {
+                
+                while (rs.next()) {
+                    expenses.add(mapExpense(rs));
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error finding all expenses", e);
             }
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error finding all expenses", e);
-        }
-        
-        return expenses;
+            
+            return expenses;
+        }, List::size);
     }
     
     public List<Expense> findByMonth(int month, int year) {
-        List<Expense> expenses = new ArrayList<>();
-        String sql = "SELECT id, amount, category_id, date, notes FROM expenses " +
-                    "WHERE strftime('%m', date) = ? AND strftime('%Y', date) = ? " +
-                    "ORDER BY date DESC";
-        
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        return FIND_BY_MONTH.run(month, year, () -> {
+            List<Expense> expenses = new ArrayList<>();
+            LocalDate monthStart = LocalDate.of(year, month, 1);
             
-            stmt.setString(1, String.format("%02d", month));
-            stmt.setString(2, String.valueOf(year));
+            try (Connection conn = dbManager.getReadConnection();
+                 PreparedStatement stmt = conn.prepareStatement(FIND_BY_MONTH_SQL)) {
+                
+                stmt.setLong(1, monthStart.toEpochDay());
+                stmt.setLong(2, monthStart.plusMonths(1).toEpochDay());
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        expenses.add(mapExpense(rs));
+                    }
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error finding expenses by month: " + month + "/" + year, e);
+            }
             
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    Expense expense = new Expense(
-                        rs.getInt("id"),
-                        rs.getDouble("amount"),
-                        rs.getInt("category_id"),
-                        LocalDate.parse(rs.getString("date")),
-                        rs.getString("notes")
-                    );
-                    expenses.add(expense);
+            return expenses;
+        }, List::size);
+    }
+    
+    public List<ExpenseRow> findRowsByMonth(int month, int year) {
+        return FIND_ROWS_BY_MONTH.run(month, year, () -> {
+            List<ExpenseRow> rows = new ArrayList<>();
+            LocalDate monthStart = LocalDate.of(year, month, 1);
+            
+            try (Connection conn = dbManager.getReadConnection();
+                 PreparedStatement stmt = conn.prepareStatement(FIND_BY_MONTH_SQL)) {
+                
+                stmt.setLong(1, monthStart.toEpochDay());
+                stmt.setLong(2, monthStart.plusMonths(1).toEpochDay());
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        rows.add(mapRow(rs));
+                    }
                 }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error finding expense rows by month: " + month + "/" + year, e);
             }
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error finding expenses by month: " + month + "/" + year, e);
-        }
-        
-        return expenses;
+            
+            return rows;
+        }, List::size);
     }
     
-    public List<Expense> findByCategory(int categoryId) {
-        List<Expense> expenses = new ArrayList<>();
-        String sql = "SELECT id, amount, category_id, date, notes FROM expenses " +
-                    "WHERE category_id = ? ORDER BY date DESC";
-        
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+    /**
+     * Returns one page of the expenses in the inclusive date range, newest first with ties broken
+     * by descending id. Pass the last row of the previous page as {@code after} (or {@code null}
+     * for the first page) so the page starts right after it through the index, however deep it is.
+     * {@code offset} additionally skips that many rows, for jumping ahead from a known page.
+     */
+    public List<ExpenseRow> findRowsPage(LocalDate startDate, LocalDate endDate, ExpenseRow after,
+                                         int offset, int limit) {
+        return FIND_ROWS_PAGE.run(startDate, endDate, () -> {
+            List<ExpenseRow> rows = new ArrayList<>();
+            long endDay = endDate.toEpochDay();
+            // Without a previous row, a key just past the range makes the keyset condition always true
+            long afterDay = after != null ? after.epochDay() : endDay + 1;
+            int afterId = after != null ? after.id() : 0;
             
-            stmt.setInt(1, categoryId);
+            try (Connection conn = dbManager.getReadConnection();
+                 PreparedStatement stmt = conn.prepareStatement(FIND_PAGE_SQL)) {
+                
+                stmt.setLong(1, startDate.toEpochDay());
+                stmt.setLong(2, Math.min(endDay, afterDay));
+                stmt.setLong(3, afterDay);
+                stmt.setInt(4, afterId);
+                stmt.setInt(5, limit);
+                stmt.setInt(6, offset);
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        rows.add(mapRow(rs));
+                    }
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error finding expense page from " + startDate + " to " + endDate, e);
+            }
             
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    Expense expense = new Expense(
-                        rs.getInt("id"),
-                        rs.getDouble("amount"),
-                        rs.getInt("category_id"),
-                        LocalDate.parse(rs.getString("date")),
-                        rs.getString("notes")
-                    );
-                    expenses.add(expense);
+            return rows;
+        }, List::size);
+    }
+    
+    /**
+     * Counts a month's expenses from the monthly totals rollup.
+     */
+    public long countByMonth(int month, int year) {
+        return COUNT_BY_MONTH.run(month, year, () -> {
+            try (Connection conn = dbManager.getReadConnection();
+                 PreparedStatement stmt = conn.prepareStatement(COUNT_BY_MONTH_SQL)) {
+                
+                stmt.setInt(1, year);
+                stmt.setInt(2, month);
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        return rs.getLong(1);
+                    }
                 }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error counting expenses by month: " + month + "/" + year, e);
             }
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error finding expenses by category: " + categoryId, e);
-        }
-        
-        return expenses;
+            
+            return 0L;
+        }, count -> 1);
+    }
+    
+    /**
+     * Counts all expenses from the monthly totals rollup, without touching the expenses table.
+     */
+    public long countAll() {
+        return COUNT_ALL.run(() -> {
+            try (Connection conn = dbManager.getReadConnection();
+                 PreparedStatement stmt = conn.prepareStatement(COUNT_ALL_SQL);
+                 ResultSet rs = stmt.executeQuery()) {
+                
+                if (rs.next()) {
+                    return rs.getLong(1);
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error counting all expenses", e);
+            }
+            
+            return 0L;
+        }, count -> 1);
+    }
+    
+    public List<Expense> findByCategory(int categoryId) {
+        return FIND_BY_CATEGORY.run(() -> {
+            List<Expense> expenses = new ArrayList<>();
+            
+            try (Connection conn = dbManager.getReadConnection();
+                 PreparedStatement stmt = conn.prepareStatement(FIND_BY_CATEGORY_SQL)) {
+                
+                stmt.setInt(1, categoryId);
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        expenses.add(mapExpense(rs));
+                    }
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error finding expenses by category: " + categoryId, e);
+            }
+            
+            return expenses;
+        }, List::size);
     }
     
     public List<Expense> findByDateRange(LocalDate startDate, LocalDate endDate) {
-        List<Expense> expenses = new ArrayList<>();
-        String sql = "SELECT id, amount, category_id, date, notes FROM expenses " +
-                    "WHERE date BETWEEN ? AND ? ORDER BY date DESC";
-        
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        return FIND_BY_DATE_RANGE.run(startDate, endDate, () -> {
+            List<Expense> expenses = new ArrayList<>();
+            
+            try (Connection conn = dbManager.getReadConnection();
+                 PreparedStatement stmt = conn.prepareStatement(FIND_BY_DATE_RANGE_SQL)) {
+                
+                stmt.setLong(1, startDate.toEpochDay());
+                stmt.setLong(2, endDate.toEpochDay());
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        expenses.add(mapExpense(rs));
+                    }
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error finding expenses by date range", e);
+            }
             
-            stmt.setString(1, startDate.toString());
-            stmt.setString(2, endDate.toString());
+            return expenses;
+        }, List::size);
+    }
+    
+    public List<ExpenseRow> findRowsByDateRange(LocalDate startDate, LocalDate endDate) {
+        return FIND_ROWS_BY_DATE_RANGE.run(startDate, endDate, () -> {
+            List<ExpenseRow> rows = new ArrayList<>();
             
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    Expense expense = new Expense(
-                        rs.getInt("id"),
-                        rs.getDouble("amount"),
-                        rs.getInt("category_id"),
-                        LocalDate.parse(rs.getString("date")),
-                        rs.getString("notes")
-                    );
-                    expenses.add(expense);
+            try (Connection conn = dbManager.getReadConnection();
+                 PreparedStatement stmt = conn.prepareStatement(FIND_BY_DATE_RANGE_SQL)) {
+                
+                stmt.setLong(1, startDate.toEpochDay());
+                stmt.setLong(2, endDate.toEpochDay());
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        rows.add(mapRow(rs));
+                    }
                 }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error finding expense rows by date range", e);
             }
+            
+            return rows;
+        }, List::size);
+    }
+    
+    /**
+     * Streams every expense in the inclusive date range, newest first, optionally restricted to
+     * one category. The stream holds a pooled read connection until it is closed, so always
+     * consume it in a try-with-resources block. A database error, whether opening the cursor or
+     * reading from it, is logged and rethrown as an {@link IllegalStateException}.
+     */
+    public Stream<ExpenseRow> streamByDateRange(LocalDate startDate, LocalDate endDate, Integer categoryId) {
+        if (categoryId == null) {
+            return stream(STREAM_BY_DATE_RANGE.start(startDate, endDate), FIND_BY_DATE_RANGE_SQL, stmt -> {
+                stmt.setLong(1, startDate.toEpochDay());
+                stmt.setLong(2, endDate.toEpochDay());
+            });
+        }
+        return stream(STREAM_BY_DATE_RANGE_AND_CATEGORY.start(startDate, endDate), FIND_BY_DATE_RANGE_AND_CATEGORY_SQL,
+                      stmt -> {
+            stmt.setLong(1, startDate.toEpochDay());
+            stmt.setLong(2, endDate.toEpochDay());
+            stmt.setInt(3, categoryId);
+        });
+    }
+    
+    /**
+     * Streams all expenses, newest first. See {@link #streamByDateRange} for how to consume it.
+     */
+    public Stream<ExpenseRow> streamAll() {
+        return stream(STREAM_ALL.start(), FIND_ALL_SQL, stmt -> { });
+    }
+    
+    /**
+     * Opens a cursor for {@code call}, which is timed until the stream is closed.
+     */
+    private Stream<ExpenseRow> stream(DaoCall.Call call, String sql, StatementBinder binder) {
+        long[] rowsRead = {0};
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            conn = dbManager.getReadConnection();
+            stmt = conn.prepareStatement(sql);
+            stmt.setFetchSize(FETCH_SIZE);
+            binder.bind(stmt);
+            rs = stmt.executeQuery();
         } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error finding expenses by date range", e);
+            LOGGER.log(Level.SEVERE, "Error opening expense cursor", e);
+            closeQuietly(rs, stmt, conn);
+            call.finish(0);
+            throw new IllegalStateException("Error reading expenses", e);
         }
         
-        return expenses;
+        ResultSet cursor = rs;
+        PreparedStatement statement = stmt;
+        Connection connection = conn;
+        Spliterator<ExpenseRow> spliterator = new Spliterators.AbstractSpliterator<>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE) {
+            @Override
+            public boolean tryAdvance(Consumer<? super ExpenseRow> action) {
+                try {
+                    if (!cursor.next()) {
+                        return false;
+                    }
+                    action.accept(mapRow(cursor));
+                    rowsRead[0]++;
+                    return true;
+                } catch (SQLException e) {
+                    LOGGER.log(Level.SEVERE, "Error reading expense cursor", e);
+                    throw new IllegalStateException("Error reading expenses", e);
+                }
+            }
+        };
+        return StreamSupport.stream(spliterator, false)
+            .onClose(() -> {
+                closeQuietly(cursor, statement, connection);
+                call.finish(rowsRead[0]);
+            });
+    }
+    
+    private static void closeQuietly(AutoCloseable... resources) {
+        for (AutoCloseable resource : resources) {
+            if (resource == null) {
+                continue;
+            }
+            try {
+                resource.close();
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Error closing expense cursor", e);
+            }
+        }
     }
     
     public Optional<Expense> findById(int id) {
-        String sql = "SELECT id, amount, category_id, date, notes FROM expenses WHERE id = ?";
-        
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, id);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    Expense expense = new Expense(
-                        rs.getInt("id"),
-                        rs.getDouble("amount"),
-                        rs.getInt("category_id"),
-                        LocalDate.parse(rs.getString("date")),
-                        rs.getString("notes")
-                    );
-                    return Optional.of(expense);
+        return FIND_BY_ID.run(() -> {
+            try (Connection conn = dbManager.getReadConnection();
+                 PreparedStatement stmt = conn.prepareStatement(FIND_BY_ID_SQL)) {
+                
+                stmt.setInt(1, id);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        return Optional.of(mapExpense(rs));
+                    }
                 }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error finding expense by id: " + id, e);
             }
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error finding expense by id: " + id, e);
-        }
-        
-        return Optional.empty();
+            
+            return Optional.<Expense>empty();
+        }, expense -> expense.isPresent() ? 1 : 0);
     }
     
     public boolean save(Expense expense) {
-        if (expense.getId() == 0) {
-            return insert(expense);
-        } else {
-            return update(expense);
-        }
+        return saveAsync(expense).join();
     }
     
-    private boolean insert(Expense expense) {
-        String sql = "INSERT INTO expenses (amount, category_id, date, notes) VALUES (?, ?, ?, ?)";
+    /**
+     * Queues an insert or update on the writer thread. The future completes with {@code true}
+     * once the change is committed; failures are logged and reported as {@code false}.
+     */
+    public CompletableFuture<Boolean> saveAsync(Expense expense) {
+        return SAVE.submit(() -> expense.getId() == 0 ? insert(expense) : update(expense),
+                           success -> success ? 1 : 0);
+    }
+    
+    private CompletableFuture<Boolean> insert(Expense expense) {
+        long amountCents = Money.toCents(expense.getAmount());
+        int categoryId = expense.getCategoryId();
+        LocalDate date = expense.getDate();
+        String notes = expense.getNotes();
         
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            stmt.setDouble(1, expense.getAmount());
-            stmt.setInt(2, expense.getCategoryId());
-            stmt.setString(3, expense.getDate().toString());
-            stmt.setString(4, expense.getNotes());
-            
-            int affectedRows = stmt.executeUpdate();
-            if (affectedRows > 0) {
-                try (ResultSet rs = stmt.getGeneratedKeys()) {
-                    if (rs.next()) {
-                        expense.setId(rs.getInt(1));
-                        return true;
+        return dbManager.submitWrite(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                stmt.setLong(1, amountCents);
+                stmt.setInt(2, categoryId);
+                stmt.setLong(3, date.toEpochDay());
+                stmt.setString(4, notes);
+                stmt.setLong(5, ExpenseFingerprint.of(date.toEpochDay(), amountCents, notes));
+                
+                int affectedRows = stmt.executeUpdate();
+                if (affectedRows > 0) {
+                    try (ResultSet rs = stmt.getGeneratedKeys()) {
+                        if (rs.next()) {
+                            return rs.getInt(1);
+                        }
                     }
                 }
+                return 0;
             }
-        } catch (SQLException e) {
+        }).thenApply(id -> {
+            if (id > 0) {
+                expense.setId(id);
+                return true;
+            }
+            return false;
+        }).exceptionally(e -> {
             LOGGER.log(Level.SEVERE, "Error inserting expense", e);
-        }
+            return false;
+        });
+    }
+    
+    private CompletableFuture<Boolean> update(Expense expense) {
+        long amountCents = Money.toCents(expense.getAmount());
+        int categoryId = expense.getCategoryId();
+        LocalDate date = expense.getDate();
+        String notes = expense.getNotes();
+        int id = expense.getId();
         
-        return false;
+        return dbManager.submitWrite(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(UPDATE_SQL)) {
+                stmt.setLong(1, amountCents);
+                stmt.setInt(2, categoryId);
+                stmt.setLong(3, date.toEpochDay());
+                stmt.setString(4, notes);
+                stmt.setLong(5, ExpenseFingerprint.of(date.toEpochDay(), amountCents, notes));
+                stmt.setInt(6, id);
+                
+                return stmt.executeUpdate() > 0;
+            }
+        }).exceptionally(e -> {
+            LOGGER.log(Level.SEVERE, "Error updating expense", e);
+            return false;
+        });
     }
     
-    private boolean update(Expense expense) {
-        String sql = "UPDATE expenses SET amount = ?, category_id = ?, date = ?, notes = ? WHERE id = ?";
+    /**
+     * Queues a bulk insert of {@code rows} (their ids are ignored) as one JDBC batch on the writer
+     * thread. The future completes with the number of rows inserted once they are committed;
+     * a failed batch is rolled back as a whole, logged and reported as 0.
+     */
+    public CompletableFuture<Integer> insertBatch(List<ExpenseRow> rows) {
+        List<ExpenseRow> batch = new ArrayList<>(rows);
         
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        return INSERT_BATCH.submit(() -> dbManager.submitWrite(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+                // Bind on the driver's statement; only executeBatch needs the slow query wrapper
+                PreparedStatement rowStmt = stmt.unwrap(PreparedStatement.class);
+                for (ExpenseRow row : batch) {
+                    rowStmt.setLong(1, row.amountCents());
+                    rowStmt.setInt(2, row.categoryId());
+                    rowStmt.setLong(3, row.epochDay());
+                    rowStmt.setString(4, row.notes());
+                    rowStmt.setLong(5, ExpenseFingerprint.of(row.epochDay(), row.amountCents(), row.notes()));
+                    rowStmt.addBatch();
+                }
+                
+                int inserted = 0;
+                for (int count : stmt.executeBatch()) {
+                    inserted += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+                }
+                return inserted;
+            }
+        }).exceptionally(e -> {
+            LOGGER.log(Level.SEVERE, "Error inserting batch of " + batch.size() + " expenses", e);
+            return 0;
+        }), Integer::longValue);
+    }
+    
+    /**
+     * Finds the stored expenses with any of the given fingerprints, looking them up through the
+     * fingerprint index in chunks. Returns an empty {@code Optional} on a database error, since
+     * a partial result would let duplicates in.
+     */
+    public Optional<List<ExpenseRow>> findRowsByFingerprints(Collection<Long> fingerprints) {
+        return FIND_ROWS_BY_FINGERPRINTS.run(() -> {
+            List<ExpenseRow> rows = new ArrayList<>();
+            List<Long> keys = new ArrayList<>(fingerprints);
             
-            stmt.setDouble(1, expense.getAmount());
-            stmt.setInt(2, expense.getCategoryId());
-            stmt.setString(3, expense.getDate().toString());
-            stmt.setString(4, expense.getNotes());
-            stmt.setInt(5, expense.getId());
+            try (Connection conn = dbManager.getReadConnection()) {
+                for (int from = 0; from < keys.size(); from += FINGERPRINT_LOOKUP_SIZE) {
+                    List<Long> chunk = keys.subList(from, Math.min(keys.size(), from + FINGERPRINT_LOOKUP_SIZE));
+                    String sql = SELECT_COLUMNS + "WHERE fingerprint IN (" +
+                                 String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        for (int i = 0; i < chunk.size(); i++) {
+                            stmt.setLong(i + 1, chunk.get(i));
+                        }
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            while (rs.next()) {
+                                rows.add(mapRow(rs));
+                            }
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error finding expenses by fingerprint", e);
+                return Optional.<List<ExpenseRow>>empty();
+            }
             
-            return stmt.executeUpdate() > 0;
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error updating expense", e);
-        }
-        
-        return false;
+            return Optional.of(rows);
+        }, rows -> rows.map(List::size).orElse(0));
     }
     
     public boolean delete(int id) {
-        String sql = "DELETE FROM expenses WHERE id = ?";
-        
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, id);
-            return stmt.executeUpdate() > 0;
-        } catch (SQLException e) {
+        return deleteAsync(id).join();
+    }
+    
+    public CompletableFuture<Boolean> deleteAsync(int id) {
+        return DELETE.submit(() -> dbManager.submitWrite(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(DELETE_SQL)) {
+                stmt.setInt(1, id);
+                return stmt.executeUpdate() > 0;
+            }
+        }).exceptionally(e -> {
             LOGGER.log(Level.SEVERE, "Error deleting expense with id: " + id, e);
-        }
-        
-        return false;
+            return false;
+        }), deleted -> deleted ? 1 : 0);
     }
     
     public double getTotalByCategoryAndMonth(int categoryId, int month, int year) {
-        String sql = "SELECT SUM(amount) FROM expenses " +
-                    "WHERE category_id = ? AND strftime('%m', date) = ? AND strftime('%Y', date) = ?";
-        
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        return Money.toDouble(getTotalCentsByCategoryAndMonth(categoryId, month, year));
+    }
+    
+    public long getTotalCentsByCategoryAndMonth(int categoryId, int month, int year) {
+        return TOTAL_BY_CATEGORY_AND_MONTH.run(month, year, () -> {
+            long totalCents = 0;
             
-            stmt.setInt(1, categoryId);
-            stmt.setString(2, String.format("%02d", month));
-            stmt.setString(3, String.valueOf(year));
+            try (Connection conn = dbManager.getReadConnection();
+                 PreparedStatement stmt = conn.prepareStatement(TOTAL_BY_CATEGORY_AND_MONTH_SQL)) {
+                
+                stmt.setInt(1, categoryId);
+                stmt.setInt(2, year);
+                stmt.setInt(3, month);
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        totalCents = rs.getLong(1);
+                    }
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error getting total by category and month", e);
+            }
             
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getDouble(1);
+            return totalCents;
+        }, total -> 1);
+    }
+    
+    public long getTotalCentsByMonth(int month, int year) {
+        return TOTAL_BY_MONTH.run(month, year, () -> {
+            long totalCents = 0;
+            
+            try (Connection conn = dbManager.getReadConnection();
+                 PreparedStatement stmt = conn.prepareStatement(TOTAL_BY_MONTH_SQL)) {
+                
+                stmt.setInt(1, year);
+                stmt.setInt(2, month);
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        totalCents = rs.getLong(1);
+                    }
                 }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error getting total by month: " + month + "/" + year, e);
             }
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error getting total by category and month", e);
+            
+            return totalCents;
+        }, total -> 1);
+    }
+    
+    /**
+     * Aggregates a month in a single grouped query: per-category totals, counts and min/max amounts
+     * together with the daily totals across all categories.
+     */
+    public MonthSummary summarizeMonth(int month, int year) {
+        int[] groups = {0};
+        return SUMMARIZE_MONTH.run(month, year, () -> {
+            LocalDate monthStart = LocalDate.of(year, month, 1);
+            Map<Integer, CategorySummary> categories = new LinkedHashMap<>();
+            SortedMap<LocalDate, Long> dailyTotals = new TreeMap<>();
+            
+            try (Connection conn = dbManager.getReadConnection();
+                 PreparedStatement stmt = conn.prepareStatement(SUMMARY_BY_MONTH_SQL)) {
+                
+                stmt.setLong(1, monthStart.toEpochDay());
+                stmt.setLong(2, monthStart.plusMonths(1).toEpochDay());
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        int categoryId = rs.getInt(1);
+                        LocalDate day = LocalDate.ofEpochDay(rs.getLong(2));
+                        long totalCents = rs.getLong(3);
+                        int count = rs.getInt(4);
+                        long minCents = rs.getLong(5);
+                        long maxCents = rs.getLong(6);
+                        
+                        CategorySummary existing = categories.get(categoryId);
+                        categories.put(categoryId, existing == null
+                            ? new CategorySummary(categoryId, totalCents, count, minCents, maxCents)
+                            : existing.merge(totalCents, count, minCents, maxCents));
+                        dailyTotals.merge(day, totalCents, Long::sum);
+                        groups[0]++;
+                    }
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error summarizing expenses for month: " + month + "/" + year, e);
+            }
+            
+            return new MonthSummary(new ArrayList<>(categories.values()), dailyTotals);
+        }, summary -> groups[0]);
+    }
+    
+    /**
+     * Maps the current row of a {@link #SELECT_COLUMNS} query by column position.
+     */
+    private static Expense mapExpense(ResultSet rs) throws SQLException {
+        return new Expense(
+            rs.getInt(1),
+            Money.toDouble(rs.getLong(2)),
+            rs.getInt(3),
+            LocalDate.ofEpochDay(rs.getLong(4)),
+            rs.getString(5)
+        );
+    }
+    
+    /**
+     * Maps the current row of a {@link #SELECT_COLUMNS} query to a compact row without conversions.
+     */
+    static ExpenseRow mapRow(ResultSet rs) throws SQLException {
+        return new ExpenseRow(rs.getInt(1), rs.getLong(2), rs.getInt(3), rs.getLong(4), rs.getString(5));
+    }
+    
+    /**
+     * Binds the parameters of a prepared query.
+     */
+    @FunctionalInterface
+    private interface StatementBinder {
+        void bind(PreparedStatement stmt) throws SQLException;
+    }
+    
+    /**
+     * Aggregated amounts for one category within a month.
+     */
+    public static class CategorySummary {
+        private final int categoryId;
+        private final long totalCents;
+        private final int count;
+        private final long minCents;
+        private final long maxCents;
+        
+        public CategorySummary(int categoryId, long totalCents, int count, long minCents, long maxCents) {
+            this.categoryId = categoryId;
+            this.totalCents = totalCents;
+            this.count = count;
+            this.minCents = minCents;
+            this.maxCents = maxCents;
         }
         
-        return 0.0;
+        CategorySummary merge(long otherTotalCents, int otherCount, long otherMinCents, long otherMaxCents) {
+            return new CategorySummary(categoryId, totalCents + otherTotalCents, count + otherCount,
+                                       Math.min(minCents, otherMinCents), Math.max(maxCents, otherMaxCents));
+        }
+        
+        public int getCategoryId() {
+            return categoryId;
+        }
+        
+        public long getTotalCents() {
+            return totalCents;
+        }
+        
+        public int getCount() {
+            return count;
+        }
+        
+        public long getMinCents() {
+            return minCents;
+        }
+        
+        public long getMaxCents() {
+            return maxCents;
+        }
+    }
+    
+    /**
+     * Result of {@link #summarizeMonth(int, int)}.
+     */
+    public static class MonthSummary {
+        private final List<CategorySummary> categories;
+        private final SortedMap<LocalDate, Long> dailyTotalsCents;
+        private final long totalCents;
+        private final int count;
+        
+        public MonthSummary(List<CategorySummary> categories, SortedMap<LocalDate, Long> dailyTotalsCents) {
+            this.categories = Collections.unmodifiableList(categories);
+            this.dailyTotalsCents = Collections.unmodifiableSortedMap(dailyTotalsCents);
+            long total = 0;
+            int expenseCount = 0;
+            for (CategorySummary category : categories) {
+                total += category.getTotalCents();
+                expenseCount += category.getCount();
+            }
+            this.totalCents = total;
+            this.count = expenseCount;
+        }
+        
+        public List<CategorySummary> getCategories() {
+            return categories;
+        }
+        
+        public SortedMap<LocalDate, Long> getDailyTotalsCents() {
+            return dailyTotalsCents;
+        }
+        
+        public long getTotalCents() {
+            return totalCents;
+        }
+        
+        public int getCount() {
+            return count;
+        }
     }
 }
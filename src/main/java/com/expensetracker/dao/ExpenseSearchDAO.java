@@ -0,0 +1,70 @@
+package com.expensetracker.dao;
+
+import com.expensetracker.model.ExpenseRow;
+import com.expensetracker.util.DatabaseManager;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Queries the {@code expense_search} FTS5 index, which triggers keep in step with the expenses
+ * and categories tables.
+ * <p>
+ * A page of matching ids is selected from the index first and only those rows are joined to
+ * expenses, so the cost of a query depends on the page size rather than the number of matches
+ * (apart from ranking, which has to score every match).
+ */
+public class ExpenseSearchDAO {
+    private static final Logger LOGGER = Logger.getLogger(ExpenseSearchDAO.class.getName());
+    
+    static final String SEARCH_BY_RANK_SQL =
+        "SELECT e.id, e.amount_cents, e.category_id, e.epoch_day, e.notes FROM " +
+        "(SELECT rowid AS id, rank FROM expense_search WHERE expense_search MATCH ? ORDER BY rank LIMIT ? OFFSET ?) s " +
+        "JOIN expenses e ON e.id = s.id ORDER BY s.rank";
+    static final String SEARCH_BY_RECENT_SQL =
+        "SELECT e.id, e.amount_cents, e.category_id, e.epoch_day, e.notes FROM " +
+        "(SELECT rowid AS id FROM expense_search WHERE expense_search MATCH ? ORDER BY rowid DESC LIMIT ? OFFSET ?) s " +
+        "JOIN expenses e ON e.id = s.id ORDER BY s.id DESC";
+    
+    private static final DaoCall SEARCH_BY_RANK = DaoCall.read("ExpenseSearchDAO.search", SEARCH_BY_RANK_SQL);
+    private static final DaoCall SEARCH_BY_RECENT = DaoCall.read("ExpenseSearchDAO.search", SEARCH_BY_RECENT_SQL);
+    
+    private final DatabaseManager dbManager;
+    
+    public ExpenseSearchDAO() {
+        this.dbManager = DatabaseManager.getInstance();
+    }
+    
+    /**
+     * Returns up to {@code limit} expenses matching an FTS5 query expression, skipping the first
+     * {@code offset} matches.
+     *
+     * @param byRank order by relevance (bm25) if {@code true}, otherwise most recently added first
+     */
+    public List<ExpenseRow> search(String matchExpression, boolean byRank, int limit, int offset) {
+        return (byRank ? SEARCH_BY_RANK : SEARCH_BY_RECENT).run(() -> {
+            List<ExpenseRow> rows = new ArrayList<>();
+            
+            try (Connection conn = dbManager.getReadConnection();
+                 PreparedStatement stmt = conn.prepareStatement(byRank ? SEARCH_BY_RANK_SQL : SEARCH_BY_RECENT_SQL)) {
+                
+                stmt.setString(1, matchExpression);
+                stmt.setInt(2, limit);
+                stmt.setInt(3, offset);
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        rows.add(ExpenseDAO.mapRow(rs));
+                    }
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error searching expenses for: " + matchExpression, e);
+            }
+            
+            return rows;
+        }, List::size);
+    }
+}
@@ -0,0 +1,231 @@
+package com.expensetracker.dao;
+
+import com.expensetracker.util.DatabaseManager;
+import com.expensetracker.util.SchemaMigrations;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Checks and repairs the {@code monthly_category_totals} rollup that triggers maintain on every
+ * change to the expenses table.
+ */
+public class MonthlyTotalsDAO {
+    private static final Logger LOGGER = Logger.getLogger(MonthlyTotalsDAO.class.getName());
+    private static final String EXPENSES_SQL = "SELECT category_id, epoch_day, amount_cents FROM expenses " +
+                                               "ORDER BY category_id, epoch_day";
+    private static final String TOTALS_SQL = "SELECT category_id, year, month, total_cents, expense_count " +
+                                             "FROM monthly_category_totals ORDER BY category_id, year, month";
+    
+    private static final DaoCall VERIFY = DaoCall.read("MonthlyTotalsDAO.verify", EXPENSES_SQL);
+    private static final DaoCall REBUILD = DaoCall.write("MonthlyTotalsDAO.rebuild",
+                                                         SchemaMigrations.MONTHLY_TOTALS_REBUILD_SQL);
+    
+    private final DatabaseManager dbManager;
+    
+    public MonthlyTotalsDAO() {
+        this.dbManager = DatabaseManager.getInstance();
+    }
+    
+    /**
+     * Recomputes every monthly total from the expenses and compares it with the stored rollup.
+     * <p>
+     * Expenses are streamed in (category, day) order from the covering index and merged against
+     * the rollup read in primary-key order, so memory use does not grow with the table size.
+     *
+     * @return every month whose stored total or count differs, empty if the rollup is consistent
+     */
+    public List<Discrepancy> verify() {
+        return VERIFY.run(() -> {
+            List<Discrepancy> discrepancies = new ArrayList<>();
+            
+            try (Connection conn = dbManager.getReadConnection();
+                 Statement expensesStmt = conn.createStatement();
+                 Statement totalsStmt = conn.createStatement();
+                 ResultSet expenses = expensesStmt.executeQuery(EXPENSES_SQL);
+                 ResultSet totals = totalsStmt.executeQuery(TOTALS_SQL)) {
+                
+                MonthTotal stored = readTotal(totals);
+                MonthTotal computed = null;
+                while (expenses.next()) {
+                    int categoryId = expenses.getInt(1);
+                    LocalDate day = LocalDate.ofEpochDay(expenses.getLong(2));
+                    long amountCents = expenses.getLong(3);
+                    
+                    if (computed != null && computed.isSameMonth(categoryId, day.getYear(), day.getMonthValue())) {
+                        computed.totalCents += amountCents;
+                        computed.count++;
+                    } else {
+                        if (computed != null) {
+                            stored = compare(computed, stored, totals, discrepancies);
+                        }
+                        computed = new MonthTotal(categoryId, day.getYear(), day.getMonthValue(), amountCents, 1);
+                    }
+                }
+                if (computed != null) {
+                    stored = compare(computed, stored, totals, discrepancies);
+                }
+                while (stored != null) {
+                    discrepancies.add(new Discrepancy(stored.categoryId, stored.year, stored.month,
+                                                      0, stored.totalCents, 0, stored.count));
+                    stored = readTotal(totals);
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error verifying monthly category totals", e);
+            }
+            
+            return discrepancies;
+        }, List::size);
+    }
+    
+    /**
+     * Discards the rollup and recomputes it from the expenses in a single write transaction.
+     */
+    public boolean rebuild() {
+        return REBUILD.submit(() -> dbManager.submitWrite(conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DELETE FROM monthly_category_totals");
+                int rows = stmt.executeUpdate(SchemaMigrations.MONTHLY_TOTALS_REBUILD_SQL);
+                LOGGER.info("Rebuilt monthly category totals: " + rows + " rows");
+                return true;
+            }
+        }).exceptionally(e -> {
+            LOGGER.log(Level.SEVERE, "Error rebuilding monthly category totals", e);
+            return false;
+        }), rebuilt -> rebuilt ? 1 : 0).join();
+    }
+    
+    /**
+     * Advances the stored rollup past every month ordered before {@code computed}, reporting those
+     * as extra rows, then compares the matching row if there is one.
+     *
+     * @return the first stored row after {@code computed}, or {@code null} if none is left
+     */
+    private static MonthTotal compare(MonthTotal computed, MonthTotal stored, ResultSet totals,
+                                      List<Discrepancy> discrepancies) throws SQLException {
+        while (stored != null && stored.compareTo(computed) < 0) {
+            discrepancies.add(new Discrepancy(stored.categoryId, stored.year, stored.month,
+                                              0, stored.totalCents, 0, stored.count));
+            stored = readTotal(totals);
+        }
+        
+        if (stored != null && stored.compareTo(computed) == 0) {
+            if (stored.totalCents != computed.totalCents || stored.count != computed.count) {
+                discrepancies.add(new Discrepancy(computed.categoryId, computed.year, computed.month,
+                                                  computed.totalCents, stored.totalCents,
+                                                  computed.count, stored.count));
+            }
+            return readTotal(totals);
+        }
+        
+        discrepancies.add(new Discrepancy(computed.categoryId, computed.year, computed.month,
+                                          computed.totalCents, 0, computed.count, 0));
+        return stored;
+    }
+    
+    private static MonthTotal readTotal(ResultSet totals) throws SQLException {
+        if (!totals.next()) {
+            return null;
+        }
+        return new MonthTotal(totals.getInt(1), totals.getInt(2), totals.getInt(3),
+                              totals.getLong(4), totals.getInt(5));
+    }
+    
+    /**
+     * Running total for one category and month while streaming.
+     */
+    private static class MonthTotal implements Comparable<MonthTotal> {
+        private final int categoryId;
+        private final int year;
+        private final int month;
+        private long totalCents;
+        private int count;
+        
+        MonthTotal(int categoryId, int year, int month, long totalCents, int count) {
+            this.categoryId = categoryId;
+            this.year = year;
+            this.month = month;
+            this.totalCents = totalCents;
+            this.count = count;
+        }
+        
+        boolean isSameMonth(int otherCategoryId, int otherYear, int otherMonth) {
+            return categoryId == otherCategoryId && year == otherYear && month == otherMonth;
+        }
+        
+        @Override
+        public int compareTo(MonthTotal other) {
+            int result = Integer.compare(categoryId, other.categoryId);
+            if (result == 0) {
+                result = Integer.compare(year, other.year);
+            }
+            if (result == 0) {
+                result = Integer.compare(month, other.month);
+            }
+            return result;
+        }
+    }
+    
+    /**
+     * A month whose stored rollup row does not match the expenses. A missing row is reported
+     * with a stored total and count of zero, a stale row with an expected total and count of zero.
+     */
+    public static class Discrepancy {
+        private final int categoryId;
+        private final int year;
+        private final int month;
+        private final long expectedCents;
+        private final long storedCents;
+        private final int expectedCount;
+        private final int storedCount;
+        
+        public Discrepancy(int categoryId, int year, int month, long expectedCents, long storedCents,
+                           int expectedCount, int storedCount) {
+            this.categoryId = categoryId;
+            this.year = year;
+            this.month = month;
+            this.expectedCents = expectedCents;
+            this.storedCents = storedCents;
+            this.expectedCount = expectedCount;
+            this.storedCount = storedCount;
+        }
+        
+        public int getCategoryId() {
+            return categoryId;
+        }
+        
+        public int getYear() {
+            return year;
+        }
+        
+        public int getMonth() {
+            return month;
+        }
+        
+        public long getExpectedCents() {
+            return expectedCents;
+        }
+        
+        public long getStoredCents() {
+            return storedCents;
+        }
+        
+        public int getExpectedCount() {
+            return expectedCount;
+        }
+        
+        public int getStoredCount() {
+            return storedCount;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("category %d %04d-%02d: expected %d cents in %d expenses, stored %d cents in %d",
+                                 categoryId, year, month, expectedCents, expectedCount, storedCents, storedCount);
+        }
+    }
+}
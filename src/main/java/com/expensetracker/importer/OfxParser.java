@@ -0,0 +1,117 @@
+package com.expensetracker.importer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parser for OFX and QFX statements, both the SGML form of OFX 1.x (leaf elements without end
+ * tags) and the XML form of OFX 2.x.
+ * <p>
+ * The file is scanned tag by tag; headers and all aggregates other than {@code <STMTTRN>} are
+ * ignored. Of each transaction the posting date, amount, name and memo are read.
+ */
+public class OfxParser implements StatementParser {
+    
+    @Override
+    public ParsedStatement parse(Path file) throws IOException {
+        return parse(StatementParser.readText(file));
+    }
+    
+    ParsedStatement parse(String text) {
+        List<StatementTransaction> transactions = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        TransactionFields fields = null;
+        int transactionNumber = 0;
+        
+        int position = text.indexOf('<');
+        while (position >= 0) {
+            int tagEnd = text.indexOf('>', position);
+            if (tagEnd < 0) {
+                break;
+            }
+            String tag = text.substring(position + 1, tagEnd).trim().toUpperCase(Locale.ROOT);
+            int next = text.indexOf('<', tagEnd);
+            String value = decodeEntities(text.substring(tagEnd + 1, next < 0 ? text.length() : next).trim());
+            position = next;
+            
+            if (tag.equals("STMTTRN")) {
+                fields = new TransactionFields();
+                transactionNumber++;
+            } else if (tag.equals("/STMTTRN")) {
+                if (fields != null) {
+                    try {
+                        transactions.add(fields.toTransaction());
+                    } catch (IllegalArgumentException e) {
+                        errors.add("Transaction " + transactionNumber + ": " + e.getMessage());
+                    }
+                }
+                fields = null;
+            } else if (fields != null) {
+                fields.set(tag, value);
+            }
+        }
+        
+        return new ParsedStatement(transactions, errors);
+    }
+    
+    private static String decodeEntities(String value) {
+        if (value.indexOf('&') < 0) {
+            return value;
+        }
+        return value.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+                    .replace("&apos;", "'").replace("&nbsp;", " ").replace("&amp;", "&");
+    }
+    
+    /**
+     * Leaf values collected inside one {@code <STMTTRN>} aggregate.
+     */
+    private static class TransactionFields {
+        private String posted;
+        private String amount;
+        private String name = "";
+        private String memo = "";
+        
+        void set(String tag, String value) {
+            switch (tag) {
+                case "DTPOSTED":
+                    posted = value;
+                    break;
+                case "TRNAMT":
+                    amount = value;
+                    break;
+                case "NAME":
+                    name = value;
+                    break;
+                case "MEMO":
+                    memo = value;
+                    break;
+                default:
+                    // Other elements, such as FITID or TRNTYPE, are not needed
+            }
+        }
+        
+        StatementTransaction toTransaction() {
+            if (posted == null || posted.length() < 8) {
+                throw new IllegalArgumentException("Missing or invalid DTPOSTED \"" + posted + "\"");
+            }
+            if (amount == null || amount.isEmpty()) {
+                throw new IllegalArgumentException("Missing TRNAMT");
+            }
+            
+            LocalDate date;
+            try {
+                // Dates are YYYYMMDD, optionally followed by a time and time zone
+                date = LocalDate.parse(posted.substring(0, 8), DateTimeFormatter.BASIC_ISO_DATE);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid DTPOSTED \"" + posted + "\"");
+            }
+            return new StatementTransaction(date, StatementParser.parseCents(amount), name, memo, "");
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.expensetracker.importer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parser for Quicken Interchange Format statements.
+ * <p>
+ * Each line starts with a field code and records end with {@code ^}. The date ({@code D}),
+ * amount ({@code T}, or {@code U} when {@code T} is missing), payee ({@code P}), memo
+ * ({@code M}) and category ({@code L}) are read; other codes and {@code !} header lines are
+ * ignored. Dates are month first, as Quicken writes them: {@code 3/7/2024}, {@code 03/07/24}
+ * or {@code 3/ 7'24}, where the apostrophe marks a year after 1999.
+ */
+public class QifParser implements StatementParser {
+    
+    @Override
+    public ParsedStatement parse(Path file) throws IOException {
+        return parse(StatementParser.readText(file));
+    }
+    
+    ParsedStatement parse(String text) {
+        List<StatementTransaction> transactions = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        RecordFields fields = new RecordFields();
+        
+        String[] lines = text.split("\r\n|\r|\n");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (line.isEmpty() || line.startsWith("!")) {
+                continue;
+            }
+            
+            if (line.charAt(0) == '^') {
+                if (!fields.isEmpty()) {
+                    try {
+                        transactions.add(fields.toTransaction());
+                    } catch (IllegalArgumentException e) {
+                        errors.add("Line " + fields.startLine + ": " + e.getMessage());
+                    }
+                }
+                fields = new RecordFields();
+            } else {
+                if (fields.isEmpty()) {
+                    fields.startLine = i + 1;
+                }
+                fields.set(line.charAt(0), line.substring(1).trim());
+            }
+        }
+        if (!fields.isEmpty()) {
+            errors.add("Line " + fields.startLine + ": Record is not terminated with ^");
+        }
+        
+        return new ParsedStatement(transactions, errors);
+    }
+    
+    static LocalDate parseDate(String value) {
+        String normalized = value.replace(" ", "");
+        boolean apostrophe = normalized.indexOf('\'') >= 0;
+        String[] parts = normalized.split("[/'.-]");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Invalid date \"" + value + "\"");
+        }
+        
+        try {
+            int month = Integer.parseInt(parts[0]);
+            int day = Integer.parseInt(parts[1]);
+            int year = Integer.parseInt(parts[2]);
+            if (parts[2].length() <= 2) {
+                // Two-digit years after an apostrophe are 2000 and later, otherwise pivot at 1970
+                year += apostrophe || year < 70 ? 2000 : 1900;
+            }
+            return LocalDate.of(year, month, day);
+        } catch (NumberFormatException | DateTimeException e) {
+            throw new IllegalArgumentException("Invalid date \"" + value + "\"");
+        }
+    }
+    
+    /**
+     * Field values collected for the record being read.
+     */
+    private static class RecordFields {
+        private int startLine;
+        private String date;
+        private String amount;
+        private String payee = "";
+        private String memo = "";
+        private String category = "";
+        
+        boolean isEmpty() {
+            return startLine == 0;
+        }
+        
+        void set(char code, String value) {
+            switch (code) {
+                case 'D':
+                    date = value;
+                    break;
+                case 'T':
+                    amount = value;
+                    break;
+                case 'U':
+                    if (amount == null) {
+                        amount = value;
+                    }
+                    break;
+                case 'P':
+                    payee = value;
+                    break;
+                case 'M':
+                    memo = value;
+                    break;
+                case 'L':
+                    category = categoryName(value);
+                    break;
+                default:
+                    // Other codes, such as check numbers or splits, are not needed
+            }
+        }
+        
+        StatementTransaction toTransaction() {
+            if (date == null) {
+                throw new IllegalArgumentException("Missing date");
+            }
+            if (amount == null || amount.isEmpty()) {
+                throw new IllegalArgumentException("Missing amount");
+            }
+            return new StatementTransaction(parseDate(date), StatementParser.parseCents(amount), payee, memo, category);
+        }
+        
+        /**
+         * Keeps the top-level category of {@code Category:Subcategory/Class}; transfers such as
+         * {@code [Savings]} have no category.
+         */
+        private static String categoryName(String value) {
+            if (value.startsWith("[")) {
+                return "";
+            }
+            int end = value.length();
+            int colon = value.indexOf(':');
+            int slash = value.indexOf('/');
+            if (colon >= 0) {
+                end = colon;
+            }
+            if (slash >= 0 && slash < end) {
+                end = slash;
+            }
+            return value.substring(0, end).trim();
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.expensetracker.importer;
+
+import com.expensetracker.dao.ExpenseDAO;
+import com.expensetracker.model.CategoryRow;
+import com.expensetracker.model.ExpenseRow;
+import com.expensetracker.service.CategoryCache;
+import com.expensetracker.util.ExpenseFingerprint;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Imports OFX, QFX and QIF bank statements as expenses.
+ * <p>
+ * Files are parsed in parallel on a pool of {@code import.parserThreads} threads (by default
+ * the number of processors, at most 4), one file per task. The parsed files are then written in
+ * the order given: debits become expenses, credits are skipped, and transactions whose date,
+ * amount and normalized notes match an existing expense are counted as duplicates. The
+ * duplicate check looks the file's {@link ExpenseFingerprint}s up through the fingerprint index
+ * instead of scanning the table, then compares those fields of the expenses found, so a
+ * fingerprint collision is never taken for a duplicate. Matches are counted, so a statement
+ * that legitimately lists the same purchase twice keeps both while importing it again adds nothing. Each file's new rows are
+ * written in batches of {@code import.batchSize} rows (5000 by default) and committed before the
+ * next file is checked, so overlapping statements in one import are also de-duplicated.
+ */
+public class StatementImporter {
+    private static final Logger LOGGER = Logger.getLogger(StatementImporter.class.getName());
+    private static final int PARSER_THREADS = Integer.getInteger("import.parserThreads",
+        Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private static final int BATCH_SIZE = Integer.getInteger("import.batchSize", 5000);
+    private static final String DEFAULT_CATEGORY = "Other";
+    
+    private final ExpenseDAO expenseDAO;
+    private final CategoryCache categoryCache;
+    
+    public StatementImporter() {
+        this.expenseDAO = new ExpenseDAO();
+        this.categoryCache = CategoryCache.getInstance();
+    }
+    
+    /**
+     * Imports {@code files}, returning one result per file in the same order.
+     *
+     * @param listener notified after each file is written; may be {@code null}
+     */
+    public List<FileResult> importFiles(List<Path> files, ProgressListener listener) {
+        ProgressListener progress = listener != null ? listener : result -> { };
+        List<FileResult> results = new ArrayList<>();
+        if (files.isEmpty()) {
+            return results;
+        }
+        
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService parsers = Executors.newFixedThreadPool(Math.max(1, Math.min(PARSER_THREADS, files.size())),
+            runnable -> {
+                Thread thread = new Thread(runnable, "statement-parser-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        
+        try {
+            List<Future<StatementParser.ParsedStatement>> parsed = new ArrayList<>();
+            for (Path file : files) {
+                parsed.add(parsers.submit(() -> parse(file)));
+            }
+            
+            for (int i = 0; i < files.size(); i++) {
+                if (progress.isCancelled() || Thread.currentThread().isInterrupted()) {
+                    results.add(FileResult.failed(files.get(i), "Import cancelled"));
+                    continue;
+                }
+                
+                FileResult result;
+                try {
+                    result = importParsed(files.get(i), parsed.get(i).get());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    LOGGER.log(Level.SEVERE, "Error parsing statement " + files.get(i), cause);
+                    result = FileResult.failed(files.get(i), cause.getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    result = FileResult.failed(files.get(i), "Import cancelled");
+                }
+                LOGGER.info("Statement import finished: " + result);
+                results.add(result);
+                progress.onFileImported(result);
+            }
+        } finally {
+            parsers.shutdownNow();
+        }
+        return results;
+    }
+    
+    private static StatementParser.ParsedStatement parse(Path file) throws IOException {
+        StatementParser parser = StatementParser.forFile(file)
+            .orElseThrow(() -> new IOException("Unsupported statement format: " + file.getFileName()));
+        return parser.parse(file);
+    }
+    
+    private FileResult importParsed(Path file, StatementParser.ParsedStatement statement) {
+        long start = System.nanoTime();
+        Optional<CategoryRow> fallback = categoryCache.findRowByName(DEFAULT_CATEGORY);
+        LocalDate today = LocalDate.now();
+        List<String> errors = new ArrayList<>(statement.getErrors());
+        long skipped = 0;
+        
+        // Map debits to rows first so the fingerprints can be looked up together
+        List<ExpenseRow> candidates = new ArrayList<>();
+        List<Long> fingerprints = new ArrayList<>();
+        for (StatementTransaction transaction : statement.getTransactions()) {
+            if (transaction.amountCents() >= 0) {
+                skipped++;
+                continue;
+            }
+            if (transaction.date().isAfter(today)) {
+                errors.add("Transaction on " + transaction.date() + " is in the future");
+                continue;
+            }
+            
+            CategoryRow category = categoryCache.findRowByName(transaction.category()).or(() -> fallback).orElse(null);
+            if (category == null) {
+                return FileResult.failed(file, "No \"" + DEFAULT_CATEGORY + "\" category for uncategorized transactions");
+            }
+            ExpenseRow row = new ExpenseRow(0, -transaction.amountCents(), category.id(),
+                                            transaction.date().toEpochDay(), transaction.notes());
+            candidates.add(row);
+            fingerprints.add(ExpenseFingerprint.of(row.epochDay(), row.amountCents(), row.notes()));
+        }
+        
+        Optional<List<ExpenseRow>> existing = expenseDAO.findRowsByFingerprints(new HashSet<>(fingerprints));
+        if (existing.isEmpty()) {
+            return FileResult.failed(file, "Could not check for existing expenses, see the log");
+        }
+        
+        // Each stored expense absorbs one transaction with the same fields; the rest are new
+        Map<ExpenseKey, Integer> remaining = new HashMap<>();
+        for (ExpenseRow row : existing.get()) {
+            remaining.merge(ExpenseKey.of(row), 1, Integer::sum);
+        }
+        List<ExpenseRow> newRows = new ArrayList<>();
+        long duplicates = 0;
+        for (ExpenseRow candidate : candidates) {
+            ExpenseKey key = ExpenseKey.of(candidate);
+            Integer count = remaining.get(key);
+            if (count != null && count > 0) {
+                remaining.put(key, count - 1);
+                duplicates++;
+            } else {
+                newRows.add(candidate);
+            }
+        }
+        
+        List<CompletableFuture<Integer>> batches = new ArrayList<>();
+        for (int from = 0; from < newRows.size(); from += BATCH_SIZE) {
+            batches.add(expenseDAO.insertBatch(newRows.subList(from, Math.min(newRows.size(), from + BATCH_SIZE))));
+        }
+        long imported = 0;
+        for (CompletableFuture<Integer> batch : batches) {
+            int inserted = batch.join();
+            if (inserted == 0) {
+                errors.add("A batch of rows could not be written to the database, see the log");
+            }
+            imported += inserted;
+        }
+        
+        return new FileResult(file, statement.getTransactions().size(), imported, duplicates, skipped, errors,
+                              System.nanoTime() - start);
+    }
+    
+    /**
+     * The fields two expenses must share to be the same transaction; notes are normalized as
+     * for the fingerprint.
+     */
+    private record ExpenseKey(long epochDay, long amountCents, String notes) {
+        static ExpenseKey of(ExpenseRow row) {
+            return new ExpenseKey(row.epochDay(), row.amountCents(), ExpenseFingerprint.normalizeNotes(row.notes()));
+        }
+    }
+    
+    /**
+     * Receives import progress on the importing thread.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onFileImported(FileResult result);
+        
+        /**
+         * Polled before each file is written; returning {@code true} skips the remaining files.
+         * Files already written are kept.
+         */
+        default boolean isCancelled() {
+            return false;
+        }
+    }
+    
+    /**
+     * Outcome of importing one statement file.
+     */
+    public static class FileResult {
+        private final Path file;
+        private final boolean failed;
+        private final long transactions;
+        private final long imported;
+        private final long duplicates;
+        private final long skipped;
+        private final List<String> errors;
+        private final long elapsedNanos;
+        
+        public FileResult(Path file, long transactions, long imported, long duplicates, long skipped,
+                          List<String> errors, long elapsedNanos) {
+            this(file, false, transactions, imported, duplicates, skipped, errors, elapsedNanos);
+        }
+        
+        private FileResult(Path file, boolean failed, long transactions, long imported, long duplicates,
+                           long skipped, List<String> errors, long elapsedNanos) {
+            this.file = file;
+            this.failed = failed;
+            this.transactions = transactions;
+            this.imported = imported;
+            this.duplicates = duplicates;
+            this.skipped = skipped;
+            this.errors = Collections.unmodifiableList(errors);
+            this.elapsedNanos = elapsedNanos;
+        }
+        
+        static FileResult failed(Path file, String message) {
+            return new FileResult(file, true, 0, 0, 0, 0, List.of(String.valueOf(message)), 0);
+        }
+        
+        public Path getFile() {
+            return file;
+        }
+        
+        /**
+         * Whether the file could not be imported at all; nothing was written for it.
+         */
+        public boolean isFailed() {
+            return failed;
+        }
+        
+        public long getTransactions() {
+            return transactions;
+        }
+        
+        public long getImported() {
+            return imported;
+        }
+        
+        /**
+         * Debits that matched an existing expense and were not imported again.
+         */
+        public long getDuplicates() {
+            return duplicates;
+        }
+        
+        /**
+         * Credits, which are not expenses.
+         */
+        public long getSkipped() {
+            return skipped;
+        }
+        
+        public List<String> getErrors() {
+            return errors;
+        }
+        
+        public long getElapsedMillis() {
+            return elapsedNanos / 1_000_000;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("FileResult{file=%s, failed=%s, transactions=%d, imported=%d, duplicates=%d, " +
+                                 "skipped=%d, errors=%d, %d ms}", file.getFileName(), failed, transactions, imported,
+                                 duplicates, skipped, errors.size(), getElapsedMillis());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.expensetracker.importer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Reads the transactions of one statement file.
+ * <p>
+ * Implementations are stateless, so one instance may parse several files at the same time.
+ */
+public interface StatementParser {
+    
+    /**
+     * Parses a whole file. Transactions that cannot be read are reported in the result's errors
+     * and the rest of the file is still parsed.
+     *
+     * @throws IOException if the file cannot be read
+     */
+    ParsedStatement parse(Path file) throws IOException;
+    
+    /**
+     * Picks a parser from the file extension: {@code .ofx} and {@code .qfx} for OFX, {@code .qif} for QIF.
+     */
+    static Optional<StatementParser> forFile(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".ofx") || name.endsWith(".qfx")) {
+            return Optional.of(new OfxParser());
+        }
+        if (name.endsWith(".qif")) {
+            return Optional.of(new QifParser());
+        }
+        return Optional.empty();
+    }
+    
+    /**
+     * Reads a file as UTF-8, replacing malformed bytes. Older statements are often Windows-1252,
+     * whose accented characters only matter inside payee names.
+     */
+    static String readText(Path file) throws IOException {
+        return StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE)
+            .decode(ByteBuffer.wrap(Files.readAllBytes(file)))
+            .toString();
+    }
+    
+    /**
+     * Parses a signed decimal amount such as {@code -1,234.56} into cents. A comma is taken as
+     * the decimal separator when the amount has no period and at most two digits follow the comma.
+     *
+     * @throws IllegalArgumentException if the amount is not a number
+     */
+    static long parseCents(String value) {
+        String cleaned = value.trim().replace(" ", "");
+        int comma = cleaned.lastIndexOf(',');
+        if (comma >= 0 && cleaned.indexOf('.') < 0 && cleaned.length() - comma <= 3) {
+            cleaned = cleaned.substring(0, comma) + "." + cleaned.substring(comma + 1);
+        }
+        cleaned = cleaned.replace(",", "");
+        try {
+            return new BigDecimal(cleaned).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid amount \"" + value + "\"");
+        }
+    }
+    
+    /**
+     * Transactions and problems found in one file.
+     */
+    class ParsedStatement {
+        private final List<StatementTransaction> transactions;
+        private final List<String> errors;
+        
+        public ParsedStatement(List<StatementTransaction> transactions, List<String> errors) {
+            this.transactions = Collections.unmodifiableList(transactions);
+            this.errors = Collections.unmodifiableList(errors);
+        }
+        
+        public List<StatementTransaction> getTransactions() {
+            return transactions;
+        }
+        
+        public List<String> getErrors() {
+            return errors;
+        }
+    }
+}
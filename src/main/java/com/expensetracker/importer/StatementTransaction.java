@@ -0,0 +1,25 @@
+package com.expensetracker.importer;
+
+import java.time.LocalDate;
+
+/**
+ * One transaction read from a bank statement, before it is mapped to an expense.
+ * <p>
+ * The amount keeps the statement's sign: debits are negative and credits positive.
+ * Payee, memo and category are empty strings when the statement has none.
+ */
+public record StatementTransaction(LocalDate date, long amountCents, String payee, String memo, String category) {
+    
+    /**
+     * Payee and memo joined with " - ", leaving out empty parts and a memo that repeats the payee.
+     */
+    public String notes() {
+        if (memo.isEmpty() || memo.equalsIgnoreCase(payee)) {
+            return payee;
+        }
+        if (payee.isEmpty()) {
+            return memo;
+        }
+        return payee + " - " + memo;
+    }
+}
@@ -0,0 +1,23 @@
+package com.expensetracker.model;
+
+/**
+ * Immutable, compact view of one budget row for bulk reads, with the amount in cents.
+ */
+public record BudgetRow(int id, int categoryId, long amountCents, int month, int year) {
+
+    public static BudgetRow of(Budget budget) {
+        return new BudgetRow(budget.getId(), budget.getCategoryId(), Money.toCents(budget.getAmount()),
+                             budget.getMonth(), budget.getYear());
+    }
+
+    public double amount() {
+        return Money.toDouble(amountCents);
+    }
+
+    /**
+     * Creates a new property-backed model with this row's values.
+     */
+    public Budget toBudget() {
+        return new Budget(id, categoryId, amount(), month, year);
+    }
+}
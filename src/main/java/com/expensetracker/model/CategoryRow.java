@@ -0,0 +1,18 @@
+package com.expensetracker.model;
+
+/**
+ * Immutable, compact view of one category row for bulk reads.
+ */
+public record CategoryRow(int id, String name, String color) {
+
+    public static CategoryRow of(Category category) {
+        return new CategoryRow(category.getId(), category.getName(), category.getColor());
+    }
+
+    /**
+     * Creates a new property-backed model with this row's values.
+     */
+    public Category toCategory() {
+        return new Category(id, name, color);
+    }
+}
@@ -0,0 +1,33 @@
+package com.expensetracker.model;
+
+import java.time.LocalDate;
+
+/**
+ * Immutable, compact view of one expense row for bulk reads.
+ * <p>
+ * Unlike {@link Expense}, a row holds plain fields: the amount in cents and the date as days
+ * since 1970-01-01, exactly as stored. Use it wherever rows are only summed, filtered or
+ * written out, and call {@link #toExpense()} for the few rows that need an editable model.
+ */
+public record ExpenseRow(int id, long amountCents, int categoryId, long epochDay, String notes) {
+
+    public static ExpenseRow of(Expense expense) {
+        return new ExpenseRow(expense.getId(), Money.toCents(expense.getAmount()), expense.getCategoryId(),
+                              expense.getDate().toEpochDay(), expense.getNotes());
+    }
+
+    public double amount() {
+        return Money.toDouble(amountCents);
+    }
+
+    public LocalDate date() {
+        return LocalDate.ofEpochDay(epochDay);
+    }
+
+    /**
+     * Creates a new property-backed model with this row's values.
+     */
+    public Expense toExpense() {
+        return new Expense(id, amount(), categoryId, date(), notes);
+    }
+}
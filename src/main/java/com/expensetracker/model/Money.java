@@ -0,0 +1,89 @@
+package com.expensetracker.model;
+
+/**
+ * Immutable monetary amount stored as a whole number of cents.
+ * <p>
+ * Amounts are persisted as integer cents so that sums are exact. The static
+ * {@link #toCents(double)} and {@link #toDouble(long)} helpers convert at the boundary with the
+ * {@code double}-based JavaFX models without allocating.
+ */
+public final class Money implements Comparable<Money> {
+    public static final Money ZERO = new Money(0);
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    public static Money of(double amount) {
+        return ofCents(toCents(amount));
+    }
+
+    /**
+     * Rounds a decimal amount to the nearest cent.
+     */
+    public static long toCents(double amount) {
+        return Math.round(amount * 100.0);
+    }
+
+    public static double toDouble(long cents) {
+        return cents / 100.0;
+    }
+
+    public long getCents() {
+        return cents;
+    }
+
+    public double toDouble() {
+        return toDouble(cents);
+    }
+
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    public boolean isNegative() {
+        return cents < 0;
+    }
+
+    public boolean isZero() {
+        return cents == 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    /**
+     * Plain decimal representation with two fraction digits, e.g. {@code 1234.50} or {@code -0.05}.
+     */
+    @Override
+    public String toString() {
+        long abs = Math.abs(cents);
+        long fraction = abs % 100;
+        return (cents < 0 ? "-" : "") + (abs / 100) + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        Money money = (Money) obj;
+        return cents == money.cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+}
@@ -1,12 +1,14 @@
 package com.expensetracker.service;
 
 import com.expensetracker.dao.BudgetDAO;
-import com.expensetracker.dao.CategoryDAO;
 import com.expensetracker.dao.ExpenseDAO;
 import com.expensetracker.model.Budget;
-import com.expensetracker.model.Category;
+import com.expensetracker.model.CategoryRow;
+import com.expensetracker.model.Money;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.logging.Logger;
 
@@ -17,12 +19,12 @@ public class BudgetService {
     private static final Logger LOGGER = Logger.getLogger(BudgetService.class.getName());
     
     private final BudgetDAO budgetDAO;
-    private final CategoryDAO categoryDAO;
+    private final CategoryCache categoryCache;
     private final ExpenseDAO expenseDAO;
     
     public BudgetService() {
         this.budgetDAO = new BudgetDAO();
-        this.categoryDAO = new CategoryDAO();
+        this.categoryCache = CategoryCache.getInstance();
         this.expenseDAO = new ExpenseDAO();
     }
     
@@ -48,7 +50,7 @@ public class BudgetService {
         }
         
         // Check if category exists
-        Optional<Category> category = categoryDAO.findById(budget.getCategoryId());
+        Optional<CategoryRow> category = categoryCache.findRowById(budget.getCategoryId());
         if (category.isEmpty()) {
             LOGGER.warning("Category not found for budget: " + budget.getCategoryId());
             return false;
@@ -71,37 +73,56 @@ public class BudgetService {
             return 0.0;
         }
         
-        Budget budget = budgetOpt.get();
-        double totalExpenses = expenseDAO.getTotalByCategoryAndMonth(categoryId, month, year);
-        
-        if (budget.getAmount() == 0) {
-            return totalExpenses > 0 ? 100.0 : 0.0;
-        }
-        
-        return (totalExpenses / budget.getAmount()) * 100.0;
+        long budgetCents = Money.toCents(budgetOpt.get().getAmount());
+        long spentCents = expenseDAO.getTotalCentsByCategoryAndMonth(categoryId, month, year);
+        return utilization(budgetCents, spentCents);
     }
     
     public BudgetStatus getBudgetStatus(int categoryId, int month, int year) {
         Optional<Budget> budgetOpt = getBudgetByCategoryAndMonth(categoryId, month, year);
         if (budgetOpt.isEmpty()) {
-            return new BudgetStatus(BudgetStatus.Status.NO_BUDGET, 0.0, 0.0, 0.0);
+            return BudgetStatus.noBudget();
         }
         
-        Budget budget = budgetOpt.get();
-        double totalExpenses = expenseDAO.getTotalByCategoryAndMonth(categoryId, month, year);
-        double remaining = budget.getAmount() - totalExpenses;
-        double utilization = getBudgetUtilization(categoryId, month, year);
+        long budgetCents = Money.toCents(budgetOpt.get().getAmount());
+        long spentCents = expenseDAO.getTotalCentsByCategoryAndMonth(categoryId, month, year);
+        return toStatus(budgetCents, spentCents);
+    }
+    
+    /**
+     * Returns the status of every budget in the month, keyed by category id, from a single query.
+     * Categories without a budget have no entry; use {@link BudgetStatus#noBudget()} for them.
+     */
+    public Map<Integer, BudgetStatus> getBudgetStatuses(int month, int year) {
+        Map<Integer, BudgetStatus> statuses = new HashMap<>();
+        for (BudgetDAO.BudgetSpending spending : budgetDAO.findWithSpendingByMonth(month, year)) {
+            statuses.put(spending.getBudget().categoryId(),
+                         toStatus(spending.getBudgetCents(), spending.getSpentCents()));
+        }
+        return statuses;
+    }
+    
+    private static double utilization(long budgetCents, long spentCents) {
+        if (budgetCents == 0) {
+            return spentCents > 0 ? 100.0 : 0.0;
+        }
+        return (spentCents * 100.0) / budgetCents;
+    }
+    
+    private static BudgetStatus toStatus(long budgetCents, long spentCents) {
+        long remainingCents = budgetCents - spentCents;
         
         BudgetStatus.Status status;
-        if (remaining < 0) {
+        if (remainingCents < 0) {
             status = BudgetStatus.Status.EXCEEDED;
-        } else if (utilization >= 90) {
+        } else if (utilization(budgetCents, spentCents) >= 90) {
             status = BudgetStatus.Status.WARNING;
         } else {
             status = BudgetStatus.Status.OK;
         }
         
-        return new BudgetStatus(status, budget.getAmount(), totalExpenses, remaining);
+        return new BudgetStatus(status, Money.toDouble(budgetCents), Money.toDouble(spentCents),
+                                Money.toDouble(remainingCents));
     }
     
     private boolean isValidBudget(Budget budget) {
@@ -140,6 +161,10 @@ public class BudgetService {
             this.remainingAmount = remainingAmount;
         }
         
+        public static BudgetStatus noBudget() {
+            return new BudgetStatus(Status.NO_BUDGET, 0.0, 0.0, 0.0);
+        }
+        
         public Status getStatus() {
             return status;
         }
@@ -0,0 +1,178 @@
+package com.expensetracker.service;
+
+import com.expensetracker.dao.CategoryDAO;
+import com.expensetracker.model.Category;
+import com.expensetracker.model.CategoryRow;
+import com.expensetracker.util.Metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Read-through cache of all categories, indexed by id and by name.
+ * <p>
+ * The category table is loaded once on first use and dropped whenever {@link CategoryDAO}
+ * commits a change, so the next lookup reloads it. Lookups served from the loaded table count
+ * as hits; lookups that had to load it count as misses. A load that fails is not cached: that
+ * lookup finds nothing and the next one tries again.
+ * <p>
+ * The cache is read from the FX thread and from background tasks, so it only holds immutable
+ * {@link CategoryRow}s. Lookups that return a {@link Category} return a new copy each time.
+ */
+public class CategoryCache {
+    private static final Logger LOGGER = Logger.getLogger(CategoryCache.class.getName());
+    private static CategoryCache instance;
+    
+    private final CategoryDAO categoryDAO;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final Object loadLock = new Object();
+    private volatile Snapshot snapshot;
+    private volatile long generation;
+    
+    private CategoryCache() {
+        this.categoryDAO = new CategoryDAO();
+        CategoryDAO.addChangeListener(this::invalidate);
+        Metrics.getInstance().gauge("category_cache_hit_ratio", "Share of category lookups served from the cache",
+                                    null, null, this::getHitRatio);
+    }
+    
+    public static synchronized CategoryCache getInstance() {
+        if (instance == null) {
+            instance = new CategoryCache();
+        }
+        return instance;
+    }
+    
+    /**
+     * Returns copies of all categories ordered by name; callers may modify them freely.
+     */
+    public List<Category> getAll() {
+        List<Category> categories = new ArrayList<>();
+        for (CategoryRow row : current().ordered) {
+            categories.add(row.toCategory());
+        }
+        return categories;
+    }
+    
+    /**
+     * Returns a copy of the category; callers may modify it freely.
+     */
+    public Optional<Category> findById(int id) {
+        return findRowById(id).map(CategoryRow::toCategory);
+    }
+    
+    /**
+     * Returns a copy of the category with exactly this name; callers may modify it freely.
+     */
+    public Optional<Category> findByName(String name) {
+        return findRowByName(name).map(CategoryRow::toCategory);
+    }
+    
+    /**
+     * Returns the cached row, without copying. Prefer this for lookups in bulk reads and imports.
+     */
+    public Optional<CategoryRow> findRowById(int id) {
+        return Optional.ofNullable(current().byId.get(id));
+    }
+    
+    /**
+     * Returns the cached row with exactly this name, without copying.
+     */
+    public Optional<CategoryRow> findRowByName(String name) {
+        return Optional.ofNullable(current().byName.get(name));
+    }
+    
+    /**
+     * Returns a read-only id to row index of the cached categories.
+     */
+    public Map<Integer, CategoryRow> getCategoryMap() {
+        return current().byId;
+    }
+    
+    public void invalidate() {
+        synchronized (loadLock) {
+            generation++;
+            snapshot = null;
+        }
+    }
+    
+    public long getHitCount() {
+        return hits.get();
+    }
+    
+    public long getMissCount() {
+        return misses.get();
+    }
+    
+    /**
+     * Hits as a share of all lookups so far, or 0 before the first lookup.
+     */
+    public double getHitRatio() {
+        long hitCount = hits.get();
+        long lookups = hitCount + misses.get();
+        return lookups == 0 ? 0 : (double) hitCount / lookups;
+    }
+    
+    private Snapshot current() {
+        Snapshot loaded = snapshot;
+        if (loaded != null) {
+            hits.incrementAndGet();
+            return loaded;
+        }
+        
+        misses.incrementAndGet();
+        long loadGeneration;
+        synchronized (loadLock) {
+            if (snapshot != null) {
+                return snapshot;
+            }
+            loadGeneration = generation;
+        }
+        
+        // Load outside the lock; a change committed meanwhile bumps the generation and
+        // keeps this possibly stale result from being installed
+        Optional<List<CategoryRow>> rows = categoryDAO.findAllRows();
+        if (rows.isEmpty()) {
+            LOGGER.warning("Could not load categories; the cache stays empty until the next lookup");
+            return Snapshot.EMPTY;
+        }
+        Snapshot fresh = new Snapshot(rows.get());
+        synchronized (loadLock) {
+            if (generation == loadGeneration) {
+                snapshot = fresh;
+            }
+        }
+        LOGGER.fine("Loaded " + fresh.ordered.size() + " categories into the cache");
+        return fresh;
+    }
+    
+    /**
+     * Immutable view of the category table at one point in time.
+     */
+    private static class Snapshot {
+        private static final Snapshot EMPTY = new Snapshot(List.of());
+        
+        private final List<CategoryRow> ordered;
+        private final Map<Integer, CategoryRow> byId;
+        private final Map<String, CategoryRow> byName;
+        
+        Snapshot(List<CategoryRow> rows) {
+            Map<Integer, CategoryRow> idIndex = new HashMap<>();
+            Map<String, CategoryRow> nameIndex = new HashMap<>();
+            for (CategoryRow row : rows) {
+                idIndex.put(row.id(), row);
+                nameIndex.put(row.name(), row);
+            }
+            this.ordered = Collections.unmodifiableList(rows);
+            this.byId = Collections.unmodifiableMap(idIndex);
+            this.byName = Collections.unmodifiableMap(nameIndex);
+        }
+    }
+}
@@ -14,21 +14,23 @@ public class CategoryService {
     private static final Logger LOGGER = Logger.getLogger(CategoryService.class.getName());
     
     private final CategoryDAO categoryDAO;
+    private final CategoryCache categoryCache;
     
     public CategoryService() {
         this.categoryDAO = new CategoryDAO();
+        this.categoryCache = CategoryCache.getInstance();
     }
     
     public List<Category> getAllCategories() {
-        return categoryDAO.findAll();
+        return categoryCache.getAll();
     }
     
     public Optional<Category> getCategoryById(int id) {
-        return categoryDAO.findById(id);
+        return categoryCache.findById(id);
     }
     
     public Optional<Category> getCategoryByName(String name) {
-        return categoryDAO.findByName(name);
+        return categoryCache.findByName(name);
     }
     
     public boolean saveCategory(Category category) {
@@ -37,7 +39,7 @@ public class CategoryService {
         }
         
         // Check if name already exists (for new categories)
-        if (category.getId() == 0 && categoryDAO.exists(category.getName())) {
+        if (category.getId() == 0 && categoryExists(category.getName())) {
             LOGGER.warning("Category name already exists: " + category.getName());
             return false;
         }
@@ -51,7 +53,7 @@ public class CategoryService {
     }
     
     public boolean categoryExists(String name) {
-        return categoryDAO.exists(name);
+        return categoryCache.findByName(name).isPresent();
     }
     
     private boolean isValidCategory(Category category) {
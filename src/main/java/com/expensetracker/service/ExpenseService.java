@@ -1,16 +1,18 @@
 package com.expensetracker.service;
 
 import com.expensetracker.dao.BudgetDAO;
-import com.expensetracker.dao.CategoryDAO;
 import com.expensetracker.dao.ExpenseDAO;
 import com.expensetracker.model.Budget;
-import com.expensetracker.model.Category;
+import com.expensetracker.model.CategoryRow;
 import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseRow;
+import com.expensetracker.model.Money;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 /**
  * Service class for handling expense-related business logic.
@@ -19,12 +21,12 @@ public class ExpenseService {
     private static final Logger LOGGER = Logger.getLogger(ExpenseService.class.getName());
     
     private final ExpenseDAO expenseDAO;
-    private final CategoryDAO categoryDAO;
+    private final CategoryCache categoryCache;
     private final BudgetDAO budgetDAO;
     
     public ExpenseService() {
         this.expenseDAO = new ExpenseDAO();
-        this.categoryDAO = new CategoryDAO();
+        this.categoryCache = CategoryCache.getInstance();
         this.budgetDAO = new BudgetDAO();
     }
     
@@ -36,6 +38,10 @@ public class ExpenseService {
         return expenseDAO.findByMonth(month, year);
     }
     
+    public List<ExpenseRow> getExpenseRowsByMonth(int month, int year) {
+        return expenseDAO.findRowsByMonth(month, year);
+    }
+    
     public List<Expense> getExpensesByCategory(int categoryId) {
         return expenseDAO.findByCategory(categoryId);
     }
@@ -44,18 +50,56 @@ public class ExpenseService {
         return expenseDAO.findByDateRange(startDate, endDate);
     }
     
+    public List<ExpenseRow> getExpenseRowsByDateRange(LocalDate startDate, LocalDate endDate) {
+        return expenseDAO.findRowsByDateRange(startDate, endDate);
+    }
+    
+    /**
+     * @see ExpenseDAO#findRowsPage
+     */
+    public List<ExpenseRow> getExpenseRowsPage(LocalDate startDate, LocalDate endDate, ExpenseRow after,
+                                               int offset, int limit) {
+        return expenseDAO.findRowsPage(startDate, endDate, after, offset, limit);
+    }
+    
+    public long countExpensesByMonth(int month, int year) {
+        return expenseDAO.countByMonth(month, year);
+    }
+    
+    public long countAllExpenses() {
+        return expenseDAO.countAll();
+    }
+    
+    /**
+     * Streams the expenses in the inclusive date range, optionally for one category only.
+     * The stream must be closed, e.g. with try-with-resources.
+     */
+    public Stream<ExpenseRow> streamExpenses(LocalDate startDate, LocalDate endDate, Integer categoryId) {
+        return expenseDAO.streamByDateRange(startDate, endDate, categoryId);
+    }
+    
     public Optional<Expense> getExpenseById(int id) {
         return expenseDAO.findById(id);
     }
     
     public boolean saveExpense(Expense expense) {
+        return saveExpense(expense, null);
+    }
+    
+    /**
+     * Saves an expense, checking its budget against {@code snapshot} if the caller already has
+     * the snapshot for the expense's category and month, or loading it if {@code snapshot} is null.
+     */
+    public boolean saveExpense(Expense expense, BudgetSnapshot snapshot) {
         // Validate expense data
         if (!isValidExpense(expense)) {
             return false;
         }
         
         // Check budget constraints
-        BudgetValidationResult validation = validateBudget(expense);
+        BudgetValidationResult validation = snapshot != null
+            ? validateBudget(snapshot, Money.toCents(expense.getAmount()))
+            : validateBudget(expense);
         if (!validation.isValid()) {
             LOGGER.warning("Budget validation failed: " + validation.getMessage());
             // You might want to show a warning dialog here instead of blocking
@@ -69,10 +113,7 @@ public class ExpenseService {
     }
     
     public double getTotalExpensesByMonth(int month, int year) {
-        List<Expense> expenses = getExpensesByMonth(month, year);
-        return expenses.stream()
-                .mapToDouble(Expense::getAmount)
-                .sum();
+        return Money.toDouble(expenseDAO.getTotalCentsByMonth(month, year));
     }
     
     public double getTotalExpensesByCategoryAndMonth(int categoryId, int month, int year) {
@@ -80,21 +121,40 @@ public class ExpenseService {
     }
     
     public BudgetValidationResult validateBudget(Expense expense) {
-        int month = expense.getDate().getMonthValue();
-        int year = expense.getDate().getYear();
-        
-        Optional<Budget> budgetOpt = budgetDAO.findByCategoryAndMonth(expense.getCategoryId(), month, year);
+        BudgetSnapshot snapshot = getBudgetSnapshot(expense.getCategoryId(),
+            expense.getDate().getMonthValue(), expense.getDate().getYear());
+        return validateBudget(snapshot, Money.toCents(expense.getAmount()));
+    }
+    
+    /**
+     * Loads the budget and the amount already spent for one category and month, so that
+     * several candidate amounts can be checked against them without further queries.
+     */
+    public BudgetSnapshot getBudgetSnapshot(int categoryId, int month, int year) {
+        Optional<Budget> budgetOpt = budgetDAO.findByCategoryAndMonth(categoryId, month, year);
         if (budgetOpt.isEmpty()) {
+            return new BudgetSnapshot(categoryId, month, year, null, 0);
+        }
+        
+        long spentCents = expenseDAO.getTotalCentsByCategoryAndMonth(categoryId, month, year);
+        return new BudgetSnapshot(categoryId, month, year, Money.toCents(budgetOpt.get().getAmount()), spentCents);
+    }
+    
+    /**
+     * Checks whether adding {@code amountCents} to the spending in {@code snapshot} stays within its budget.
+     */
+    public static BudgetValidationResult validateBudget(BudgetSnapshot snapshot, long amountCents) {
+        if (!snapshot.hasBudget()) {
             return new BudgetValidationResult(true, "No budget set for this category and month");
         }
         
-        Budget budget = budgetOpt.get();
-        double currentTotal = getTotalExpensesByCategoryAndMonth(expense.getCategoryId(), month, year);
-        double newTotal = currentTotal + expense.getAmount();
+        // Compare in cents so totals that land exactly on the budget are not reported as exceeded
+        long newCents = snapshot.getSpentCents() + amountCents;
+        long budgetCents = snapshot.getBudgetCents();
         
-        if (newTotal > budget.getAmount()) {
-            double overBudget = newTotal - budget.getAmount();
-            String message = String.format("This expense will exceed the budget by $%.2f", overBudget);
+        if (newCents > budgetCents) {
+            Money overBudget = Money.ofCents(newCents - budgetCents);
+            String message = "This expense will exceed the budget by $" + overBudget;
             return new BudgetValidationResult(false, message);
         }
         
@@ -117,7 +177,7 @@ public class ExpenseService {
             return false;
         }
         
-        Optional<Category> category = categoryDAO.findById(expense.getCategoryId());
+        Optional<CategoryRow> category = categoryCache.findRowById(expense.getCategoryId());
         if (category.isEmpty()) {
             LOGGER.warning("Invalid category ID: " + expense.getCategoryId());
             return false;
@@ -126,6 +186,57 @@ public class ExpenseService {
         return true;
     }
     
+    /**
+     * Budget and spending of one category in one month, as loaded at a point in time.
+     */
+    public static class BudgetSnapshot {
+        private final int categoryId;
+        private final int month;
+        private final int year;
+        private final Long budgetCents;
+        private final long spentCents;
+        
+        public BudgetSnapshot(int categoryId, int month, int year, Long budgetCents, long spentCents) {
+            this.categoryId = categoryId;
+            this.month = month;
+            this.year = year;
+            this.budgetCents = budgetCents;
+            this.spentCents = spentCents;
+        }
+        
+        public int getCategoryId() {
+            return categoryId;
+        }
+        
+        public int getMonth() {
+            return month;
+        }
+        
+        public int getYear() {
+            return year;
+        }
+        
+        public boolean hasBudget() {
+            return budgetCents != null;
+        }
+        
+        public long getBudgetCents() {
+            return budgetCents != null ? budgetCents : 0;
+        }
+        
+        public long getSpentCents() {
+            return spentCents;
+        }
+        
+        /**
+         * Returns a copy with {@code cents} removed from the spent total, e.g. the original
+         * amount of an expense that is being edited.
+         */
+        public BudgetSnapshot withoutSpending(long cents) {
+            return new BudgetSnapshot(categoryId, month, year, budgetCents, spentCents - cents);
+        }
+    }
+    
     public static class BudgetValidationResult {
         private final boolean valid;
         private final String message;
@@ -0,0 +1,171 @@
+package com.expensetracker.service;
+
+import com.expensetracker.dao.ExpenseDAO;
+import com.expensetracker.model.CategoryRow;
+import com.expensetracker.model.ExpenseRow;
+import com.expensetracker.util.CsvWriter;
+import com.expensetracker.util.FlightEvents;
+import com.expensetracker.util.Metrics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Exports expenses of any date range to CSV.
+ * <p>
+ * Rows are streamed from the database cursor straight into a {@link CsvWriter}, so memory use
+ * does not depend on the size of the range. Progress is reported every
+ * {@code export.progressRows} rows (5000 by default). An export can be cancelled through its
+ * {@link ProgressListener} or by interrupting the exporting thread; a cancelled or failed
+ * export deletes the partly written file.
+ */
+public class ExportService {
+    private static final Logger LOGGER = Logger.getLogger(ExportService.class.getName());
+    private static final Metrics.Timer EXPORT_TIMER = Metrics.getInstance().timer(
+        "report_build_seconds", "Time to build reports and exports", "report", "export");
+    private static final int PROGRESS_ROWS = Integer.getInteger("export.progressRows", 5000);
+    
+    private final ExpenseDAO expenseDAO;
+    private final CategoryCache categoryCache;
+    
+    public ExportService() {
+        this.expenseDAO = new ExpenseDAO();
+        this.categoryCache = CategoryCache.getInstance();
+    }
+    
+    /**
+     * Writes every expense from {@code startDate} to {@code endDate} inclusive, newest first, to
+     * {@code file} as {@code Date,Category,Amount,Notes} records.
+     *
+     * @param categoryId only export this category, or {@code null} for all categories
+     * @param listener receives progress and is polled for cancellation; may be {@code null}
+     */
+    public ExportResult exportExpenses(Path file, LocalDate startDate, LocalDate endDate, Integer categoryId,
+                                       ProgressListener listener) {
+        ProgressListener progress = listener != null ? listener : (rows, rowsPerSecond) -> { };
+        Map<Integer, CategoryRow> categoryMap = categoryCache.getCategoryMap();
+        FlightEvents.Report event = FlightEvents.Report.start("export", 0, 0);
+        long start = System.nanoTime();
+        long rows = 0;
+        ExportResult.Status status = ExportResult.Status.COMPLETED;
+        boolean fileOpened = false;
+        
+        try (Stream<ExpenseRow> expenses = expenseDAO.streamByDateRange(startDate, endDate, categoryId);
+             CsvWriter csv = CsvWriter.open(file)) {
+            fileOpened = true;
+            
+            csv.field("Date").field("Category").field("Amount").field("Notes").endRow();
+            
+            Iterator<ExpenseRow> iterator = expenses.iterator();
+            while (iterator.hasNext()) {
+                ExpenseRow expense = iterator.next();
+                CategoryRow category = categoryMap.get(expense.categoryId());
+                csv.date(expense.date())
+                   .field(category != null ? category.name() : "Unknown")
+                   .cents(expense.amountCents())
+                   .field(expense.notes())
+                   .endRow();
+                
+                if (++rows % PROGRESS_ROWS == 0) {
+                    progress.onProgress(rows, rowsPerSecond(rows, start));
+                    if (progress.isCancelled() || Thread.currentThread().isInterrupted()) {
+                        status = ExportResult.Status.CANCELLED;
+                        break;
+                    }
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            LOGGER.log(Level.SEVERE, "Error exporting expenses to " + file, e);
+            status = ExportResult.Status.FAILED;
+        }
+        
+        long elapsedNanos = System.nanoTime() - start;
+        event.finish(rows);
+        if (status == ExportResult.Status.COMPLETED) {
+            EXPORT_TIMER.stop(start);
+            progress.onProgress(rows, rowsPerSecond(rows, start));
+            LOGGER.info(String.format("Exported %d expenses to %s in %d ms", rows, file, elapsedNanos / 1_000_000));
+        } else {
+            // A file that was never opened, e.g. because the database failed first, is not ours to delete
+            if (fileOpened) {
+                deleteQuietly(file);
+            }
+            LOGGER.info("Export to " + file + " " + status.name().toLowerCase() + " after " + rows + " rows");
+        }
+        return new ExportResult(status, rows, elapsedNanos);
+    }
+    
+    private static double rowsPerSecond(long rows, long startNanos) {
+        long elapsedNanos = Math.max(1, System.nanoTime() - startNanos);
+        return rows * 1_000_000_000.0 / elapsedNanos;
+    }
+    
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not delete incomplete export " + file, e);
+        }
+    }
+    
+    /**
+     * Receives export progress on the exporting thread.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(long rows, double rowsPerSecond);
+        
+        /**
+         * Polled after each progress report; returning {@code true} stops the export.
+         */
+        default boolean isCancelled() {
+            return false;
+        }
+    }
+    
+    /**
+     * Outcome of {@link #exportExpenses}.
+     */
+    public static class ExportResult {
+        public enum Status {
+            COMPLETED, CANCELLED, FAILED
+        }
+        
+        private final Status status;
+        private final long rowCount;
+        private final long elapsedNanos;
+        
+        public ExportResult(Status status, long rowCount, long elapsedNanos) {
+            this.status = status;
+            this.rowCount = rowCount;
+            this.elapsedNanos = elapsedNanos;
+        }
+        
+        public Status getStatus() {
+            return status;
+        }
+        
+        public boolean isCompleted() {
+            return status == Status.COMPLETED;
+        }
+        
+        public long getRowCount() {
+            return rowCount;
+        }
+        
+        public long getElapsedMillis() {
+            return elapsedNanos / 1_000_000;
+        }
+        
+        public double getRowsPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : rowCount * 1_000_000_000.0 / elapsedNanos;
+        }
+    }
+}
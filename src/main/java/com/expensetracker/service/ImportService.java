@@ -0,0 +1,459 @@
+package com.expensetracker.service;
+
+import com.expensetracker.dao.ExpenseDAO;
+import com.expensetracker.model.CategoryRow;
+import com.expensetracker.model.ExpenseRow;
+import com.expensetracker.util.CsvReader;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Imports expenses from CSV files such as bank statement exports.
+ * <p>
+ * The file is parsed one record at a time and valid rows are written in batches of
+ * {@code import.batchSize} rows (5000 by default), each a single JDBC batch committed on the
+ * writer thread. Parsing continues while up to two batches are being written, so memory use
+ * does not depend on the file size. Rows that cannot be imported are counted and the first
+ * {@value #MAX_REPORTED_ERRORS} problems are reported with their line numbers.
+ */
+public class ImportService {
+    private static final Logger LOGGER = Logger.getLogger(ImportService.class.getName());
+    private static final int BATCH_SIZE = Integer.getInteger("import.batchSize", 5000);
+    private static final int MAX_BATCHES_IN_FLIGHT = 2;
+    static final int MAX_REPORTED_ERRORS = 100;
+    
+    private final ExpenseDAO expenseDAO;
+    private final CategoryCache categoryCache;
+    
+    public ImportService() {
+        this.expenseDAO = new ExpenseDAO();
+        this.categoryCache = CategoryCache.getInstance();
+    }
+    
+    /**
+     * Imports a CSV file whose first record is a header, detecting the columns from their names.
+     *
+     * @see ColumnMapping#detect(List)
+     */
+    public ImportResult importCsv(Path file, ProgressListener listener) {
+        try (CsvReader reader = CsvReader.open(file)) {
+            List<String> header = reader.readRecord();
+            if (header == null) {
+                return ImportResult.failed("The file is empty");
+            }
+            Optional<ColumnMapping> mapping = ColumnMapping.detect(header);
+            if (mapping.isEmpty()) {
+                return ImportResult.failed("No date and amount columns found in header: " + header);
+            }
+            return importRecords(reader, mapping.get(), listener);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Error importing expenses from " + file, e);
+            return ImportResult.failed(e.getMessage());
+        }
+    }
+    
+    /**
+     * Imports a CSV file using an explicit column mapping.
+     */
+    public ImportResult importCsv(Path file, ColumnMapping mapping, ProgressListener listener) {
+        try (CsvReader reader = CsvReader.open(file)) {
+            if (mapping.hasHeader() && reader.readRecord() == null) {
+                return ImportResult.failed("The file is empty");
+            }
+            return importRecords(reader, mapping, listener);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Error importing expenses from " + file, e);
+            return ImportResult.failed(e.getMessage());
+        }
+    }
+    
+    /**
+     * Imports the remaining records. A read error ends the import with a FAILED result; the rows
+     * before the failing line are still imported and counted.
+     */
+    private ImportResult importRecords(CsvReader reader, ColumnMapping mapping, ProgressListener listener) {
+        ProgressListener progress = listener != null ? listener : (rows, rowsPerSecond) -> { };
+        Optional<CategoryRow> defaultCategory = categoryCache.findRowByName(mapping.getDefaultCategory());
+        LocalDate today = LocalDate.now();
+        long start = System.nanoTime();
+        
+        ImportResult.Builder result = new ImportResult.Builder();
+        Deque<CompletableFuture<Integer>> inFlight = new ArrayDeque<>();
+        List<ExpenseRow> batch = new ArrayList<>(BATCH_SIZE);
+        int batchRows = 0;
+        
+        try {
+            try {
+                List<String> record;
+                while ((record = reader.readRecord()) != null) {
+                    result.rowsRead++;
+                    try {
+                        ExpenseRow row = mapping.toRow(record, defaultCategory, categoryCache, today);
+                        if (row == null) {
+                            result.skipped++;
+                        } else {
+                            batch.add(row);
+                        }
+                    } catch (IllegalArgumentException e) {
+                        result.error(reader.getLineNumber(), e.getMessage());
+                    }
+                    
+                    if (batch.size() == BATCH_SIZE) {
+                        result.imported += submit(batch, inFlight, result);
+                        batch = new ArrayList<>(BATCH_SIZE);
+                    }
+                    if (++batchRows == BATCH_SIZE) {
+                        batchRows = 0;
+                        progress.onProgress(result.rowsRead, rowsPerSecond(result.rowsRead, start));
+                        if (progress.isCancelled() || Thread.currentThread().isInterrupted()) {
+                            result.status = ImportResult.Status.CANCELLED;
+                            break;
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.SEVERE, "Error reading import file near line " + reader.getLineNumber(), e);
+                result.status = ImportResult.Status.FAILED;
+                result.error(reader.getLineNumber(), e.getMessage());
+            }
+            
+            // After a read error the rows before it are still imported, so the import ends at a known line
+            if (result.status != ImportResult.Status.CANCELLED && !batch.isEmpty()) {
+                result.imported += submit(batch, inFlight, result);
+            }
+        } finally {
+            // Rows already handed to the writer are committed even if parsing stopped early
+            while (!inFlight.isEmpty()) {
+                result.imported += awaitBatch(inFlight.removeFirst(), result);
+            }
+        }
+        
+        long elapsedNanos = System.nanoTime() - start;
+        progress.onProgress(result.rowsRead, rowsPerSecond(result.rowsRead, start));
+        ImportResult importResult = result.build(elapsedNanos);
+        LOGGER.info("Expense import finished: " + importResult);
+        return importResult;
+    }
+    
+    /**
+     * Queues a batch and, once more than {@link #MAX_BATCHES_IN_FLIGHT} are queued, waits for the
+     * oldest. Returns the number of rows that became committed while waiting.
+     */
+    private int submit(List<ExpenseRow> batch, Deque<CompletableFuture<Integer>> inFlight,
+                       ImportResult.Builder result) {
+        inFlight.addLast(expenseDAO.insertBatch(batch));
+        int committed = 0;
+        while (inFlight.size() > MAX_BATCHES_IN_FLIGHT) {
+            committed += awaitBatch(inFlight.removeFirst(), result);
+        }
+        return committed;
+    }
+    
+    private static int awaitBatch(CompletableFuture<Integer> future, ImportResult.Builder result) {
+        int inserted = future.join();
+        if (inserted == 0) {
+            result.error(0, "A batch of rows could not be written to the database, see the log");
+        }
+        return inserted;
+    }
+    
+    private static double rowsPerSecond(long rows, long startNanos) {
+        long elapsedNanos = Math.max(1, System.nanoTime() - startNanos);
+        return rows * 1_000_000_000.0 / elapsedNanos;
+    }
+    
+    /**
+     * Receives import progress on the importing thread.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(long rowsRead, double rowsPerSecond);
+        
+        /**
+         * Polled after each progress report; returning {@code true} stops the import.
+         * Rows committed before that are kept.
+         */
+        default boolean isCancelled() {
+            return false;
+        }
+    }
+    
+    /**
+     * Describes which CSV columns hold the fields of an expense.
+     * <p>
+     * Amounts may carry a currency symbol, thousands separators or parentheses for negative
+     * values. By default positive amounts are expenses; for bank exports where spending is
+     * negative, use {@link #withNegativeAmountsAsExpenses()}. Rows whose amount is not an expense
+     * under that rule, such as income, are skipped. Rows without a known category use
+     * the default category ("Other").
+     */
+    public static class ColumnMapping {
+        private static final List<DateTimeFormatter> DEFAULT_DATE_FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("M/d/uuuu"),
+            DateTimeFormatter.ofPattern("d.M.uuuu"),
+            DateTimeFormatter.ofPattern("uuuu/M/d")
+        );
+        
+        private final int dateColumn;
+        private final int amountColumn;
+        private final int categoryColumn;
+        private final int notesColumn;
+        private final boolean header;
+        private final List<DateTimeFormatter> dateFormats;
+        private final boolean negativeAmountsAsExpenses;
+        private final String defaultCategory;
+        
+        /**
+         * @param categoryColumn column index, or -1 to put every row in the default category
+         * @param notesColumn column index, or -1 if the file has no notes
+         */
+        public ColumnMapping(int dateColumn, int amountColumn, int categoryColumn, int notesColumn, boolean header) {
+            this(dateColumn, amountColumn, categoryColumn, notesColumn, header, DEFAULT_DATE_FORMATS, false, "Other");
+        }
+        
+        private ColumnMapping(int dateColumn, int amountColumn, int categoryColumn, int notesColumn, boolean header,
+                              List<DateTimeFormatter> dateFormats, boolean negativeAmountsAsExpenses,
+                              String defaultCategory) {
+            this.dateColumn = dateColumn;
+            this.amountColumn = amountColumn;
+            this.categoryColumn = categoryColumn;
+            this.notesColumn = notesColumn;
+            this.header = header;
+            this.dateFormats = dateFormats;
+            this.negativeAmountsAsExpenses = negativeAmountsAsExpenses;
+            this.defaultCategory = defaultCategory;
+        }
+        
+        /**
+         * Finds the columns by header name, ignoring case: a date column ("date", "transaction date",
+         * "posted date", "posting date"), an amount column ("amount", "debit", "value") and optionally
+         * a category column and a notes column ("notes", "description", "memo", "payee", "details").
+         */
+        public static Optional<ColumnMapping> detect(List<String> header) {
+            int date = indexOf(header, "date", "transaction date", "posted date", "posting date");
+            int amount = indexOf(header, "amount", "debit", "value");
+            if (date < 0 || amount < 0) {
+                return Optional.empty();
+            }
+            return Optional.of(new ColumnMapping(date, amount, indexOf(header, "category"),
+                indexOf(header, "notes", "description", "memo", "payee", "details"), true));
+        }
+        
+        public ColumnMapping withDateFormat(DateTimeFormatter format) {
+            return new ColumnMapping(dateColumn, amountColumn, categoryColumn, notesColumn, header,
+                                     List.of(format), negativeAmountsAsExpenses, defaultCategory);
+        }
+        
+        public ColumnMapping withNegativeAmountsAsExpenses() {
+            return new ColumnMapping(dateColumn, amountColumn, categoryColumn, notesColumn, header,
+                                     dateFormats, true, defaultCategory);
+        }
+        
+        public ColumnMapping withDefaultCategory(String categoryName) {
+            return new ColumnMapping(dateColumn, amountColumn, categoryColumn, notesColumn, header,
+                                     dateFormats, negativeAmountsAsExpenses, categoryName);
+        }
+        
+        public boolean hasHeader() {
+            return header;
+        }
+        
+        public String getDefaultCategory() {
+            return defaultCategory;
+        }
+        
+        /**
+         * Maps one record, returning {@code null} for rows that are not expenses.
+         *
+         * @throws IllegalArgumentException describing why the record is invalid
+         */
+        ExpenseRow toRow(List<String> record, Optional<CategoryRow> fallback, CategoryCache categories,
+                         LocalDate today) {
+            LocalDate date = parseDate(column(record, dateColumn, "date"));
+            if (date.isAfter(today)) {
+                throw new IllegalArgumentException("Date " + date + " is in the future");
+            }
+            
+            long cents = parseCents(column(record, amountColumn, "amount"));
+            if (negativeAmountsAsExpenses) {
+                cents = -cents;
+            }
+            if (cents <= 0) {
+                return null;
+            }
+            
+            CategoryRow category = null;
+            if (categoryColumn >= 0 && categoryColumn < record.size()) {
+                category = categories.findRowByName(record.get(categoryColumn).trim()).orElse(null);
+            }
+            if (category == null) {
+                category = fallback.orElseThrow(() ->
+                    new IllegalArgumentException("Unknown category and no \"" + defaultCategory + "\" category"));
+            }
+            
+            String notes = notesColumn >= 0 && notesColumn < record.size() ? record.get(notesColumn).trim() : "";
+            return new ExpenseRow(0, cents, category.id(), date.toEpochDay(), notes);
+        }
+        
+        private LocalDate parseDate(String value) {
+            for (DateTimeFormatter format : dateFormats) {
+                try {
+                    return LocalDate.parse(value, format);
+                } catch (DateTimeParseException e) {
+                    // Try the next format
+                }
+            }
+            throw new IllegalArgumentException("Unrecognized date \"" + value + "\"");
+        }
+        
+        private static long parseCents(String value) {
+            String cleaned = value.replace("$", "").replace("\u20AC", "").replace("\u00A3", "")
+                                  .replace(",", "").replace(" ", "");
+            boolean parenthesized = cleaned.startsWith("(") && cleaned.endsWith(")");
+            if (parenthesized) {
+                cleaned = cleaned.substring(1, cleaned.length() - 1);
+            }
+            try {
+                long cents = new BigDecimal(cleaned).movePointRight(2).setScale(0, RoundingMode.HALF_UP)
+                                                    .longValueExact();
+                return parenthesized ? -cents : cents;
+            } catch (NumberFormatException | ArithmeticException e) {
+                throw new IllegalArgumentException("Invalid amount \"" + value + "\"");
+            }
+        }
+        
+        private static String column(List<String> record, int index, String name) {
+            if (index >= record.size() || record.get(index).isBlank()) {
+                throw new IllegalArgumentException("Missing " + name);
+            }
+            return record.get(index).trim();
+        }
+        
+        private static int indexOf(List<String> header, String... names) {
+            for (String name : names) {
+                for (int i = 0; i < header.size(); i++) {
+                    if (header.get(i).trim().toLowerCase(Locale.ROOT).equals(name)) {
+                        return i;
+                    }
+                }
+            }
+            return -1;
+        }
+    }
+    
+    /**
+     * Outcome of an import.
+     */
+    public static class ImportResult {
+        public enum Status {
+            COMPLETED, CANCELLED, FAILED
+        }
+        
+        private final Status status;
+        private final long rowsRead;
+        private final long imported;
+        private final long skipped;
+        private final long errorCount;
+        private final List<String> errors;
+        private final long elapsedNanos;
+        
+        public ImportResult(Status status, long rowsRead, long imported, long skipped, long errorCount,
+                            List<String> errors, long elapsedNanos) {
+            this.status = status;
+            this.rowsRead = rowsRead;
+            this.imported = imported;
+            this.skipped = skipped;
+            this.errorCount = errorCount;
+            this.errors = Collections.unmodifiableList(errors);
+            this.elapsedNanos = elapsedNanos;
+        }
+        
+        static ImportResult failed(String message) {
+            return new ImportResult(Status.FAILED, 0, 0, 0, 1, List.of(message), 0);
+        }
+        
+        public Status getStatus() {
+            return status;
+        }
+        
+        public long getRowsRead() {
+            return rowsRead;
+        }
+        
+        public long getImported() {
+            return imported;
+        }
+        
+        /**
+         * Rows that were valid but not expenses, e.g. income.
+         */
+        public long getSkipped() {
+            return skipped;
+        }
+        
+        public long getErrorCount() {
+            return errorCount;
+        }
+        
+        /**
+         * The first problems found, prefixed with their line number where known.
+         */
+        public List<String> getErrors() {
+            return errors;
+        }
+        
+        public long getElapsedMillis() {
+            return elapsedNanos / 1_000_000;
+        }
+        
+        public double getRowsPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : rowsRead * 1_000_000_000.0 / elapsedNanos;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("ImportResult{status=%s, read=%d, imported=%d, skipped=%d, errors=%d, %d ms}",
+                                 status, rowsRead, imported, skipped, errorCount, getElapsedMillis());
+        }
+        
+        /**
+         * Mutable counters collected while importing.
+         */
+        static class Builder {
+            private Status status = Status.COMPLETED;
+            private long rowsRead;
+            private long imported;
+            private long skipped;
+            private long errorCount;
+            private final List<String> errors = new ArrayList<>();
+            
+            void error(long lineNumber, String message) {
+                errorCount++;
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add(lineNumber > 0 ? "Line " + lineNumber + ": " + message : message);
+                }
+            }
+            
+            ImportResult build(long elapsedNanos) {
+                return new ImportResult(status, rowsRead, imported, skipped, errorCount, errors, elapsedNanos);
+            }
+        }
+    }
+}
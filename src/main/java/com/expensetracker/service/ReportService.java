@@ -1,134 +1,186 @@
 package com.expensetracker.service;
 
-import com.expensetracker.dao.CategoryDAO;
 import com.expensetracker.dao.ExpenseDAO;
-import com.expensetracker.model.Category;
+import com.expensetracker.model.CategoryRow;
 import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseRow;
+import com.expensetracker.model.Money;
+import com.expensetracker.util.CsvWriter;
+import com.expensetracker.util.FlightEvents;
+import com.expensetracker.util.Metrics;
 
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 /**
  * Service class for generating reports and exporting data.
  */
 public class ReportService {
     private static final Logger LOGGER = Logger.getLogger(ReportService.class.getName());
+    private static final Metrics.Timer MONTHLY_REPORT_TIMER = Metrics.getInstance().timer(
+        "report_build_seconds", "Time to build reports and exports", "report", "monthly");
+    private static final Metrics.Timer MONTHLY_CSV_TIMER = Metrics.getInstance().timer(
+        "report_build_seconds", "Time to build reports and exports", "report", "monthly_csv");
     
     private final ExpenseDAO expenseDAO;
-    private final CategoryDAO categoryDAO;
+    private final CategoryCache categoryCache;
     private final BudgetService budgetService;
     
     public ReportService() {
         this.expenseDAO = new ExpenseDAO();
-        this.categoryDAO = new CategoryDAO();
+        this.categoryCache = CategoryCache.getInstance();
         this.budgetService = new BudgetService();
     }
     
+    /**
+     * Builds the report from one grouped aggregation query. The individual expenses are only
+     * loaded if {@link MonthlyReport#getExpenses()} is called.
+     */
     public MonthlyReport generateMonthlyReport(int month, int year) {
-        List<Expense> expenses = expenseDAO.findByMonth(month, year);
-        List<Category> categories = categoryDAO.findAll();
-        
-        Map<Category, Double> categoryTotals = new HashMap<>();
-        double totalAmount = 0.0;
-        
-        // Calculate totals by category
-        for (Category category : categories) {
-            double categoryTotal = expenseDAO.getTotalByCategoryAndMonth(category.getId(), month, year);
-            if (categoryTotal > 0) {
-                categoryTotals.put(category, categoryTotal);
-                totalAmount += categoryTotal;
+        long start = MONTHLY_REPORT_TIMER.start();
+        FlightEvents.Report event = FlightEvents.Report.start("monthly", month, year);
+        ExpenseDAO.MonthSummary summary = expenseDAO.summarizeMonth(month, year);
+        Map<Integer, CategoryRow> categoryMap = categoryCache.getCategoryMap();
+        
+        long totalCents = 0;
+        List<ExpenseDAO.CategorySummary> reported = new ArrayList<>();
+        for (ExpenseDAO.CategorySummary categorySummary : summary.getCategories()) {
+            if (categorySummary.getTotalCents() > 0 && categoryMap.containsKey(categorySummary.getCategoryId())) {
+                reported.add(categorySummary);
+                totalCents += categorySummary.getTotalCents();
             }
         }
         
         // Create pie chart data
         List<PieChartData> pieChartData = new ArrayList<>();
-        for (Map.Entry<Category, Double> entry : categoryTotals.entrySet()) {
-            Category category = entry.getKey();
-            Double amount = entry.getValue();
-            double percentage = totalAmount > 0 ? (amount / totalAmount) * 100 : 0;
+        for (ExpenseDAO.CategorySummary categorySummary : reported) {
+            CategoryRow category = categoryMap.get(categorySummary.getCategoryId());
+            double percentage = totalCents > 0 ? (categorySummary.getTotalCents() * 100.0) / totalCents : 0;
             
-            pieChartData.add(new PieChartData(category.getName(), amount, percentage, category.getColor()));
+            pieChartData.add(new PieChartData(category.name(), Money.toDouble(categorySummary.getTotalCents()),
+                                              percentage, category.color(), categorySummary.getCount(),
+                                              Money.toDouble(categorySummary.getMinCents()),
+                                              Money.toDouble(categorySummary.getMaxCents())));
         }
         
         // Sort by amount descending
         pieChartData.sort((a, b) -> Double.compare(b.getAmount(), a.getAmount()));
         
-        return new MonthlyReport(month, year, expenses, pieChartData, totalAmount);
+        Map<LocalDate, Double> dailyTotals = new TreeMap<>();
+        for (Map.Entry<LocalDate, Long> entry : summary.getDailyTotalsCents().entrySet()) {
+            dailyTotals.put(entry.getKey(), Money.toDouble(entry.getValue()));
+        }
+        
+        MonthlyReport report = new MonthlyReport(month, year, () -> expenseDAO.findByMonth(month, year),
+                                                 summary.getCount(), pieChartData, dailyTotals,
+                                                 Money.toDouble(totalCents));
+        MONTHLY_REPORT_TIMER.stop(start);
+        event.finish(summary.getCount());
+        return report;
     }
     
     public boolean exportToCSV(String filePath, int month, int year) {
+        long start = MONTHLY_CSV_TIMER.start();
+        FlightEvents.Report event = FlightEvents.Report.start("monthly_csv", month, year);
         MonthlyReport report = generateMonthlyReport(month, year);
         
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filePath))) {
+        try (CsvWriter csv = CsvWriter.open(Path.of(filePath))) {
             // Write header
-            writer.println("Monthly Expense Report - " + 
-                          LocalDate.of(year, month, 1).format(DateTimeFormatter.ofPattern("MMMM yyyy")));
-            writer.println();
+            csv.field("Monthly Expense Report - " +
+                      LocalDate.of(year, month, 1).format(DateTimeFormatter.ofPattern("MMMM yyyy"))).endRow();
+            csv.endRow();
             
             // Write summary
-            writer.println("Summary:");
-            writer.println("Total Expenses: $" + String.format("%.2f", report.getTotalAmount()));
-            writer.println("Number of Expenses: " + report.getExpenses().size());
-            writer.println();
+            csv.field("Summary:").endRow();
+            csv.field("Total Expenses: $" + String.format("%.2f", report.getTotalAmount())).endRow();
+            csv.field("Number of Expenses: " + report.getExpenseCount()).endRow();
+            csv.endRow();
             
             // Write category breakdown
-            writer.println("Category Breakdown:");
-            writer.println("Category,Amount,Percentage");
+            csv.field("Category Breakdown:").endRow();
+            csv.field("Category").field("Amount").field("Percentage").endRow();
             for (PieChartData data : report.getPieChartData()) {
-                writer.printf("%s,$%.2f,%.1f%%%n", 
-                            data.getCategoryName(), 
-                            data.getAmount(), 
-                            data.getPercentage());
+                csv.field(data.getCategoryName())
+                   .field("$" + Money.of(data.getAmount()))
+                   .field(String.format("%.1f%%", data.getPercentage()))
+                   .endRow();
             }
-            writer.println();
+            csv.endRow();
             
             // Write detailed expenses
-            writer.println("Detailed Expenses:");
-            writer.println("Date,Category,Amount,Notes");
+            csv.field("Detailed Expenses:").endRow();
+            csv.field("Date").field("Category").field("Amount").field("Notes").endRow();
             
-            Map<Integer, Category> categoryMap = new HashMap<>();
-            for (Category category : categoryDAO.findAll()) {
-                categoryMap.put(category.getId(), category);
-            }
+            Map<Integer, CategoryRow> categoryMap = categoryCache.getCategoryMap();
             
-            for (Expense expense : report.getExpenses()) {
-                Category category = categoryMap.get(expense.getCategoryId());
-                String categoryName = category != null ? category.getName() : "Unknown";
-                
-                writer.printf("%s,%s,$%.2f,%s%n",
-                            expense.getDate().format(DateTimeFormatter.ISO_LOCAL_DATE),
-                            categoryName,
-                            expense.getAmount(),
-                            expense.getNotes() != null ? expense.getNotes().replace(",", ";") : "");
+            LocalDate monthStart = LocalDate.of(year, month, 1);
+            try (Stream<ExpenseRow> rows = expenseDAO.streamByDateRange(
+                    monthStart, monthStart.plusMonths(1).minusDays(1), null)) {
+                Iterator<ExpenseRow> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    ExpenseRow expense = iterator.next();
+                    CategoryRow category = categoryMap.get(expense.categoryId());
+                    String categoryName = category != null ? category.name() : "Unknown";
+                    
+                    csv.date(expense.date())
+                       .field(categoryName)
+                       .field("$" + Money.ofCents(expense.amountCents()))
+                       .field(expense.notes())
+                       .endRow();
+                }
             }
             
             LOGGER.info("CSV export completed successfully: " + filePath);
+            MONTHLY_CSV_TIMER.stop(start);
+            event.finish(report.getExpenseCount());
             return true;
             
-        } catch (IOException e) {
+        } catch (IOException | IllegalStateException e) {
             LOGGER.severe("Error exporting to CSV: " + e.getMessage());
+            deleteQuietly(Path.of(filePath));
             return false;
         }
     }
     
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.warning("Could not delete incomplete export " + file + ": " + e.getMessage());
+        }
+    }
+    
     public static class MonthlyReport {
         private final int month;
         private final int year;
-        private final List<Expense> expenses;
+        private final Supplier<List<Expense>> expenseLoader;
+        private final int expenseCount;
         private final List<PieChartData> pieChartData;
+        private final Map<LocalDate, Double> dailyTotals;
         private final double totalAmount;
+        private List<Expense> expenses;
         
         public MonthlyReport(int month, int year, List<Expense> expenses, 
                            List<PieChartData> pieChartData, double totalAmount) {
+            this(month, year, () -> expenses, expenses.size(), pieChartData, Collections.emptyMap(), totalAmount);
+        }
+        
+        public MonthlyReport(int month, int year, Supplier<List<Expense>> expenseLoader, int expenseCount,
+                           List<PieChartData> pieChartData, Map<LocalDate, Double> dailyTotals,
+                           double totalAmount) {
             this.month = month;
             this.year = year;
-            this.expenses = expenses;
+            this.expenseLoader = expenseLoader;
+            this.expenseCount = expenseCount;
             this.pieChartData = pieChartData;
+            this.dailyTotals = dailyTotals;
             this.totalAmount = totalAmount;
         }
         
@@ -140,10 +192,27 @@ public class ReportService {
             return year;
         }
         
-        public List<Expense> getExpenses() {
+        /**
+         * Returns the month's expenses, loading them on first access.
+         */
+        public synchronized List<Expense> getExpenses() {
+            if (expenses == null) {
+                expenses = expenseLoader.get();
+            }
             return expenses;
         }
         
+        public int getExpenseCount() {
+            return expenseCount;
+        }
+        
+        /**
+         * Totals per day that has at least one expense, in date order.
+         */
+        public Map<LocalDate, Double> getDailyTotals() {
+            return dailyTotals;
+        }
+        
         public List<PieChartData> getPieChartData() {
             return pieChartData;
         }
@@ -162,12 +231,23 @@ public class ReportService {
         private final double amount;
         private final double percentage;
         private final String color;
+        private final int count;
+        private final double minAmount;
+        private final double maxAmount;
         
         public PieChartData(String categoryName, double amount, double percentage, String color) {
+            this(categoryName, amount, percentage, color, 0, 0.0, 0.0);
+        }
+        
+        public PieChartData(String categoryName, double amount, double percentage, String color,
+                            int count, double minAmount, double maxAmount) {
             this.categoryName = categoryName;
             this.amount = amount;
             this.percentage = percentage;
             this.color = color;
+            this.count = count;
+            this.minAmount = minAmount;
+            this.maxAmount = maxAmount;
         }
         
         public String getCategoryName() {
@@ -185,5 +265,17 @@ public class ReportService {
         public String getColor() {
             return color;
         }
+        
+        public int getCount() {
+            return count;
+        }
+        
+        public double getMinAmount() {
+            return minAmount;
+        }
+        
+        public double getMaxAmount() {
+            return maxAmount;
+        }
     }
 }
@@ -0,0 +1,159 @@
+package com.expensetracker.service;
+
+import com.expensetracker.dao.ExpenseSearchDAO;
+import com.expensetracker.model.ExpenseRow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Full-text search over the notes and category names of all expenses.
+ * <p>
+ * Queries run against the {@code expense_search} FTS5 index instead of filtering loaded rows, so
+ * the whole history is searched. User input is split into words and each word is quoted before
+ * it reaches FTS5, so punctuation typed by the user cannot cause syntax errors. The FTS5 operators
+ * {@code AND}, {@code OR}, {@code NOT} and {@code NEAR} are dropped rather than searched for.
+ * Results are returned a page at a time.
+ */
+public class SearchService {
+    private static final Logger LOGGER = Logger.getLogger(SearchService.class.getName());
+    private static final Set<String> OPERATORS = Set.of("AND", "OR", "NOT", "NEAR");
+    
+    /**
+     * How the words of a query are matched.
+     */
+    public enum Mode {
+        /** Every word must start a word of the expense, for search as you type. */
+        PREFIX,
+        /** The words must appear next to each other in this order. */
+        PHRASE,
+        /** Every word must appear, in any order. */
+        ALL_WORDS
+    }
+    
+    /**
+     * Order of the results.
+     */
+    public enum Order {
+        /** Best matches first, by bm25 score. Every match is scored, so broad queries cost more. */
+        RELEVANCE,
+        /** Most recently added first. Reads only as many matches as the page needs. */
+        RECENT
+    }
+    
+    private final ExpenseSearchDAO searchDAO;
+    
+    public SearchService() {
+        this.searchDAO = new ExpenseSearchDAO();
+    }
+    
+    /**
+     * Returns the page of matches starting at {@code offset}. Input without any words returns an
+     * empty page.
+     */
+    public SearchPage search(String text, Mode mode, Order order, int offset, int pageSize) {
+        String matchExpression = toMatchExpression(text, mode);
+        if (matchExpression.isEmpty()) {
+            return new SearchPage(List.of(), offset, false);
+        }
+        
+        long start = System.nanoTime();
+        // One extra row tells whether another page exists without counting every match
+        List<ExpenseRow> rows = searchDAO.search(matchExpression, order == Order.RELEVANCE, pageSize + 1, offset);
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+        LOGGER.fine(String.format("Search %s (%s, %s) returned %d rows in %d ms", matchExpression, mode, order,
+                                  rows.size(), (System.nanoTime() - start) / 1_000_000));
+        return new SearchPage(rows, offset, hasMore);
+    }
+    
+    /**
+     * Builds an FTS5 query expression from user input, or returns an empty string if the input
+     * has no words. Words are runs of letters and digits; everything else separates them. Operator
+     * words, which FTS5 only recognizes in upper case, are left out.
+     */
+    static String toMatchExpression(String text, Mode mode) {
+        List<String> words = words(text);
+        if (words.isEmpty()) {
+            return "";
+        }
+        
+        if (mode == Mode.PHRASE) {
+            return "\"" + String.join(" ", words) + "\"";
+        }
+        StringBuilder expression = new StringBuilder();
+        for (String word : words) {
+            if (expression.length() > 0) {
+                expression.append(' ');
+            }
+            expression.append('"').append(word).append('"');
+            if (mode == Mode.PREFIX) {
+                expression.append('*');
+            }
+        }
+        return expression.toString();
+    }
+    
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String word = text.substring(start, i);
+                if (!OPERATORS.contains(word)) {
+                    words.add(word);
+                }
+                start = -1;
+            }
+        }
+        return words;
+    }
+    
+    /**
+     * One page of search results.
+     */
+    public static class SearchPage {
+        private final List<ExpenseRow> rows;
+        private final int offset;
+        private final boolean hasMore;
+        
+        public SearchPage(List<ExpenseRow> rows, int offset, boolean hasMore) {
+            this.rows = Collections.unmodifiableList(rows);
+            this.offset = offset;
+            this.hasMore = hasMore;
+        }
+        
+        public List<ExpenseRow> getRows() {
+            return rows;
+        }
+        
+        public int getOffset() {
+            return offset;
+        }
+        
+        /**
+         * Whether more matches follow this page.
+         */
+        public boolean hasMore() {
+            return hasMore;
+        }
+        
+        /**
+         * Offset of the next page.
+         */
+        public int getNextOffset() {
+            return offset + rows.size();
+        }
+    }
+}
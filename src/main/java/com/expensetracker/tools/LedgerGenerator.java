@@ -0,0 +1,263 @@
+package com.expensetracker.tools;
+
+import com.expensetracker.dao.BudgetDAO;
+import com.expensetracker.dao.ExpenseDAO;
+import com.expensetracker.model.Budget;
+import com.expensetracker.model.Category;
+import com.expensetracker.model.ExpenseRow;
+import com.expensetracker.model.Money;
+import com.expensetracker.service.CategoryCache;
+import com.expensetracker.util.DatabaseManager;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Generates a synthetic ledger for load and scale testing.
+ * <p>
+ * Usage: {@code LedgerGenerator database-file expense-count [years] [seed]}. Expenses are spread
+ * over the given number of years (default 10) up to today. Categories are skewed towards food,
+ * transport and shopping, each with its own payees and amount range; spending rises in December
+ * and the summer and on weekends, and grows a little each year. Every category gets a budget for
+ * every month, set near what was actually spent so that some months run over.
+ * <p>
+ * Expenses are written in batches through {@link ExpenseDAO#insertBatch}, which the write queue
+ * group-commits, while the next batches are generated. The same seed always produces the same
+ * ledger. The command line tool runs with {@code db.synchronous=OFF} unless it is set, since a
+ * half-written test ledger is simply generated again.
+ */
+public class LedgerGenerator {
+    private static final int BATCH_SIZE = Integer.getInteger("generator.batchSize", 10_000);
+    private static final int MAX_PENDING_BATCHES = 8;
+    private static final int PROGRESS_INTERVAL = 1_000_000;
+    private static final double[] MONTH_FACTORS = {0.85, 0.88, 0.95, 0.98, 1.0, 1.08,
+                                                   1.12, 1.1, 0.97, 1.0, 1.1, 1.4};
+    private static final double WEEKEND_FACTOR = 1.3;
+    private static final double YEARLY_GROWTH = 0.03;
+    
+    private static final Map<String, CategoryProfile> PROFILES = Map.of(
+        "Food & Dining", new CategoryProfile(0.34, 2_400, 0.7, "Corner Grocery", "Cafe Luna", "Pizza Place", "Farmers Market", "Sushi Bar"),
+        "Transportation", new CategoryProfile(0.18, 1_800, 0.8, "City Transit", "Fuel Stop", "Ride Share", "Parking Garage"),
+        "Shopping", new CategoryProfile(0.15, 4_500, 0.9, "Online Store", "Hardware Depot", "Book Nook", "Shoe Outlet"),
+        "Entertainment", new CategoryProfile(0.09, 3_000, 0.7, "Cinema", "Streaming Service", "Concert Hall", "Bowling Alley"),
+        "Utilities", new CategoryProfile(0.05, 9_000, 0.4, "Power Co", "Water Works", "Internet Provider", "Phone Carrier"),
+        "Healthcare", new CategoryProfile(0.04, 6_000, 1.0, "Pharmacy Plus", "Dental Clinic", "Eye Care"),
+        "Education", new CategoryProfile(0.02, 12_000, 0.9, "Online Course", "Book Nook", "Language School"),
+        "Other", new CategoryProfile(0.13, 2_000, 1.0, "Post Office", "Gift Shop", "Dry Cleaner", "Charity"));
+    private static final CategoryProfile DEFAULT_PROFILE = new CategoryProfile(0.03, 2_500, 0.9, "Misc");
+    
+    private final ExpenseDAO expenseDAO;
+    private final BudgetDAO budgetDAO;
+    private final long seed;
+    
+    public LedgerGenerator(long seed) {
+        this.expenseDAO = new ExpenseDAO();
+        this.budgetDAO = new BudgetDAO();
+        this.seed = seed;
+    }
+    
+    /**
+     * Generates {@code expenseCount} expenses dated from {@code years} years before
+     * {@code lastDay} up to it, plus a budget per category and month, in the current database.
+     *
+     * @param listener receives progress on the calling thread; may be {@code null}
+     */
+    public Summary generate(long expenseCount, LocalDate lastDay, int years, ProgressListener listener) {
+        long start = System.nanoTime();
+        Random random = new Random(seed);
+        List<Category> categories = new ArrayList<>(CategoryCache.getInstance().getAll());
+        if (categories.isEmpty()) {
+            throw new IllegalStateException("The database has no categories");
+        }
+        CategoryProfile[] profiles = new CategoryProfile[categories.size()];
+        double[] categoryWeights = new double[categories.size()];
+        for (int i = 0; i < categories.size(); i++) {
+            profiles[i] = PROFILES.getOrDefault(categories.get(i).getName(), DEFAULT_PROFILE);
+            categoryWeights[i] = profiles[i].weight;
+        }
+        double[] categoryCumulative = cumulative(categoryWeights);
+        
+        LocalDate firstDay = lastDay.minusYears(years).plusDays(1);
+        int days = (int) (lastDay.toEpochDay() - firstDay.toEpochDay() + 1);
+        double[] dayWeights = new double[days];
+        for (int i = 0; i < days; i++) {
+            dayWeights[i] = dayWeight(firstDay.plusDays(i), firstDay);
+        }
+        double[] dayCumulative = cumulative(dayWeights);
+        
+        // Spending per month and category, for setting the budgets afterwards
+        int months = (lastDay.getYear() - firstDay.getYear()) * 12 + lastDay.getMonthValue() - firstDay.getMonthValue() + 1;
+        long[][] spentCents = new long[months][categories.size()];
+        
+        Deque<CompletableFuture<Integer>> pending = new ArrayDeque<>();
+        long inserted = 0;
+        List<ExpenseRow> batch = new ArrayList<>(BATCH_SIZE);
+        for (long i = 0; i < expenseCount; i++) {
+            int category = pick(categoryCumulative, random);
+            CategoryProfile profile = profiles[category];
+            LocalDate date = firstDay.plusDays(pick(dayCumulative, random));
+            long amountCents = Math.max(50, Math.round(profile.medianCents * Math.exp(profile.spread * random.nextGaussian())));
+            String notes = profile.payees[random.nextInt(profile.payees.length)];
+            
+            batch.add(new ExpenseRow(0, amountCents, categories.get(category).getId(), date.toEpochDay(), notes));
+            spentCents[monthIndex(date, firstDay)][category] += amountCents;
+            
+            if (batch.size() == BATCH_SIZE) {
+                pending.add(expenseDAO.insertBatch(batch));
+                batch = new ArrayList<>(BATCH_SIZE);
+                // Bound the batches waiting for the writer so memory stays flat
+                while (pending.size() > MAX_PENDING_BATCHES) {
+                    inserted += pending.poll().join();
+                }
+            }
+            if (listener != null && (i + 1) % PROGRESS_INTERVAL == 0) {
+                listener.onProgress(i + 1, (i + 1) / ((System.nanoTime() - start) / 1e9));
+            }
+        }
+        pending.add(expenseDAO.insertBatch(batch));
+        while (!pending.isEmpty()) {
+            inserted += pending.poll().join();
+        }
+        
+        List<CompletableFuture<Boolean>> budgetWrites = new ArrayList<>();
+        LocalDate firstMonth = firstDay.withDayOfMonth(1);
+        for (int month = 0; month < months; month++) {
+            LocalDate monthStart = firstMonth.plusMonths(month);
+            for (int category = 0; category < categories.size(); category++) {
+                // Between 80% and 130% of the actual spending, rounded to whole tens
+                double budget = Money.toDouble(spentCents[month][category]) * (0.8 + 0.5 * random.nextDouble());
+                budget = Math.max(10, Math.round(budget / 10) * 10);
+                budgetWrites.add(budgetDAO.saveAsync(new Budget(categories.get(category).getId(), budget,
+                                                                monthStart.getMonthValue(), monthStart.getYear())));
+            }
+        }
+        long budgets = budgetWrites.stream().filter(CompletableFuture::join).count();
+        
+        return new Summary(inserted, budgets, System.nanoTime() - start);
+    }
+    
+    private static double dayWeight(LocalDate date, LocalDate firstDay) {
+        double weight = MONTH_FACTORS[date.getMonthValue() - 1];
+        if (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            weight *= WEEKEND_FACTOR;
+        }
+        return weight * Math.pow(1 + YEARLY_GROWTH, date.getYear() - firstDay.getYear());
+    }
+    
+    private static int monthIndex(LocalDate date, LocalDate firstDay) {
+        return (date.getYear() - firstDay.getYear()) * 12 + date.getMonthValue() - firstDay.getMonthValue();
+    }
+    
+    private static double[] cumulative(double[] weights) {
+        double[] cumulative = new double[weights.length];
+        double total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            total += weights[i];
+            cumulative[i] = total;
+        }
+        for (int i = 0; i < cumulative.length; i++) {
+            cumulative[i] /= total;
+        }
+        return cumulative;
+    }
+    
+    private static int pick(double[] cumulative, Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(cumulative.length - 1, index >= 0 ? index + 1 : -index - 1);
+    }
+    
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 4) {
+            System.err.println("Usage: LedgerGenerator database-file expense-count [years] [seed]");
+            System.exit(2);
+        }
+        // DatabaseManager resolves its file and pragmas from these properties when first used
+        System.setProperty("db.file", args[0]);
+        System.setProperty("db.synchronous", System.getProperty("db.synchronous", "OFF"));
+        long expenseCount = Long.parseLong(args[1]);
+        int years = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+        
+        int status = 0;
+        try {
+            Summary summary = new LedgerGenerator(seed).generate(expenseCount, LocalDate.now(), years,
+                (rows, rowsPerSecond) -> System.out.printf("%,d expenses (%,.0f/s)%n", rows, rowsPerSecond));
+            System.out.println(summary);
+            status = summary.getExpenses() == expenseCount ? 0 : 1;
+        } finally {
+            DatabaseManager.getInstance().closeConnection();
+        }
+        System.exit(status);
+    }
+    
+    /**
+     * Receives generation progress on the generating thread.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(long expenses, double expensesPerSecond);
+    }
+    
+    /**
+     * How often a category is used, the usual amount and how widely amounts vary (the standard
+     * deviation of their logarithm), and the payees written to the notes.
+     */
+    private static class CategoryProfile {
+        private final double weight;
+        private final long medianCents;
+        private final double spread;
+        private final String[] payees;
+        
+        CategoryProfile(double weight, long medianCents, double spread, String... payees) {
+            this.weight = weight;
+            this.medianCents = medianCents;
+            this.spread = spread;
+            this.payees = payees;
+        }
+    }
+    
+    /**
+     * What one run generated.
+     */
+    public static class Summary {
+        private final long expenses;
+        private final long budgets;
+        private final long elapsedNanos;
+        
+        public Summary(long expenses, long budgets, long elapsedNanos) {
+            this.expenses = expenses;
+            this.budgets = budgets;
+            this.elapsedNanos = elapsedNanos;
+        }
+        
+        public long getExpenses() {
+            return expenses;
+        }
+        
+        public long getBudgets() {
+            return budgets;
+        }
+        
+        public long getElapsedMillis() {
+            return elapsedNanos / 1_000_000;
+        }
+        
+        public double getExpensesPerSecond() {
+            return elapsedNanos == 0 ? 0 : expenses / (elapsedNanos / 1e9);
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("Generated %,d expenses and %,d budgets in %.1f s (%,.0f expenses/s)",
+                                 expenses, budgets, elapsedNanos / 1e9, getExpensesPerSecond());
+        }
+    }
+}
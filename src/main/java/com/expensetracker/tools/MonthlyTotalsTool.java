@@ -0,0 +1,48 @@
+package com.expensetracker.tools;
+
+import com.expensetracker.dao.MonthlyTotalsDAO;
+import com.expensetracker.util.DatabaseManager;
+
+import java.util.List;
+
+/**
+ * Command-line check for the monthly category totals rollup.
+ * <p>
+ * Usage: {@code MonthlyTotalsTool verify|rebuild [database-file]}. {@code verify} lists every month
+ * whose stored total differs from the expenses and exits with status 1 if any does;
+ * {@code rebuild} recomputes the whole rollup and verifies it afterwards.
+ */
+public class MonthlyTotalsTool {
+    
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 2 || !(args[0].equals("verify") || args[0].equals("rebuild"))) {
+            System.err.println("Usage: MonthlyTotalsTool verify|rebuild [database-file]");
+            System.exit(2);
+        }
+        if (args.length == 2) {
+            // DatabaseManager resolves its file from this property when first used
+            System.setProperty("db.file", args[1]);
+        }
+        
+        MonthlyTotalsDAO monthlyTotalsDAO = new MonthlyTotalsDAO();
+        int status = 0;
+        try {
+            if (args[0].equals("rebuild") && !monthlyTotalsDAO.rebuild()) {
+                System.err.println("Rebuild failed, see the log for details");
+                status = 1;
+            } else {
+                List<MonthlyTotalsDAO.Discrepancy> discrepancies = monthlyTotalsDAO.verify();
+                for (MonthlyTotalsDAO.Discrepancy discrepancy : discrepancies) {
+                    System.out.println(discrepancy);
+                }
+                System.out.println(discrepancies.isEmpty()
+                    ? "Monthly category totals are consistent"
+                    : discrepancies.size() + " inconsistent month(s); run 'rebuild' to repair");
+                status = discrepancies.isEmpty() ? 0 : 1;
+            }
+        } finally {
+            DatabaseManager.getInstance().closeConnection();
+        }
+        System.exit(status);
+    }
+}
@@ -0,0 +1,156 @@
+package com.expensetracker.ui;
+
+import com.expensetracker.util.Metrics;
+import javafx.concurrent.Task;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs service calls off the JavaFX application thread and hands their results back to it.
+ * <p>
+ * Work runs on a small pool of daemon threads. Imports, exports and other jobs that can take
+ * minutes are started with {@link #runLong} and get a pool of their own, so the short loads that
+ * keep the view up to date are never queued behind them. Success and failure callbacks always
+ * run on the FX thread, so they can update controls directly. Work started with {@link #runLatest} is keyed:
+ * starting a new task under the same key cancels the previous one, and results of a superseded
+ * task are never delivered. Methods must be called on the FX thread. The time callbacks spend
+ * on the FX thread is recorded as {@code fx_callback_seconds}, since while they run the UI cannot
+ * respond.
+ */
+public class BackgroundTasks {
+    private static final Logger LOGGER = Logger.getLogger(BackgroundTasks.class.getName());
+    private static final int THREADS = Integer.getInteger("ui.background.threads", 2);
+    private static final int LONG_THREADS = Integer.getInteger("ui.background.longThreads", 2);
+    private static final Metrics.Timer FX_CALLBACK_TIMER = Metrics.getInstance().timer(
+        "fx_callback_seconds", "Time background task callbacks block the FX thread", null, null);
+    private static BackgroundTasks instance;
+    
+    private final ExecutorService executor;
+    private final ExecutorService longExecutor;
+    private final Map<String, Task<?>> latestByKey = new HashMap<>();
+    
+    private BackgroundTasks() {
+        this.executor = Executors.newFixedThreadPool(THREADS, threadFactory("ui-background-"));
+        this.longExecutor = Executors.newFixedThreadPool(LONG_THREADS, threadFactory("ui-long-"));
+    }
+    
+    public static synchronized BackgroundTasks getInstance() {
+        if (instance == null) {
+            instance = new BackgroundTasks();
+        }
+        return instance;
+    }
+    
+    /**
+     * Runs {@code work} in the background and passes its result to {@code onSuccess} on the FX thread.
+     */
+    public <T> Task<T> run(Callable<T> work, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        Task<T> task = createTask(work);
+        task.setOnSucceeded(event -> timed(() -> onSuccess.accept(task.getValue())));
+        task.setOnFailed(event -> timed(() -> onFailure.accept(task.getException())));
+        executor.execute(task);
+        return task;
+    }
+    
+    /**
+     * Like {@link #run}, but for work that may take minutes, such as an import or export. It runs
+     * on a separate pool, so it never delays work started with {@link #run} or {@link #runLatest}.
+     */
+    public <T> Task<T> runLong(Callable<T> work, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        Task<T> task = createTask(work);
+        task.setOnSucceeded(event -> timed(() -> onSuccess.accept(task.getValue())));
+        task.setOnFailed(event -> timed(() -> onFailure.accept(task.getException())));
+        longExecutor.execute(task);
+        return task;
+    }
+    
+    /**
+     * Like {@link #run}, but cancels any unfinished task previously started under the same key.
+     * Only the most recent task for a key ever reports success or failure.
+     */
+    public <T> Task<T> runLatest(String key, Callable<T> work, Consumer<T> onSuccess,
+                                 Consumer<Throwable> onFailure) {
+        Task<?> previous = latestByKey.get(key);
+        if (previous != null && !previous.isDone()) {
+            previous.cancel(true);
+        }
+        
+        Task<T> task = createTask(work);
+        latestByKey.put(key, task);
+        task.setOnSucceeded(event -> {
+            if (latestByKey.get(key) == task) {
+                latestByKey.remove(key);
+                timed(() -> onSuccess.accept(task.getValue()));
+            }
+        });
+        task.setOnFailed(event -> {
+            if (latestByKey.get(key) == task) {
+                latestByKey.remove(key);
+                timed(() -> onFailure.accept(task.getException()));
+            }
+        });
+        executor.execute(task);
+        return task;
+    }
+    
+    /**
+     * Cancels queued and running work and waits briefly for running tasks to stop.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+        longExecutor.shutdownNow();
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)
+                || !longExecutor.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                LOGGER.warning("Background tasks did not stop within 5 seconds");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static ThreadFactory threadFactory(String namePrefix) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+    
+    private static void timed(Runnable callback) {
+        long start = FX_CALLBACK_TIMER.start();
+        try {
+            callback.run();
+        } finally {
+            FX_CALLBACK_TIMER.stop(start);
+        }
+    }
+    
+    private static <T> Task<T> createTask(Callable<T> work) {
+        return new Task<>() {
+            @Override
+            protected T call() throws Exception {
+                try {
+                    return work.call();
+                } catch (Exception e) {
+                    if (!isCancelled()) {
+                        LOGGER.log(Level.WARNING, "Background task failed", e);
+                    }
+                    throw e;
+                }
+            }
+        };
+    }
+}
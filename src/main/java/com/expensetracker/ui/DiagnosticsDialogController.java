@@ -0,0 +1,148 @@
+package com.expensetracker.ui;
+
+import com.expensetracker.util.Metrics;
+import com.expensetracker.util.MetricsExporter;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.fxml.FXML;
+import javafx.scene.control.*;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Controller for the diagnostics dialog, which lists the current {@link Metrics} and refreshes
+ * them every second while it is open.
+ * <p>
+ * Timers show how often they ran with their mean, estimated 95th percentile and maximum;
+ * counters and gauges show their value. A snapshot can be saved as JSON or Prometheus text.
+ */
+public class DiagnosticsDialogController {
+    private static final Logger LOGGER = Logger.getLogger(DiagnosticsDialogController.class.getName());
+    
+    @FXML private Label statusLabel;
+    @FXML private TableView<MetricRow> metricsTable;
+    @FXML private TableColumn<MetricRow, String> nameColumn;
+    @FXML private TableColumn<MetricRow, String> valueColumn;
+    @FXML private TableColumn<MetricRow, String> meanColumn;
+    @FXML private TableColumn<MetricRow, String> p95Column;
+    @FXML private TableColumn<MetricRow, String> maxColumn;
+    
+    private final ObservableList<MetricRow> rows = FXCollections.observableArrayList();
+    private final Timeline refresh = new Timeline(new KeyFrame(Duration.seconds(1), event -> refreshMetrics()));
+    private Stage dialogStage;
+    
+    @FXML
+    public void initialize() {
+        nameColumn.setCellValueFactory(data -> new ReadOnlyStringWrapper(data.getValue().name()));
+        valueColumn.setCellValueFactory(data -> new ReadOnlyStringWrapper(data.getValue().value()));
+        meanColumn.setCellValueFactory(data -> new ReadOnlyStringWrapper(data.getValue().mean()));
+        p95Column.setCellValueFactory(data -> new ReadOnlyStringWrapper(data.getValue().p95()));
+        maxColumn.setCellValueFactory(data -> new ReadOnlyStringWrapper(data.getValue().max()));
+        metricsTable.setItems(rows);
+        metricsTable.setPlaceholder(new Label("No metrics recorded yet"));
+        
+        statusLabel.setText(Metrics.ENABLED
+            ? "Recording metrics since startup."
+            : "Metrics are off. Start the application with -Dmetrics.enabled=true to record timings; " +
+              "only gauges are shown.");
+        refreshMetrics();
+        refresh.setCycleCount(Animation.INDEFINITE);
+    }
+    
+    public void setDialogStage(Stage dialogStage) {
+        this.dialogStage = dialogStage;
+        dialogStage.setOnShown(event -> refresh.play());
+        dialogStage.setOnHidden(event -> refresh.stop());
+    }
+    
+    @FXML
+    private void handleRefresh() {
+        refreshMetrics();
+    }
+    
+    @FXML
+    private void handleSaveSnapshot() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Save Metrics Snapshot");
+        fileChooser.getExtensionFilters().addAll(
+            new FileChooser.ExtensionFilter("JSON", "*.json"),
+            new FileChooser.ExtensionFilter("Prometheus text", "*.prom", "*.txt"));
+        fileChooser.setInitialFileName("metrics.json");
+        File file = fileChooser.showSaveDialog(dialogStage);
+        if (file == null) {
+            return;
+        }
+        
+        try {
+            MetricsExporter.writeTo(file.toPath());
+            statusLabel.setText("Saved metrics to " + file);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not save metrics to " + file, e);
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("Error");
+            alert.setHeaderText(null);
+            alert.setContentText("Failed to save metrics");
+            alert.showAndWait();
+        }
+    }
+    
+    @FXML
+    private void handleClose() {
+        if (dialogStage != null) {
+            dialogStage.close();
+        }
+    }
+    
+    private void refreshMetrics() {
+        MetricRow selected = metricsTable.getSelectionModel().getSelectedItem();
+        rows.clear();
+        for (Metrics.Metric metric : Metrics.getInstance().snapshot()) {
+            String name = metric.getLabelValue() == null
+                ? metric.getName()
+                : metric.getName() + " " + metric.getLabelValue();
+            
+            if (metric instanceof Metrics.Timer) {
+                Metrics.Timer timer = (Metrics.Timer) metric;
+                if (timer.getCount() > 0) {
+                    rows.add(new MetricRow(name, String.format("%,d", timer.getCount()),
+                                           millis(timer.getMeanNanos()), millis(timer.getPercentileNanos(0.95)),
+                                           millis(timer.getMaxNanos())));
+                }
+            } else if (metric instanceof Metrics.Counter) {
+                long value = ((Metrics.Counter) metric).getValue();
+                if (value > 0) {
+                    rows.add(new MetricRow(name, String.format("%,d", value), "", "", ""));
+                }
+            } else {
+                double value = ((Metrics.Gauge) metric).getValue();
+                rows.add(new MetricRow(name, value == Math.rint(value) ? String.format("%,.0f", value)
+                                                                        : String.format("%.3f", value), "", "", ""));
+            }
+        }
+        
+        if (selected != null) {
+            rows.stream().filter(row -> row.name().equals(selected.name())).findFirst()
+                .ifPresent(row -> metricsTable.getSelectionModel().select(row));
+        }
+    }
+    
+    private static String millis(double nanos) {
+        return String.format("%.2f ms", nanos / 1_000_000);
+    }
+    
+    /**
+     * One formatted line of the metrics table.
+     */
+    private record MetricRow(String name, String value, String mean, String p95, String max) {
+    }
+}
@@ -2,23 +2,38 @@ package com.expensetracker.ui;
 
 import com.expensetracker.model.Category;
 import com.expensetracker.model.Expense;
+import com.expensetracker.model.Money;
 import com.expensetracker.service.ExpenseService;
+import javafx.animation.PauseTransition;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Controller for the expense dialog.
+ * <p>
+ * Budget validation waits until input has been quiet for {@code ui.dialog.validationDelayMillis}
+ * (250 ms by default). The budget and spent total of each category and month are loaded in the
+ * background once per dialog; after that, validating a new amount needs no database access.
+ * Saving also runs in the background and reuses the loaded budget, with Save disabled meanwhile.
  */
 public class ExpenseDialogController {
     private static final Logger LOGGER = Logger.getLogger(ExpenseDialogController.class.getName());
+    private static final long VALIDATION_DELAY_MILLIS = Long.getLong("ui.dialog.validationDelayMillis", 250);
+    private static final AtomicInteger DIALOG_COUNT = new AtomicInteger();
     
     @FXML private Label dialogTitle;
     @FXML private TextField amountField;
@@ -27,12 +42,18 @@ public class ExpenseDialogController {
     @FXML private TextArea notesTextArea;
     @FXML private VBox budgetWarningContainer;
     @FXML private Label budgetWarningLabel;
+    @FXML private Button saveButton;
     
     private Expense expense;
     private ObservableList<Category> categories;
     private LocalDate currentMonth;
     private final ExpenseService expenseService;
     private Stage dialogStage;
+    private String originalSnapshotKey;
+    private long originalCents;
+    private final Map<String, ExpenseService.BudgetSnapshot> budgetSnapshots = new HashMap<>();
+    private final String validationTaskKey = "budget-validation-" + DIALOG_COUNT.incrementAndGet();
+    private PauseTransition validationDelay;
     
     public ExpenseDialogController() {
         this.expenseService = new ExpenseService();
@@ -40,6 +61,8 @@ public class ExpenseDialogController {
     
     @FXML
     public void initialize() {
+        validationDelay = new PauseTransition(Duration.millis(VALIDATION_DELAY_MILLIS));
+        validationDelay.setOnFinished(event -> validateBudget());
         setupValidation();
         setupBudgetWarning();
     }
@@ -47,6 +70,9 @@ public class ExpenseDialogController {
     public void setExpense(Expense expense) {
         this.expense = expense;
         if (expense != null) {
+            // Remember the saved amount; it is part of the month's spending until this edit is saved
+            originalSnapshotKey = snapshotKey(expense.getCategoryId(), expense.getDate());
+            originalCents = Money.toCents(expense.getAmount());
             dialogTitle.setText("Edit Expense");
             populateFields();
         } else {
@@ -76,19 +102,14 @@ public class ExpenseDialogController {
             }
         });
         
-        // Category selection validation
-        categoryComboBox.valueProperty().addListener((observable, oldValue, newValue) -> {
-            if (newValue != null) {
-                validateBudget();
-            }
-        });
-        
-        // Amount change validation
-        amountField.textProperty().addListener((observable, oldValue, newValue) -> {
-            if (!newValue.isEmpty() && categoryComboBox.getValue() != null) {
-                validateBudget();
-            }
-        });
+        // Budget validation runs once the category, amount and date stop changing
+        categoryComboBox.valueProperty().addListener((observable, oldValue, newValue) -> scheduleValidation());
+        amountField.textProperty().addListener((observable, oldValue, newValue) -> scheduleValidation());
+        datePicker.valueProperty().addListener((observable, oldValue, newValue) -> scheduleValidation());
+    }
+    
+    private void scheduleValidation() {
+        validationDelay.playFromStart();
     }
     
     private void setupBudgetWarning() {
@@ -119,52 +140,97 @@ public class ExpenseDialogController {
     }
     
     private void validateBudget() {
+        Category selectedCategory = categoryComboBox.getValue();
+        LocalDate date = datePicker.getValue();
+        long amountCents;
         try {
-            double amount = Double.parseDouble(amountField.getText());
-            Category selectedCategory = categoryComboBox.getValue();
-            
-            if (selectedCategory != null) {
-                Expense tempExpense = new Expense(amount, selectedCategory.getId(), 
-                    datePicker.getValue(), notesTextArea.getText());
-                
-                ExpenseService.BudgetValidationResult result = expenseService.validateBudget(tempExpense);
-                
-                if (!result.isValid()) {
-                    budgetWarningLabel.setText(result.getMessage());
-                    budgetWarningContainer.setVisible(true);
-                    budgetWarningContainer.setManaged(true);
-                } else {
-                    budgetWarningContainer.setVisible(false);
-                    budgetWarningContainer.setManaged(false);
-                }
-            }
+            amountCents = Money.toCents(Double.parseDouble(amountField.getText()));
         } catch (NumberFormatException e) {
             // Amount field is empty or invalid, hide warning
-            budgetWarningContainer.setVisible(false);
-            budgetWarningContainer.setManaged(false);
+            hideBudgetWarning();
+            return;
         }
+        if (selectedCategory == null || date == null) {
+            hideBudgetWarning();
+            return;
+        }
+        
+        int categoryId = selectedCategory.getId();
+        YearMonth month = YearMonth.from(date);
+        String snapshotKey = snapshotKey(categoryId, date);
+        ExpenseService.BudgetSnapshot snapshot = budgetSnapshots.get(snapshotKey);
+        if (snapshot != null) {
+            showBudgetValidation(ExpenseService.validateBudget(snapshot, amountCents));
+            return;
+        }
+        
+        // Load once per category and month, then validate whatever the fields hold by then
+        BackgroundTasks.getInstance().runLatest(validationTaskKey,
+            () -> expenseService.getBudgetSnapshot(categoryId, month.getMonthValue(), month.getYear()),
+            loaded -> {
+                budgetSnapshots.put(snapshotKey, snapshotKey.equals(originalSnapshotKey)
+                    ? loaded.withoutSpending(originalCents) : loaded);
+                validateBudget();
+            },
+            error -> {
+                LOGGER.log(Level.WARNING, "Failed to load budget for validation", error);
+                hideBudgetWarning();
+            });
+    }
+    
+    private static String snapshotKey(int categoryId, LocalDate date) {
+        return date == null ? null : categoryId + ":" + YearMonth.from(date);
+    }
+    
+    private void showBudgetValidation(ExpenseService.BudgetValidationResult result) {
+        if (!result.isValid()) {
+            budgetWarningLabel.setText(result.getMessage());
+            budgetWarningContainer.setVisible(true);
+            budgetWarningContainer.setManaged(true);
+        } else {
+            hideBudgetWarning();
+        }
+    }
+    
+    private void hideBudgetWarning() {
+        budgetWarningContainer.setVisible(false);
+        budgetWarningContainer.setManaged(false);
     }
     
     @FXML
     private void handleSave() {
-        if (validateInput()) {
-            Expense expenseToSave = expense != null ? expense : new Expense();
-            
-            try {
-                expenseToSave.setAmount(Double.parseDouble(amountField.getText()));
-                expenseToSave.setCategoryId(categoryComboBox.getValue().getId());
-                expenseToSave.setDate(datePicker.getValue());
-                expenseToSave.setNotes(notesTextArea.getText());
-                
-                if (expenseService.saveExpense(expenseToSave)) {
-                    closeDialog();
-                } else {
-                    showError("Error", "Failed to save expense");
-                }
-            } catch (NumberFormatException e) {
-                showError("Error", "Invalid amount format");
-            }
+        if (!validateInput()) {
+            return;
+        }
+        
+        Expense expenseToSave;
+        try {
+            // A copy, so the background thread never reads properties the dialog owns
+            expenseToSave = new Expense(expense != null ? expense.getId() : 0,
+                                        Double.parseDouble(amountField.getText()),
+                                        categoryComboBox.getValue().getId(),
+                                        datePicker.getValue(),
+                                        notesTextArea.getText());
+        } catch (NumberFormatException e) {
+            showError("Error", "Invalid amount format");
+            return;
         }
+        ExpenseService.BudgetSnapshot snapshot =
+            budgetSnapshots.get(snapshotKey(expenseToSave.getCategoryId(), expenseToSave.getDate()));
+        
+        saveButton.setDisable(true);
+        BackgroundTasks.getInstance().run(() -> expenseService.saveExpense(expenseToSave, snapshot), saved -> {
+            if (saved) {
+                closeDialog();
+            } else {
+                saveButton.setDisable(false);
+                showError("Error", "Failed to save expense");
+            }
+        }, error -> {
+            LOGGER.log(Level.SEVERE, "Failed to save expense", error);
+            saveButton.setDisable(false);
+            showError("Error", "Failed to save expense");
+        });
     }
     
     @FXML
@@ -217,6 +283,7 @@ public class ExpenseDialogController {
     }
     
     private void closeDialog() {
+        validationDelay.stop();
         if (dialogStage != null) {
             dialogStage.close();
         }
@@ -1,5 +1,9 @@
 package com.expensetracker.ui;
 
+import com.expensetracker.util.DatabaseManager;
+import com.expensetracker.util.DiagnosticsLog;
+import com.expensetracker.util.FlightRecording;
+import com.expensetracker.util.MetricsExporter;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -18,6 +22,10 @@ public class ExpenseTrackerApp extends Application {
     
     @Override
     public void start(Stage primaryStage) {
+        FlightRecording.start();
+        MetricsExporter.start();
+        DiagnosticsLog.start();
+        FxStallWatchdog.getInstance().start();
         try {
             // Load the main FXML file
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/MainView.fxml"));
@@ -38,6 +46,7 @@ public class ExpenseTrackerApp extends Application {
             primaryStage.setMinHeight(600);
             
             // Show the stage
+            StartupTimer.getInstance().watchFirstFrame(scene);
             primaryStage.show();
             
             LOGGER.info("Expense Tracker application started successfully");
@@ -52,6 +61,12 @@ public class ExpenseTrackerApp extends Application {
     public void stop() {
         // Clean up resources when application is closing
         LOGGER.info("Expense Tracker application is shutting down");
+        FxStallWatchdog.getInstance().stop();
+        BackgroundTasks.getInstance().shutdown();
+        MetricsExporter.stop();
+        DatabaseManager.getInstance().closeConnection();
+        DiagnosticsLog.stop();
+        FlightRecording.stop();
     }
     
     public static void main(String[] args) {
@@ -0,0 +1,176 @@
+package com.expensetracker.ui;
+
+import com.expensetracker.model.Category;
+import com.expensetracker.service.ExportService;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.fxml.FXML;
+import javafx.scene.control.*;
+import javafx.stage.FileChooser;
+import javafx.stage.Stage;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * Controller for the expense export dialog.
+ * <p>
+ * Exports run in the background and report their row count and throughput while they run.
+ * Cancelling, or closing the dialog, stops a running export and removes the partial file.
+ */
+public class ExportDialogController {
+    private static final Logger LOGGER = Logger.getLogger(ExportDialogController.class.getName());
+    // Placeholder entry meaning "no category filter"
+    private static final Category ALL_CATEGORIES = new Category(0, "All categories", "#000000");
+    
+    @FXML private DatePicker startDatePicker;
+    @FXML private DatePicker endDatePicker;
+    @FXML private ComboBox<Category> categoryComboBox;
+    @FXML private ProgressBar progressBar;
+    @FXML private Label statusLabel;
+    @FXML private Button exportButton;
+    @FXML private Button cancelButton;
+    
+    private final ExportService exportService;
+    private Stage dialogStage;
+    private AtomicBoolean cancelled;
+    
+    public ExportDialogController() {
+        this.exportService = new ExportService();
+    }
+    
+    public void setCategories(List<Category> categories) {
+        ObservableList<Category> items = FXCollections.observableArrayList(ALL_CATEGORIES);
+        items.addAll(categories);
+        categoryComboBox.setItems(items);
+        categoryComboBox.setValue(ALL_CATEGORIES);
+    }
+    
+    /**
+     * Preselects the whole month that starts at {@code month}.
+     */
+    public void setCurrentMonth(LocalDate month) {
+        startDatePicker.setValue(month.withDayOfMonth(1));
+        endDatePicker.setValue(month.withDayOfMonth(month.lengthOfMonth()));
+    }
+    
+    public void setDialogStage(Stage dialogStage) {
+        this.dialogStage = dialogStage;
+        dialogStage.setOnHidden(event -> cancelRunningExport());
+    }
+    
+    @FXML
+    private void handleExport() {
+        LocalDate startDate = startDatePicker.getValue();
+        LocalDate endDate = endDatePicker.getValue();
+        if (startDate == null || endDate == null) {
+            showError("Validation Error", "Please select a date range");
+            return;
+        }
+        if (endDate.isBefore(startDate)) {
+            showError("Validation Error", "The end date must not be before the start date");
+            return;
+        }
+        
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Export Expenses");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV Files", "*.csv"));
+        fileChooser.setInitialFileName("expenses_" + startDate.format(DateTimeFormatter.BASIC_ISO_DATE) +
+                                       "_" + endDate.format(DateTimeFormatter.BASIC_ISO_DATE) + ".csv");
+        File file = fileChooser.showSaveDialog(dialogStage);
+        if (file == null) {
+            return;
+        }
+        
+        Category selected = categoryComboBox.getValue();
+        Integer categoryId = selected == null || selected == ALL_CATEGORIES ? null : selected.getId();
+        Path path = file.toPath();
+        AtomicBoolean exportCancelled = new AtomicBoolean();
+        cancelled = exportCancelled;
+        showRunning(true);
+        statusLabel.setText("Exporting...");
+        
+        ExportService.ProgressListener listener = new ExportService.ProgressListener() {
+            @Override
+            public void onProgress(long rows, double rowsPerSecond) {
+                Platform.runLater(() -> statusLabel.setText(formatProgress(rows, rowsPerSecond)));
+            }
+            
+            @Override
+            public boolean isCancelled() {
+                return exportCancelled.get();
+            }
+        };
+        
+        BackgroundTasks.getInstance().runLong(
+            () -> exportService.exportExpenses(path, startDate, endDate, categoryId, listener),
+            result -> {
+                cancelled = null;
+                showRunning(false);
+                switch (result.getStatus()) {
+                    case COMPLETED:
+                        statusLabel.setText(String.format("Exported %,d expenses in %.1f s to %s", result.getRowCount(),
+                                                          result.getElapsedMillis() / 1000.0, path));
+                        break;
+                    case CANCELLED:
+                        statusLabel.setText("Export cancelled");
+                        break;
+                    default:
+                        statusLabel.setText("Export failed");
+                        showError("Error", "Failed to export expenses");
+                }
+            },
+            error -> {
+                cancelled = null;
+                showRunning(false);
+                statusLabel.setText("Export failed");
+                showError("Error", "Failed to export expenses");
+            });
+    }
+    
+    @FXML
+    private void handleCancel() {
+        if (cancelled != null) {
+            cancelRunningExport();
+            statusLabel.setText("Cancelling...");
+        } else if (dialogStage != null) {
+            dialogStage.close();
+        }
+    }
+    
+    private void cancelRunningExport() {
+        if (cancelled != null) {
+            LOGGER.info("Cancelling expense export");
+            cancelled.set(true);
+        }
+    }
+    
+    private void showRunning(boolean running) {
+        progressBar.setProgress(ProgressIndicator.INDETERMINATE_PROGRESS);
+        progressBar.setVisible(running);
+        progressBar.setManaged(running);
+        exportButton.setDisable(running);
+        startDatePicker.setDisable(running);
+        endDatePicker.setDisable(running);
+        categoryComboBox.setDisable(running);
+        cancelButton.setText(running ? "Cancel" : "Close");
+    }
+    
+    private static String formatProgress(long rows, double rowsPerSecond) {
+        return String.format("%,d expenses exported (%,.0f rows/s)", rows, rowsPerSecond);
+    }
+    
+    private void showError(String title, String message) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.showAndWait();
+    }
+}
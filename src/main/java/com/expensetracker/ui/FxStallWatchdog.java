@@ -0,0 +1,155 @@
+package com.expensetracker.ui;
+
+import com.expensetracker.util.DiagnosticsLog;
+import com.expensetracker.util.Metrics;
+import javafx.application.Platform;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Detects stalls of the JavaFX application thread and logs what it was doing to the
+ * {@link DiagnosticsLog}.
+ * <p>
+ * A daemon thread posts a heartbeat to the FX thread every {@code diagnostics.stallSampleMillis}
+ * (default 50) milliseconds. The time until the heartbeat runs is how long input and rendering
+ * would have waited too. Once it exceeds {@code diagnostics.stallMillis} (default 500, 0 turns the
+ * watchdog off) the FX thread's stack is logged right away, so a hang that never ends still leaves
+ * a trace, and sampled until the heartbeat runs. The stall is then logged with its duration and the
+ * distinct stacks seen, most frequent first.
+ */
+public class FxStallWatchdog {
+    private static final Logger LOGGER = DiagnosticsLog.getLogger();
+    private static final long STALL_MILLIS = Long.getLong("diagnostics.stallMillis", 500L);
+    private static final long SAMPLE_MILLIS = Math.max(10, Long.getLong("diagnostics.stallSampleMillis", 50L));
+    private static final int MAX_SAMPLES = 100;
+    private static final int MAX_FRAMES = 40;
+    private static final Metrics.Timer STALL_TIMER = Metrics.getInstance().timer(
+        "fx_stall_seconds", "Time the FX thread was blocked beyond diagnostics.stallMillis", null, null);
+    private static FxStallWatchdog instance;
+    
+    private Thread fxThread;
+    private Thread sampler;
+    // When the heartbeat in flight was posted, or 0 if none is
+    private long heartbeatPostedAt;
+    private final List<StackTraceElement[]> samples = new ArrayList<>();
+    private boolean stalled;
+    
+    private FxStallWatchdog() {
+    }
+    
+    public static synchronized FxStallWatchdog getInstance() {
+        if (instance == null) {
+            instance = new FxStallWatchdog();
+        }
+        return instance;
+    }
+    
+    /**
+     * Starts watching the FX thread. Must be called on the FX thread.
+     */
+    public synchronized void start() {
+        if (STALL_MILLIS <= 0 || sampler != null) {
+            return;
+        }
+        fxThread = Thread.currentThread();
+        sampler = new Thread(this::watch, "fx-stall-watchdog");
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+    
+    public synchronized void stop() {
+        if (sampler != null) {
+            sampler.interrupt();
+            sampler = null;
+        }
+    }
+    
+    private void watch() {
+        long stallNanos = STALL_MILLIS * 1_000_000;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                synchronized (this) {
+                    long now = System.nanoTime();
+                    if (heartbeatPostedAt == 0) {
+                        heartbeatPostedAt = now;
+                        Platform.runLater(this::heartbeat);
+                    } else if (now - heartbeatPostedAt >= stallNanos) {
+                        sample(now - heartbeatPostedAt);
+                    }
+                }
+                Thread.sleep(SAMPLE_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private synchronized void sample(long blockedNanos) {
+        StackTraceElement[] stack = fxThread.getStackTrace();
+        if (!stalled) {
+            stalled = true;
+            LOGGER.warning(String.format("FX thread blocked for %d ms%s%n%s", blockedNanos / 1_000_000,
+                                         location(stack), format(stack)));
+        }
+        if (samples.size() < MAX_SAMPLES) {
+            samples.add(stack);
+        }
+    }
+    
+    private synchronized void heartbeat() {
+        long blockedNanos = System.nanoTime() - heartbeatPostedAt;
+        heartbeatPostedAt = 0;
+        if (!stalled) {
+            return;
+        }
+        
+        if (Metrics.ENABLED) {
+            STALL_TIMER.record(blockedNanos);
+        }
+        // Group identical stacks so the code the thread spent most of the stall in comes first
+        Map<List<StackTraceElement>, Integer> counts = new LinkedHashMap<>();
+        for (StackTraceElement[] stack : samples) {
+            counts.merge(Arrays.asList(stack), 1, Integer::sum);
+        }
+        StringBuilder message = new StringBuilder(String.format("FX thread was blocked for %d ms (%d samples)",
+                                                                blockedNanos / 1_000_000, samples.size()));
+        counts.entrySet().stream()
+            .sorted(Map.Entry.<List<StackTraceElement>, Integer>comparingByValue().reversed())
+            .forEach(entry -> {
+                StackTraceElement[] stack = entry.getKey().toArray(new StackTraceElement[0]);
+                message.append(String.format("%n%d of %d samples%s%n", entry.getValue(), samples.size(), location(stack))).append(format(stack));
+            });
+        LOGGER.warning(message.toString());
+        
+        samples.clear();
+        stalled = false;
+    }
+    
+    /**
+     * Names the innermost application frame, which is usually the handler that blocked.
+     */
+    private static String location(StackTraceElement[] stack) {
+        for (StackTraceElement frame : stack) {
+            if (frame.getClassName().startsWith("com.expensetracker.")) {
+                return " in " + frame;
+            }
+        }
+        return "";
+    }
+    
+    private static String format(StackTraceElement[] stack) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < Math.min(stack.length, MAX_FRAMES); i++) {
+            out.append("\tat ").append(stack[i]).append(System.lineSeparator());
+        }
+        if (stack.length > MAX_FRAMES) {
+            out.append("\t... ").append(stack.length - MAX_FRAMES).append(" more").append(System.lineSeparator());
+        }
+        return out.toString();
+    }
+}
@@ -1,12 +1,20 @@
 package com.expensetracker.ui;
 
+import com.expensetracker.importer.StatementImporter;
 import com.expensetracker.model.Category;
 import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseRow;
 import com.expensetracker.service.*;
+import com.expensetracker.util.FlightEvents;
+import com.expensetracker.util.Lazy;
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -24,19 +32,39 @@ import javafx.scene.chart.XYChart;
 import javafx.stage.FileChooser;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
 import java.io.File;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.logging.Logger;
 
 /**
  * Controller for the main application view.
+ * <p>
+ * The expense table holds immutable {@link ExpenseRow}s; cell values are wrapped only for the
+ * cells on screen, and a row becomes an editable {@link Expense} only when it is opened for editing.
+ * The table reads the month, or all expenses when "All Time" is selected, through a
+ * {@link PagedExpenseList}, so only the rows near the viewport are held in memory.
+ * Typing in the search field replaces the month with full-text matches from all history, found
+ * in the background through {@link SearchService}; clearing it shows the month again.
+ * <p>
+ * Services are created on first use, on the background thread that first needs them, so opening
+ * the database and running its migrations never delays the first frame. Only the selected chart
+ * tab is built; the others are built when they are first shown.
  */
 public class MainViewController {
     private static final Logger LOGGER = Logger.getLogger(MainViewController.class.getName());
+    private static final long SEARCH_LATENCY_BUDGET_MILLIS = Long.getLong("ui.search.latencyBudgetMillis", 50L);
+    private static final long SEARCH_DELAY_MILLIS = Long.getLong("ui.search.delayMillis", 150L);
+    private static final int SEARCH_PAGE_SIZE = Integer.getInteger("ui.search.pageSize", 500);
+    private static final String MONTH_LOAD = "month-load";
+    private static final String SEARCH = "search";
     
     @FXML private ListView<Category> categoryListView;
     @FXML private VBox budgetSummaryContainer;
@@ -44,33 +72,54 @@ public class MainViewController {
     @FXML private VBox chartContainer;
     @FXML private PieChart pieChart;
     @FXML private BarChart<String, Number> barChart;
-    @FXML private TableView<Expense> expenseTableView;
-    @FXML private TableColumn<Expense, LocalDate> dateColumn;
-    @FXML private TableColumn<Expense, String> categoryColumn;
-    @FXML private TableColumn<Expense, Double> amountColumn;
-    @FXML private TableColumn<Expense, String> notesColumn;
-    @FXML private TableColumn<Expense, Void> actionsColumn;
+    @FXML private TableView<ExpenseRow> expenseTableView;
+    @FXML private TableColumn<ExpenseRow, LocalDate> dateColumn;
+    @FXML private TableColumn<ExpenseRow, String> categoryColumn;
+    @FXML private TableColumn<ExpenseRow, Double> amountColumn;
+    @FXML private TableColumn<ExpenseRow, String> notesColumn;
+    @FXML private TableColumn<ExpenseRow, Void> actionsColumn;
     @FXML private TextField searchField;
+    @FXML private Label searchStatusLabel;
+    @FXML private Button loadMoreButton;
+    @FXML private ToggleButton allTimeToggle;
     
     private Stage primaryStage;
-    private final ExpenseService expenseService;
-    private final CategoryService categoryService;
-    private final BudgetService budgetService;
-    private final ReportService reportService;
+    private final Lazy<ExpenseService> expenseService = new Lazy<>(ExpenseService::new);
+    private final Lazy<CategoryService> categoryService = new Lazy<>(CategoryService::new);
+    private final Lazy<BudgetService> budgetService = new Lazy<>(BudgetService::new);
+    private final Lazy<ReportService> reportService = new Lazy<>(ReportService::new);
+    private final Lazy<ImportService> importService = new Lazy<>(ImportService::new);
+    private final Lazy<SearchService> searchService = new Lazy<>(SearchService::new);
+    private final Lazy<StatementImporter> statementImporter = new Lazy<>(StatementImporter::new);
+    private final BackgroundTasks backgroundTasks;
     
     private LocalDate currentMonth;
     private ObservableList<Category> categories;
-    private ObservableList<Expense> expenses;
-    private FilteredList<Expense> filteredExpenses;
+    private final PagedExpenseList expenses;
+    private final ObservableList<ExpenseRow> searchResults = FXCollections.observableArrayList();
+    private PauseTransition searchDelay;
+    private Task<?> searchTask;
+    private String searchedText;
+    private int searchNextOffset;
+    private final Map<Integer, Category> categoriesById = new HashMap<>();
+    private TabPane chartTabPane;
+    private Tab pieChartTab;
+    private Tab barChartTab;
+    private Tab lineChartTab;
+    private ReportService.MonthlyReport chartReport;
     
     public MainViewController() {
-        this.expenseService = new ExpenseService();
-        this.categoryService = new CategoryService();
-        this.budgetService = new BudgetService();
-        this.reportService = new ReportService();
+        this.backgroundTasks = BackgroundTasks.getInstance();
         this.currentMonth = LocalDate.now().withDayOfMonth(1);
-        this.expenses = FXCollections.observableArrayList();
+        this.expenses = new PagedExpenseList(backgroundTasks);
         this.categories = FXCollections.observableArrayList();
+        
+        this.categories.addListener((ListChangeListener<Category>) change -> {
+            categoriesById.clear();
+            for (Category category : categories) {
+                categoriesById.put(category.getId(), category);
+            }
+        });
     }
     
     @FXML
@@ -88,7 +137,8 @@ public class MainViewController {
     
     private void setupTableColumns() {
         // Date column
-        dateColumn.setCellValueFactory(data -> data.getValue().dateProperty());
+        // Rows of the paged list are null until their page has loaded
+        dateColumn.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(data.getValue() == null ? null : data.getValue().date()));
         dateColumn.setCellFactory(column -> new TableCell<>() {
             @Override
             protected void updateItem(LocalDate date, boolean empty) {
@@ -103,16 +153,15 @@ public class MainViewController {
         
         // Category column
         categoryColumn.setCellValueFactory(data -> {
-            int categoryId = data.getValue().getCategoryId();
-            Category category = categories.stream()
-                    .filter(c -> c.getId() == categoryId)
-                    .findFirst()
-                    .orElse(null);
+            if (data.getValue() == null) {
+                return null;
+            }
+            Category category = categoriesById.get(data.getValue().categoryId());
             return category != null ? category.nameProperty() : null;
         });
         
         // Amount column
-        amountColumn.setCellValueFactory(data -> data.getValue().amountProperty().asObject());
+        amountColumn.setCellValueFactory(data -> new ReadOnlyObjectWrapper<>(data.getValue() == null ? null : data.getValue().amount()));
         amountColumn.setCellFactory(column -> new TableCell<>() {
             @Override
             protected void updateItem(Double amount, boolean empty) {
@@ -126,7 +175,13 @@ public class MainViewController {
         });
         
         // Notes column
-        notesColumn.setCellValueFactory(data -> data.getValue().notesProperty());
+        notesColumn.setCellValueFactory(data -> new ReadOnlyStringWrapper(data.getValue() == null ? null : data.getValue().notes()));
+        
+        // The paged list is read-only and already sorted newest first
+        dateColumn.setSortable(false);
+        categoryColumn.setSortable(false);
+        amountColumn.setSortable(false);
+        notesColumn.setSortable(false);
         
         // Actions column
         actionsColumn.setCellFactory(column -> new TableCell<>() {
@@ -138,20 +193,24 @@ public class MainViewController {
                 deleteButton.getStyleClass().addAll("action-button", "delete-button");
                 
                 editButton.setOnAction(event -> {
-                    Expense expense = getTableView().getItems().get(getIndex());
-                    handleEditExpense(expense);
+                    ExpenseRow expense = getTableRow().getItem();
+                    if (expense != null) {
+                        handleEditExpense(expense);
+                    }
                 });
                 
                 deleteButton.setOnAction(event -> {
-                    Expense expense = getTableView().getItems().get(getIndex());
-                    handleDeleteExpense(expense);
+                    ExpenseRow expense = getTableRow().getItem();
+                    if (expense != null) {
+                        handleDeleteExpense(expense);
+                    }
                 });
             }
             
             @Override
             protected void updateItem(Void item, boolean empty) {
                 super.updateItem(item, empty);
-                if (empty) {
+                if (empty || getTableRow() == null || getTableRow().getItem() == null) {
                     setGraphic(null);
                 } else {
                     setGraphic(new HBox(5, editButton, deleteButton));
@@ -161,39 +220,107 @@ public class MainViewController {
     }
     
     private void setupSearchFilter() {
-        filteredExpenses = new FilteredList<>(expenses, p -> true);
+        searchDelay = new PauseTransition(Duration.millis(SEARCH_DELAY_MILLIS));
+        searchDelay.setOnFinished(event -> runSearch());
         searchField.textProperty().addListener((observable, oldValue, newValue) -> {
-            filteredExpenses.setPredicate(expense -> {
-                if (newValue == null || newValue.isEmpty()) {
-                    return true;
-                }
-                
-                String lowerCaseFilter = newValue.toLowerCase();
-                
-                // Search in category name
-                Category category = categories.stream()
-                        .filter(c -> c.getId() == expense.getCategoryId())
-                        .findFirst()
-                        .orElse(null);
-                if (category != null && category.getName().toLowerCase().contains(lowerCaseFilter)) {
-                    return true;
-                }
-                
-                // Search in notes
-                if (expense.getNotes() != null && expense.getNotes().toLowerCase().contains(lowerCaseFilter)) {
-                    return true;
+            if (isSearching()) {
+                searchDelay.playFromStart();
+            } else {
+                searchDelay.stop();
+                if (searchTask != null) {
+                    searchTask.cancel(true);
+                    searchTask = null;
                 }
+                searchResults.clear();
+                showSearchStatus(false);
+                expenseTableView.setItems(expenses);
+                expenseTableView.setPlaceholder(new Label(noExpensesText()));
+            }
+        });
+        
+        expenseTableView.setItems(expenses);
+    }
+    
+    private boolean isSearching() {
+        String text = searchField.getText();
+        return text != null && !text.isBlank();
+    }
+    
+    /**
+     * Searches all expenses for the current search text, most recently added first, and shows
+     * the first page of matches. Runs again after edits so the results stay current. When more
+     * matches follow, "Load More" appends the next page.
+     */
+    private void runSearch() {
+        if (!isSearching()) {
+            return;
+        }
+        String text = searchField.getText();
+        long start = System.nanoTime();
+        
+        searchTask = backgroundTasks.runLatest(SEARCH,
+            () -> searchService.get().search(text, SearchService.Mode.PREFIX, SearchService.Order.RECENT, 0,
+                                             SEARCH_PAGE_SIZE),
+            page -> {
+                searchTask = null;
+                searchedText = text;
+                searchNextOffset = page.getNextOffset();
+                searchResults.setAll(page.getRows());
+                showSearchStatus(page.hasMore());
+                expenseTableView.setItems(searchResults);
+                expenseTableView.setPlaceholder(new Label("No expenses match \"" + text.trim() + "\""));
                 
-                // Search in amount
-                if (String.valueOf(expense.getAmount()).contains(newValue)) {
-                    return true;
+                long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+                if (elapsedMillis > SEARCH_LATENCY_BUDGET_MILLIS) {
+                    LOGGER.warning(String.format("Searching for \"%s\" took %d ms (budget %d ms)",
+                        text, elapsedMillis, SEARCH_LATENCY_BUDGET_MILLIS));
+                } else {
+                    LOGGER.fine(String.format("Found %d%s expenses in %d ms", page.getRows().size(),
+                        page.hasMore() ? "+" : "", elapsedMillis));
                 }
-                
-                return false;
+            },
+            error -> {
+                searchTask = null;
+                expenseTableView.setPlaceholder(new Label("Search failed"));
+            });
+    }
+    
+    @FXML
+    private void handleLoadMoreResults() {
+        if (!isSearching() || searchedText == null) {
+            return;
+        }
+        String text = searchedText;
+        int offset = searchNextOffset;
+        loadMoreButton.setDisable(true);
+        
+        // Same key as runSearch, so a new search supersedes the next page of the old one
+        searchTask = backgroundTasks.runLatest(SEARCH,
+            () -> searchService.get().search(text, SearchService.Mode.PREFIX, SearchService.Order.RECENT, offset,
+                                             SEARCH_PAGE_SIZE),
+            page -> {
+                searchTask = null;
+                searchNextOffset = page.getNextOffset();
+                searchResults.addAll(page.getRows());
+                showSearchStatus(page.hasMore());
+            },
+            error -> {
+                searchTask = null;
+                loadMoreButton.setDisable(false);
+                showError("Error", "Failed to load more search results");
             });
-        });
-        
-        expenseTableView.setItems(filteredExpenses);
+    }
+    
+    /**
+     * Shows how many matches are listed and, if more follow, the "Load More" button.
+     */
+    private void showSearchStatus(boolean hasMore) {
+        searchStatusLabel.setText(String.format("%,d%s matches", searchResults.size(), hasMore ? "+" : ""));
+        searchStatusLabel.setVisible(hasMore);
+        searchStatusLabel.setManaged(hasMore);
+        loadMoreButton.setDisable(false);
+        loadMoreButton.setVisible(hasMore);
+        loadMoreButton.setManaged(hasMore);
     }
     
     private void setupCategoryList() {
@@ -224,33 +351,31 @@ public class MainViewController {
     }
     
     private void loadData() {
-        // Load categories
-        categories.clear();
-        categories.addAll(categoryService.getAllCategories());
         categoryListView.setItems(categories);
-        
-        // Create sample data if no expenses exist
-        createSampleDataIfNeeded();
-        
-        // Load expenses for current month
-        loadExpensesForCurrentMonth();
-        
-        // Load budget summary
-        updateBudgetSummary();
-    }
-    
-    private void createSampleDataIfNeeded() {
-        int month = currentMonth.getMonthValue();
-        int year = currentMonth.getYear();
-        
-        List<Expense> existingExpenses = expenseService.getExpensesByMonth(month, year);
-        if (existingExpenses.isEmpty() && !categories.isEmpty()) {
+        showMonthLoading();
+        
+        // Load categories and seed sample data off the FX thread, then load the month
+        LocalDate month = currentMonth;
+        backgroundTasks.run(() -> {
+            List<Category> loadedCategories = categoryService.get().getAllCategories();
+            createSampleDataIfNeeded(loadedCategories, month);
+            return loadedCategories;
+        }, loadedCategories -> {
+            categories.setAll(loadedCategories);
+            refreshMonth();
+        }, error -> showError("Error", "Failed to load data"));
+    }
+    
+    private void createSampleDataIfNeeded(List<Category> loadedCategories, LocalDate month) {
+        // Counted from the monthly totals rollup, so startup does not read the month's rows twice
+        long existingExpenses = expenseService.get().countExpensesByMonth(month.getMonthValue(), month.getYear());
+        if (existingExpenses == 0 && !loadedCategories.isEmpty()) {
             // Create sample expenses for demonstration
-            createSampleExpenses();
+            createSampleExpenses(loadedCategories);
         }
     }
     
-    private void createSampleExpenses() {
+    private void createSampleExpenses(List<Category> loadedCategories) {
         LocalDate today = LocalDate.now();
         int currentMonth = today.getMonthValue();
         int currentYear = today.getYear();
@@ -275,35 +400,121 @@ public class MainViewController {
             LocalDate date = (LocalDate) data[2];
             
             // Find category by name
-            Category category = categories.stream()
-                    .filter(c -> c.getName().equals(categoryName))
-                    .findFirst()
-                    .orElse(categories.get(0));
+            Category category = categoryService.get().getCategoryByName(categoryName)
+                    .orElse(loadedCategories.get(0));
             
             Expense expense = new Expense(amount, category.getId(), date, "Sample expense");
-            expenseService.saveExpense(expense);
+            expenseService.get().saveExpense(expense);
         }
     }
     
-    private void loadExpensesForCurrentMonth() {
+    /**
+     * Reloads the expenses, charts and budget summary of the current month in the background.
+     * A load still running for a month the user has already left is cancelled.
+     */
+    private void refreshMonth() {
         int month = currentMonth.getMonthValue();
         int year = currentMonth.getYear();
+        showMonthLoading();
+        reloadExpenses();
+        
+        FlightEvents.ViewRefresh event = FlightEvents.ViewRefresh.start("MainView.refreshMonth", month, year);
+        backgroundTasks.runLatest(MONTH_LOAD, () -> new MonthData(
+            reportService.get().generateMonthlyReport(month, year),
+            budgetService.get().getBudgetStatuses(month, year)
+        ), data -> {
+            applyMonthData(data);
+            event.finish(data.report.getExpenseCount());
+            StartupTimer.getInstance().ready(StartupTimer.MONTH_SUMMARY);
+        }, error -> {
+            expenseTableView.setPlaceholder(new Label("Failed to load expenses"));
+            chartContainer.getChildren().clear();
+            showError("Error", "Failed to load expenses for " +
+                      currentMonth.format(DateTimeFormatter.ofPattern("MMMM yyyy")));
+        });
+    }
+    
+    /**
+     * Points the table at the current month, or at all expenses in the all-time view, and loads
+     * its first page.
+     */
+    private void reloadExpenses() {
+        boolean allTime = allTimeToggle.isSelected();
+        FlightEvents.ViewRefresh event = FlightEvents.ViewRefresh.start("MainView.reloadExpenses",
+            allTime ? 0 : currentMonth.getMonthValue(), allTime ? 0 : currentMonth.getYear());
+        PagedExpenseList.PageSource source;
+        if (allTime) {
+            source = new PagedExpenseList.PageSource() {
+                @Override
+                public long count() {
+                    return expenseService.get().countAllExpenses();
+                }
+                
+                @Override
+                public List<ExpenseRow> load(ExpenseRow after, int offset, int limit) {
+                    return expenseService.get().getExpenseRowsPage(LocalDate.MIN, LocalDate.MAX, after, offset, limit);
+                }
+            };
+        } else {
+            int month = currentMonth.getMonthValue();
+            int year = currentMonth.getYear();
+            LocalDate monthStart = currentMonth.withDayOfMonth(1);
+            LocalDate monthEnd = monthStart.plusMonths(1).minusDays(1);
+            source = new PagedExpenseList.PageSource() {
+                @Override
+                public long count() {
+                    return expenseService.get().countExpensesByMonth(month, year);
+                }
+                
+                @Override
+                public List<ExpenseRow> load(ExpenseRow after, int offset, int limit) {
+                    return expenseService.get().getExpenseRowsPage(monthStart, monthEnd, after, offset, limit);
+                }
+            };
+        }
         
-        List<Expense> monthExpenses = expenseService.getExpensesByMonth(month, year);
-        expenses.clear();
-        expenses.addAll(monthExpenses);
-        
-        updatePieChart();
+        expenses.reset(source, () -> {
+            if (!isSearching()) {
+                expenseTableView.setPlaceholder(new Label(noExpensesText()));
+            }
+            event.finish(expenses.size());
+            StartupTimer.getInstance().ready(StartupTimer.EXPENSE_TABLE);
+        });
+    }
+    
+    private String noExpensesText() {
+        return allTimeToggle.isSelected() ? "No expenses yet" : "No expenses for this month";
+    }
+    
+    private void showMonthLoading() {
+        expenseTableView.setPlaceholder(new Label("Loading expenses..."));
+        ProgressIndicator progress = new ProgressIndicator();
+        progress.setMaxSize(48, 48);
+        chartContainer.getChildren().setAll(progress);
+    }
+    
+    /**
+     * Applies a finished month load to the view in one pass on the FX thread.
+     */
+    private void applyMonthData(MonthData data) {
+        FlightEvents.ViewRefresh event = FlightEvents.ViewRefresh.start("MainView.applyMonthData",
+            data.report.getMonth(), data.report.getYear());
+        if (isSearching()) {
+            runSearch();
+        }
+        updatePieChart(data.report);
+        updateBudgetSummary(data.budgetStatuses);
+        event.finish(data.report.getPieChartData().size());
     }
     
-    private void updatePieChart() {
+    /**
+     * Shows the charts for {@code report}. Only the selected tab is built now; the others are
+     * built when they are first selected.
+     */
+    private void updatePieChart(ReportService.MonthlyReport report) {
+        chartReport = report;
         chartContainer.getChildren().clear();
         
-        int month = currentMonth.getMonthValue();
-        int year = currentMonth.getYear();
-        
-        ReportService.MonthlyReport report = reportService.generateMonthlyReport(month, year);
-        
         if (report.getPieChartData().isEmpty()) {
             Label noDataLabel = new Label("No expenses for this month");
             noDataLabel.getStyleClass().add("no-data-label");
@@ -311,24 +522,47 @@ public class MainViewController {
             return;
         }
         
+        if (chartTabPane == null) {
+            createChartTabPane();
+        }
+        for (Tab tab : chartTabPane.getTabs()) {
+            tab.setContent(null);
+        }
+        buildChart(chartTabPane.getSelectionModel().getSelectedItem());
+        chartContainer.getChildren().add(chartTabPane);
+    }
+    
+    private void createChartTabPane() {
         // Create a tab pane for different chart types
-        TabPane chartTabPane = new TabPane();
+        chartTabPane = new TabPane();
         chartTabPane.getStyleClass().add("chart-tab-pane");
         
-        // Pie Chart Tab
-        Tab pieChartTab = new Tab("Pie Chart", createPieChart(report));
+        pieChartTab = new Tab("Pie Chart");
         pieChartTab.setClosable(false);
-        
-        // Bar Chart Tab
-        Tab barChartTab = new Tab("Bar Chart", createBarChart(report));
+        barChartTab = new Tab("Bar Chart");
         barChartTab.setClosable(false);
-        
-        // Line Chart Tab (Spending Trends)
-        Tab lineChartTab = new Tab("Trends", createLineChart());
+        // Spending trends
+        lineChartTab = new Tab("Trends");
         lineChartTab.setClosable(false);
         
         chartTabPane.getTabs().addAll(pieChartTab, barChartTab, lineChartTab);
-        chartContainer.getChildren().add(chartTabPane);
+        chartTabPane.getSelectionModel().selectedItemProperty().addListener((obs, oldTab, newTab) -> buildChart(newTab));
+    }
+    
+    /**
+     * Builds the chart of {@code tab} for the current report unless it is already built.
+     */
+    private void buildChart(Tab tab) {
+        if (tab == null || tab.getContent() != null || chartReport == null) {
+            return;
+        }
+        if (tab == pieChartTab) {
+            tab.setContent(createPieChart(chartReport));
+        } else if (tab == barChartTab) {
+            tab.setContent(createBarChart(chartReport));
+        } else if (tab == lineChartTab) {
+            tab.setContent(createLineChart(chartReport));
+        }
     }
     
     private PieChart createPieChart(ReportService.MonthlyReport report) {
@@ -385,7 +619,7 @@ public class MainViewController {
         return barChart;
     }
     
-    private LineChart<String, Number> createLineChart() {
+    private LineChart<String, Number> createLineChart(ReportService.MonthlyReport report) {
         CategoryAxis xAxis = new CategoryAxis();
         xAxis.setLabel("Days");
         
@@ -403,7 +637,7 @@ public class MainViewController {
         LocalDate today = LocalDate.now();
         for (int i = 6; i >= 0; i--) {
             LocalDate date = today.minusDays(i);
-            double dailyTotal = calculateDailyTotal(date);
+            double dailyTotal = report.getDailyTotals().getOrDefault(date, 0.0);
             String dayLabel = date.format(DateTimeFormatter.ofPattern("MMM dd"));
             series.getData().add(new XYChart.Data<>(dayLabel, dailyTotal));
         }
@@ -412,21 +646,12 @@ public class MainViewController {
         return lineChart;
     }
     
-    private double calculateDailyTotal(LocalDate date) {
-        return expenses.stream()
-                .filter(expense -> expense.getDate().equals(date))
-                .mapToDouble(Expense::getAmount)
-                .sum();
-    }
-    
-    private void updateBudgetSummary() {
+    private void updateBudgetSummary(Map<Integer, BudgetService.BudgetStatus> statuses) {
         budgetSummaryContainer.getChildren().clear();
         
-        int month = currentMonth.getMonthValue();
-        int year = currentMonth.getYear();
-        
         for (Category category : categories) {
-            BudgetService.BudgetStatus status = budgetService.getBudgetStatus(category.getId(), month, year);
+            BudgetService.BudgetStatus status = statuses.getOrDefault(category.getId(),
+                                                                      BudgetService.BudgetStatus.noBudget());
             
             if (status.hasBudget()) {
                 VBox budgetItem = new VBox(5);
@@ -465,16 +690,19 @@ public class MainViewController {
     private void handlePreviousMonth() {
         currentMonth = currentMonth.minusMonths(1);
         updateMonthYearLabel();
-        loadExpensesForCurrentMonth();
-        updateBudgetSummary();
+        refreshMonth();
     }
     
     @FXML
     private void handleNextMonth() {
         currentMonth = currentMonth.plusMonths(1);
         updateMonthYearLabel();
-        loadExpensesForCurrentMonth();
-        updateBudgetSummary();
+        refreshMonth();
+    }
+    
+    @FXML
+    private void handleToggleAllTime() {
+        reloadExpenses();
     }
     
     @FXML
@@ -482,11 +710,11 @@ public class MainViewController {
         showExpenseDialog(null);
     }
     
-    private void handleEditExpense(Expense expense) {
-        showExpenseDialog(expense);
+    private void handleEditExpense(ExpenseRow expense) {
+        showExpenseDialog(expense.toExpense());
     }
     
-    private void handleDeleteExpense(Expense expense) {
+    private void handleDeleteExpense(ExpenseRow expense) {
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
         alert.setTitle("Delete Expense");
         alert.setHeaderText("Are you sure you want to delete this expense?");
@@ -494,12 +722,13 @@ public class MainViewController {
         
         Optional<ButtonType> result = alert.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            if (expenseService.deleteExpense(expense.getId())) {
-                loadExpensesForCurrentMonth();
-                updateBudgetSummary();
-            } else {
-                showError("Error", "Failed to delete expense");
-            }
+            backgroundTasks.run(() -> expenseService.get().deleteExpense(expense.id()), deleted -> {
+                if (deleted) {
+                    refreshMonth();
+                } else {
+                    showError("Error", "Failed to delete expense");
+                }
+            }, error -> showError("Error", "Failed to delete expense"));
         }
     }
     
@@ -522,8 +751,7 @@ public class MainViewController {
             dialog.showAndWait();
             
             // Refresh data after dialog closes
-            loadExpensesForCurrentMonth();
-            updateBudgetSummary();
+            refreshMonth();
             
         } catch (Exception e) {
             LOGGER.severe("Error showing expense dialog: " + e.getMessage());
@@ -548,11 +776,142 @@ public class MainViewController {
             int month = currentMonth.getMonthValue();
             int year = currentMonth.getYear();
             
-            if (reportService.exportToCSV(file.getAbsolutePath(), month, year)) {
-                showInfo("Success", "CSV exported successfully to: " + file.getAbsolutePath());
-            } else {
-                showError("Error", "Failed to export CSV");
-            }
+            String path = file.getAbsolutePath();
+            
+            backgroundTasks.runLong(() -> reportService.get().exportToCSV(path, month, year), exported -> {
+                if (exported) {
+                    showInfo("Success", "CSV exported successfully to: " + path);
+                } else {
+                    showError("Error", "Failed to export CSV");
+                }
+            }, error -> showError("Error", "Failed to export CSV"));
+        }
+    }
+    
+    @FXML
+    private void handleImportCSV() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Import CSV");
+        fileChooser.getExtensionFilters().add(
+            new FileChooser.ExtensionFilter("CSV Files", "*.csv")
+        );
+        
+        File file = fileChooser.showOpenDialog(primaryStage);
+        if (file != null) {
+            monthYearLabel.setText("Importing " + file.getName() + "...");
+            backgroundTasks.runLong(() -> importService.get().importCsv(file.toPath(), null), result -> {
+                updateMonthYearLabel();
+                refreshMonth();
+                
+                StringBuilder summary = new StringBuilder(String.format(
+                    "Imported %,d of %,d rows in %.1f s.%nSkipped (not expenses): %,d%nErrors: %,d",
+                    result.getImported(), result.getRowsRead(), result.getElapsedMillis() / 1000.0,
+                    result.getSkipped(), result.getErrorCount()));
+                result.getErrors().stream().limit(10).forEach(error -> summary.append('\n').append(error));
+                if (result.getStatus() == ImportService.ImportResult.Status.FAILED) {
+                    if (result.getImported() > 0) {
+                        summary.append(String.format("%n%nThe %,d rows imported before the failure were kept.",
+                                                     result.getImported()));
+                    }
+                    showError("Import Failed", summary.toString());
+                } else {
+                    showInfo("Import Finished", summary.toString());
+                }
+            }, error -> {
+                updateMonthYearLabel();
+                showError("Error", "Failed to import CSV");
+            });
+        }
+    }
+    
+    @FXML
+    private void handleImportStatements() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Import Bank Statements");
+        fileChooser.getExtensionFilters().add(
+            new FileChooser.ExtensionFilter("Bank Statements", "*.ofx", "*.qfx", "*.qif")
+        );
+        
+        List<File> files = fileChooser.showOpenMultipleDialog(primaryStage);
+        if (files != null && !files.isEmpty()) {
+            List<Path> paths = files.stream().map(File::toPath).toList();
+            monthYearLabel.setText("Importing " + files.size() + " statement(s)...");
+            backgroundTasks.runLong(() -> statementImporter.get().importFiles(paths, null), results -> {
+                updateMonthYearLabel();
+                refreshMonth();
+                
+                StringBuilder summary = new StringBuilder();
+                boolean anyFailed = false;
+                for (StatementImporter.FileResult result : results) {
+                    if (summary.length() > 0) {
+                        summary.append("\n\n");
+                    }
+                    summary.append(result.getFile().getFileName()).append(": ");
+                    if (result.isFailed()) {
+                        anyFailed = true;
+                        summary.append("not imported");
+                    } else {
+                        summary.append(String.format("imported %,d, already present %,d, credits skipped %,d",
+                            result.getImported(), result.getDuplicates(), result.getSkipped()));
+                    }
+                    result.getErrors().stream().limit(5).forEach(error -> summary.append('\n').append(error));
+                }
+                if (anyFailed) {
+                    showError("Import Finished With Errors", summary.toString());
+                } else {
+                    showInfo("Import Finished", summary.toString());
+                }
+            }, error -> {
+                updateMonthYearLabel();
+                showError("Error", "Failed to import statements");
+            });
+        }
+    }
+    
+    @FXML
+    private void handleExportExpenses() {
+        try {
+            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/ExportDialog.fxml"));
+            Scene scene = new Scene(loader.load());
+            
+            Stage dialog = new Stage();
+            dialog.setTitle("Export Expenses");
+            dialog.setScene(scene);
+            dialog.initModality(Modality.APPLICATION_MODAL);
+            dialog.initOwner(primaryStage);
+            
+            ExportDialogController controller = loader.getController();
+            controller.setCategories(categories);
+            controller.setCurrentMonth(currentMonth);
+            controller.setDialogStage(dialog);
+            
+            dialog.showAndWait();
+            
+        } catch (Exception e) {
+            LOGGER.severe("Error showing export dialog: " + e.getMessage());
+            showError("Error", "Failed to open export dialog");
+        }
+    }
+    
+    @FXML
+    private void handleShowDiagnostics() {
+        try {
+            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/DiagnosticsDialog.fxml"));
+            Scene scene = new Scene(loader.load());
+            
+            Stage dialog = new Stage();
+            dialog.setTitle("Diagnostics");
+            dialog.setScene(scene);
+            dialog.initOwner(primaryStage);
+            
+            DiagnosticsDialogController controller = loader.getController();
+            controller.setDialogStage(dialog);
+            
+            dialog.show();
+            
+        } catch (Exception e) {
+            LOGGER.severe("Error showing diagnostics dialog: " + e.getMessage());
+            showError("Error", "Failed to open diagnostics");
         }
     }
     
@@ -617,4 +976,17 @@ public class MainViewController {
         alert.setContentText(message);
         alert.showAndWait();
     }
+    
+    /**
+     * The charts and budget summary of one month, loaded together in the background.
+     */
+    private static class MonthData {
+        private final ReportService.MonthlyReport report;
+        private final Map<Integer, BudgetService.BudgetStatus> budgetStatuses;
+        
+        MonthData(ReportService.MonthlyReport report, Map<Integer, BudgetService.BudgetStatus> budgetStatuses) {
+            this.report = report;
+            this.budgetStatuses = budgetStatuses;
+        }
+    }
 }
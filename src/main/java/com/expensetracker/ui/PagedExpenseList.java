@@ -0,0 +1,236 @@
+package com.expensetracker.ui;
+
+import com.expensetracker.model.ExpenseRow;
+import javafx.collections.ObservableListBase;
+import javafx.concurrent.Task;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Read-only list of expenses for a {@code TableView} that loads rows in pages as they are shown.
+ * <p>
+ * The list reports the full row count, but only holds the pages the table has asked for lately:
+ * at most {@code ui.table.maxPages} pages of {@code ui.table.pageSize} rows (10 x 200 by default),
+ * so memory use does not depend on the number of expenses. {@link #get} returns {@code null} for a
+ * row that is not loaded yet and requests its page, together with the pages before and after it,
+ * in the background; when a page arrives the table is notified and redraws those rows. Pages
+ * furthest from the one last shown are evicted first, and loads of pages the table has scrolled
+ * away from are cancelled, so a fast scroll does not queue work behind the rows on screen.
+ * <p>
+ * Pages are read with keyset pagination: the last row of each loaded page is remembered and the
+ * next page starts right after it. A page far from any remembered row, e.g. after dragging the
+ * scroll bar, starts from the nearest one before it and skips the rows in between. Remembered rows
+ * are dropped with their pages. All methods must be called on the FX thread.
+ */
+public class PagedExpenseList extends ObservableListBase<ExpenseRow> {
+    private static final Logger LOGGER = Logger.getLogger(PagedExpenseList.class.getName());
+    private static final int PAGE_SIZE = Integer.getInteger("ui.table.pageSize", 200);
+    private static final int MAX_PAGES = Math.max(3, Integer.getInteger("ui.table.maxPages", 10));
+    // Further than the prefetched neighbours, so rows of two pages on screen at once keep both loading
+    private static final int MAX_LOAD_DISTANCE = 2;
+    
+    private final BackgroundTasks backgroundTasks;
+    private final Map<Integer, List<ExpenseRow>> pages = new HashMap<>();
+    private final Map<Integer, Task<List<ExpenseRow>>> loading = new HashMap<>();
+    // Last row of the page before each key, i.e. where that page starts; page 0 starts at the top
+    private final TreeMap<Integer, ExpenseRow> pageStarts = new TreeMap<>();
+    private PageSource source;
+    private int size;
+    private int generation;
+    private boolean resetting;
+    private int lastShownPage;
+    
+    public PagedExpenseList(BackgroundTasks backgroundTasks) {
+        this.backgroundTasks = backgroundTasks;
+    }
+    
+    /**
+     * Switches to {@code newSource}, or reloads the current source after a change. The count and
+     * first page are loaded in the background; until they arrive the previous rows stay visible.
+     *
+     * @param onLoaded called once the new rows are shown; may be {@code null}
+     */
+    public void reset(PageSource newSource, Runnable onLoaded) {
+        int resetGeneration = ++generation;
+        resetting = true;
+        loading.values().forEach(task -> task.cancel(false));
+        loading.clear();
+        
+        backgroundTasks.run(() -> new FirstPage(newSource.count(), newSource.load(null, 0, PAGE_SIZE)), first -> {
+            if (resetGeneration != generation) {
+                return;
+            }
+            resetting = false;
+            source = newSource;
+            pages.clear();
+            pageStarts.clear();
+            lastShownPage = 0;
+            storePage(0, first.rows);
+            
+            int oldSize = size;
+            size = (int) Math.min(Integer.MAX_VALUE, Math.max(first.count, first.rows.size()));
+            beginChange();
+            nextReplace(0, size, Collections.nCopies(oldSize, null));
+            endChange();
+            if (onLoaded != null) {
+                onLoaded.run();
+            }
+        }, error -> {
+            if (resetGeneration == generation) {
+                resetting = false;
+                LOGGER.log(Level.WARNING, "Could not load expenses", error);
+            }
+        });
+    }
+    
+    @Override
+    public ExpenseRow get(int index) {
+        Objects.checkIndex(index, size);
+        int page = index / PAGE_SIZE;
+        if (page != lastShownPage) {
+            lastShownPage = page;
+            cancelLoads(MAX_LOAD_DISTANCE);
+        }
+        
+        // Prefetch the neighbours so scrolling in either direction finds them loaded
+        requestPage(page);
+        requestPage(page + 1);
+        requestPage(page - 1);
+        
+        List<ExpenseRow> rows = pages.get(page);
+        int offset = index % PAGE_SIZE;
+        return rows != null && offset < rows.size() ? rows.get(offset) : null;
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Searches only the loaded pages; scanning the whole list would load every page.
+     */
+    @Override
+    public int indexOf(Object o) {
+        for (Map.Entry<Integer, List<ExpenseRow>> page : pages.entrySet()) {
+            int offset = page.getValue().indexOf(o);
+            if (offset >= 0) {
+                return page.getKey() * PAGE_SIZE + offset;
+            }
+        }
+        return -1;
+    }
+    
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+    
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+    
+    private void requestPage(int page) {
+        if (resetting || source == null || page < 0 || (long) page * PAGE_SIZE >= size ||
+            pages.containsKey(page) || loading.containsKey(page)) {
+            return;
+        }
+        
+        Map.Entry<Integer, ExpenseRow> start = pageStarts.floorEntry(page);
+        int startPage = start != null ? start.getKey() : 0;
+        ExpenseRow after = start != null ? start.getValue() : null;
+        int skip = (page - startPage) * PAGE_SIZE;
+        PageSource pageSource = source;
+        int requestGeneration = generation;
+        
+        Task<List<ExpenseRow>> task = backgroundTasks.run(() -> pageSource.load(after, skip, PAGE_SIZE), rows -> {
+            if (requestGeneration != generation) {
+                return;
+            }
+            loading.remove(page);
+            storePage(page, rows);
+            evictDistantPages();
+            
+            int from = page * PAGE_SIZE;
+            int to = Math.min(size, from + rows.size());
+            if (from < to) {
+                beginChange();
+                nextReplace(from, to, Collections.nCopies(to - from, null));
+                endChange();
+            }
+        }, error -> {
+            if (requestGeneration == generation) {
+                loading.remove(page);
+                LOGGER.log(Level.WARNING, "Could not load expense page " + page, error);
+            }
+        });
+        loading.put(page, task);
+    }
+    
+    /**
+     * Cancels the loads of pages more than {@code maxDistance} pages from the one last shown.
+     * A cancelled load that is still queued never runs.
+     */
+    private void cancelLoads(int maxDistance) {
+        Iterator<Map.Entry<Integer, Task<List<ExpenseRow>>>> it = loading.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Integer, Task<List<ExpenseRow>>> entry = it.next();
+            if (Math.abs(entry.getKey() - lastShownPage) > maxDistance) {
+                entry.getValue().cancel(false);
+                it.remove();
+            }
+        }
+    }
+    
+    private void storePage(int page, List<ExpenseRow> rows) {
+        pages.put(page, rows);
+        if (rows.size() == PAGE_SIZE) {
+            pageStarts.put(page + 1, rows.get(rows.size() - 1));
+        }
+    }
+    
+    private void evictDistantPages() {
+        while (pages.size() > MAX_PAGES) {
+            int furthest = lastShownPage;
+            for (int page : pages.keySet()) {
+                if (Math.abs(page - lastShownPage) > Math.abs(furthest - lastShownPage)) {
+                    furthest = page;
+                }
+            }
+            pages.remove(furthest);
+            pageStarts.remove(furthest + 1);
+        }
+    }
+    
+    /**
+     * Supplies the rows of one view, newest first.
+     */
+    public interface PageSource {
+        long count();
+        
+        /**
+         * Loads up to {@code limit} rows following {@code after} (from the top if {@code null}),
+         * skipping the first {@code offset} of them. Called on a background thread.
+         */
+        List<ExpenseRow> load(ExpenseRow after, int offset, int limit);
+    }
+    
+    private static class FirstPage {
+        private final long count;
+        private final List<ExpenseRow> rows;
+        
+        FirstPage(long count, List<ExpenseRow> rows) {
+            this.count = count;
+            this.rows = rows;
+        }
+    }
+}
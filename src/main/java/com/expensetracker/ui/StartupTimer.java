@@ -0,0 +1,77 @@
+package com.expensetracker.ui;
+
+import com.expensetracker.util.Metrics;
+import javafx.scene.Scene;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Measures cold startup from the moment the JVM started: the time to first frame, when the main
+ * window has been laid out and is handed to the renderer for the first time, and the time to
+ * interactive, when every part of the main view registered with {@link #ready(String)} shows the
+ * current month's data.
+ * <p>
+ * Both are logged once and published as the gauges {@code startup_first_frame_seconds} and
+ * {@code startup_interactive_seconds}, which read 0 until reached. Must be used on the FX thread.
+ */
+public class StartupTimer {
+    private static final Logger LOGGER = Logger.getLogger(StartupTimer.class.getName());
+    public static final String EXPENSE_TABLE = "expense table";
+    public static final String MONTH_SUMMARY = "month summary";
+    private static StartupTimer instance;
+    
+    private final Set<String> pending = new HashSet<>(List.of(EXPENSE_TABLE, MONTH_SUMMARY));
+    private volatile long firstFrameMillis = -1;
+    private volatile long interactiveMillis = -1;
+    
+    private StartupTimer() {
+        Metrics registry = Metrics.getInstance();
+        registry.gauge("startup_first_frame_seconds", "Time from JVM start to the first frame of the main window",
+            null, null, () -> Math.max(0, firstFrameMillis) / 1000.0);
+        registry.gauge("startup_interactive_seconds", "Time from JVM start until the current month is shown",
+            null, null, () -> Math.max(0, interactiveMillis) / 1000.0);
+    }
+    
+    public static synchronized StartupTimer getInstance() {
+        if (instance == null) {
+            instance = new StartupTimer();
+        }
+        return instance;
+    }
+    
+    /**
+     * Records the first frame of {@code scene}. Call right before its stage is shown.
+     */
+    public void watchFirstFrame(Scene scene) {
+        Runnable[] listener = new Runnable[1];
+        listener[0] = () -> {
+            scene.removePostLayoutPulseListener(listener[0]);
+            if (firstFrameMillis < 0) {
+                firstFrameMillis = uptimeMillis();
+                LOGGER.info("First frame " + firstFrameMillis + " ms after JVM start");
+            }
+        };
+        scene.addPostLayoutPulseListener(listener[0]);
+    }
+    
+    /**
+     * Marks one part of the main view as showing its data. The application counts as interactive
+     * once all parts are; later calls do nothing.
+     */
+    public void ready(String part) {
+        if (interactiveMillis >= 0 || !pending.remove(part) || !pending.isEmpty()) {
+            return;
+        }
+        interactiveMillis = uptimeMillis();
+        LOGGER.info("Interactive " + interactiveMillis + " ms after JVM start (first frame after " +
+                    firstFrameMillis + " ms)");
+    }
+    
+    private static long uptimeMillis() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+}
@@ -0,0 +1,40 @@
+package com.expensetracker.util;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A migration that rewrites existing data in small, separately committed chunks.
+ * <p>
+ * {@link #apply} prepares the new schema, {@link #applyChunk} is then called repeatedly with the
+ * key of the last processed row, and {@link #finish} swaps the new schema in. Each call runs in its
+ * own transaction, so readers are never locked out for the whole rewrite, and the progress recorded
+ * after every chunk lets an interrupted upgrade resume where it stopped on the next start.
+ */
+public interface ChunkedMigration extends Migration {
+    
+    /**
+     * Returned by {@link #applyChunk} once no rows are left.
+     */
+    long DONE = -1;
+    
+    /**
+     * Key to pass to the first {@link #applyChunk} call; rows are processed in ascending key order
+     * starting strictly after it.
+     */
+    default long initialKey() {
+        return 0;
+    }
+    
+    /**
+     * Processes up to {@code chunkSize} rows with keys greater than {@code afterKey}.
+     *
+     * @return the key of the last row processed, or {@link #DONE} if there was nothing left
+     */
+    long applyChunk(Connection conn, long afterKey, int chunkSize) throws SQLException;
+    
+    /**
+     * Completes the migration after the last chunk, in the same transaction that records the new version.
+     */
+    void finish(Connection conn) throws SQLException;
+}
@@ -0,0 +1,329 @@
+package com.expensetracker.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded pool of long-lived SQLite connections with one writer and a fixed number of readers.
+ * <p>
+ * Borrowed connections are handed out as handles whose {@code close()} returns the underlying
+ * connection to the pool instead of closing it, so callers keep using try-with-resources.
+ * The pool is safe to use from any thread.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+    private static final Metrics.Timer READER_WAIT_TIMER = Metrics.getInstance().timer(
+        "db_connection_wait_seconds", "Time spent waiting to borrow a pooled connection", "role", "reader");
+    private static final Metrics.Timer WRITER_WAIT_TIMER = Metrics.getInstance().timer(
+        "db_connection_wait_seconds", "Time spent waiting to borrow a pooled connection", "role", "writer");
+    
+    private final String url;
+    private final List<String> initStatements;
+    private final int maxReaders;
+    private final long borrowTimeoutMillis;
+    private final SlowQueryLog slowQueryLog = SlowQueryLog.getInstance();
+    
+    private final Semaphore writerPermit = new Semaphore(1, true);
+    private final Semaphore readerPermits;
+    private final ConcurrentLinkedQueue<Connection> idleReaders = new ConcurrentLinkedQueue<>();
+    private volatile Connection writer;
+    private volatile boolean closed;
+    
+    private final AtomicInteger openCount = new AtomicInteger();
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    
+    /**
+     * @param initStatements statements (typically pragmas) run on every connection right after it is opened
+     */
+    public ConnectionPool(String url, List<String> initStatements, int maxReaders, long borrowTimeoutMillis) {
+        if (maxReaders < 1) {
+            throw new IllegalArgumentException("Pool needs at least one reader: " + maxReaders);
+        }
+        this.url = url;
+        this.initStatements = List.copyOf(initStatements);
+        this.maxReaders = maxReaders;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.readerPermits = new Semaphore(maxReaders, true);
+    }
+    
+    /**
+     * Borrows the single writer connection, waiting until no other thread holds it.
+     */
+    public Connection borrowWriter() throws SQLException {
+        long waited = acquire(writerPermit);
+        try {
+            Connection physical = writer;
+            if (physical == null || physical.isClosed()) {
+                physical = open(false);
+                writer = physical;
+            }
+            return handOut(physical, true, waited);
+        } catch (SQLException | RuntimeException e) {
+            writerPermit.release();
+            throw e;
+        }
+    }
+    
+    /**
+     * Borrows one of the reader connections, opening a new one while fewer than
+     * {@code maxReaders} exist.
+     */
+    public Connection borrowReader() throws SQLException {
+        long waited = acquire(readerPermits);
+        try {
+            Connection physical = idleReaders.poll();
+            if (physical == null) {
+                physical = open(true);
+            }
+            return handOut(physical, false, waited);
+        } catch (SQLException | RuntimeException e) {
+            readerPermits.release();
+            throw e;
+        }
+    }
+    
+    public PoolStats getStats() {
+        long borrows = borrowCount.sum();
+        return new PoolStats(openCount.get(), activeCount.get(), idleReaders.size(), maxReaders,
+                             borrows, totalWaitNanos.sum(), maxWaitNanos.get());
+    }
+    
+    @Override
+    public void close() {
+        closed = true;
+        Connection reader;
+        while ((reader = idleReaders.poll()) != null) {
+            closeQuietly(reader);
+        }
+        if (writer != null) {
+            closeQuietly(writer);
+            writer = null;
+        }
+    }
+    
+    private long acquire(Semaphore permits) throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + borrowTimeoutMillis + " ms waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        return System.nanoTime() - start;
+    }
+    
+    private Connection open(boolean reader) throws SQLException {
+        Connection physical = DriverManager.getConnection(url);
+        try (Statement stmt = physical.createStatement()) {
+            for (String sql : initStatements) {
+                stmt.execute(sql);
+            }
+            if (reader) {
+                stmt.execute("PRAGMA query_only = ON");
+            }
+        } catch (SQLException e) {
+            physical.close();
+            throw e;
+        }
+        openCount.incrementAndGet();
+        return physical;
+    }
+    
+    private Connection handOut(Connection physical, boolean isWriter, long waitedNanos) {
+        borrowCount.increment();
+        totalWaitNanos.add(waitedNanos);
+        maxWaitNanos.accumulateAndGet(waitedNanos, Math::max);
+        activeCount.incrementAndGet();
+        if (Metrics.ENABLED) {
+            (isWriter ? WRITER_WAIT_TIMER : READER_WAIT_TIMER).record(waitedNanos);
+        }
+        
+        return (Connection) Proxy.newProxyInstance(
+            ConnectionPool.class.getClassLoader(),
+            new Class<?>[] { Connection.class },
+            new Handle(physical, isWriter));
+    }
+    
+    private void giveBack(Connection physical, boolean isWriter) {
+        activeCount.decrementAndGet();
+        
+        boolean reusable = !closed;
+        try {
+            if (physical.isClosed()) {
+                openCount.decrementAndGet();
+                reusable = false;
+            } else if (!physical.getAutoCommit()) {
+                // Never hand the next borrower a half-finished transaction
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Error resetting pooled connection, discarding it", e);
+            reusable = false;
+        }
+        
+        if (!reusable) {
+            closeQuietly(physical);
+        } else if (!isWriter) {
+            idleReaders.offer(physical);
+        }
+        (isWriter ? writerPermit : readerPermits).release();
+    }
+    
+    private void closeQuietly(Connection physical) {
+        try {
+            if (!physical.isClosed()) {
+                physical.close();
+                openCount.decrementAndGet();
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Error closing pooled connection", e);
+        }
+    }
+    
+    /**
+     * Proxy handler for a borrowed connection. {@code close()} returns the connection to the pool
+     * exactly once; any other call after that fails as it would on a closed connection. Statements
+     * are wrapped by the {@link SlowQueryLog} unless it is turned off.
+     */
+    private class Handle implements InvocationHandler {
+        private final Connection physical;
+        private final boolean isWriter;
+        private boolean returned;
+        
+        Handle(Connection physical, boolean isWriter) {
+            this.physical = physical;
+            this.isWriter = isWriter;
+        }
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        giveBack(physical, isWriter);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + (isWriter ? "writer" : "reader") + ", " + physical + "]";
+                default:
+                    break;
+            }
+            
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            
+            Object result;
+            try {
+                result = method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            
+            if (slowQueryLog.isEnabled()) {
+                if (method.getName().equals("prepareStatement")) {
+                    return slowQueryLog.wrap((PreparedStatement) result, (String) args[0], physical);
+                }
+                if (method.getName().equals("createStatement")) {
+                    return slowQueryLog.wrap((Statement) result, physical);
+                }
+            }
+            return result;
+        }
+    }
+    
+    /**
+     * Point-in-time snapshot of pool usage.
+     */
+    public static class PoolStats {
+        private final int openConnections;
+        private final int activeConnections;
+        private final int idleReaders;
+        private final int maxReaders;
+        private final long totalBorrows;
+        private final long totalWaitNanos;
+        private final long maxWaitNanos;
+        
+        public PoolStats(int openConnections, int activeConnections, int idleReaders, int maxReaders,
+                         long totalBorrows, long totalWaitNanos, long maxWaitNanos) {
+            this.openConnections = openConnections;
+            this.activeConnections = activeConnections;
+            this.idleReaders = idleReaders;
+            this.maxReaders = maxReaders;
+            this.totalBorrows = totalBorrows;
+            this.totalWaitNanos = totalWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+        }
+        
+        public int getOpenConnections() {
+            return openConnections;
+        }
+        
+        public int getActiveConnections() {
+            return activeConnections;
+        }
+        
+        public int getIdleReaders() {
+            return idleReaders;
+        }
+        
+        public int getMaxReaders() {
+            return maxReaders;
+        }
+        
+        public long getTotalBorrows() {
+            return totalBorrows;
+        }
+        
+        public long getTotalWaitNanos() {
+            return totalWaitNanos;
+        }
+        
+        public long getMaxWaitNanos() {
+            return maxWaitNanos;
+        }
+        
+        public double getAverageWaitMillis() {
+            return totalBorrows == 0 ? 0.0 : (totalWaitNanos / (double) totalBorrows) / 1_000_000.0;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("PoolStats{open=%d, active=%d, idleReaders=%d/%d, borrows=%d, avgWait=%.3fms, maxWait=%.3fms}",
+                               openConnections, activeConnections, idleReaders, maxReaders,
+                               totalBorrows, getAverageWaitMillis(), maxWaitNanos / 1_000_000.0);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.expensetracker.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 CSV parser, the reading counterpart of {@link CsvWriter}.
+ * <p>
+ * Records are read one at a time from a buffered reader, so files of any size can be parsed in
+ * constant memory. Quoted fields may contain commas, doubled quotes and line breaks; records may
+ * end with CRLF or LF. A leading UTF-8 byte order mark is skipped.
+ */
+public class CsvReader implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder field = new StringBuilder();
+    private int position;
+    private int limit;
+    private long lineNumber = 1;
+    private long recordLineNumber;
+    private boolean started;
+    
+    public CsvReader(Reader in) {
+        this.in = in;
+    }
+    
+    public static CsvReader open(Path file) throws IOException {
+        return new CsvReader(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Reads the next record, or returns {@code null} at the end of the input. Blank lines are skipped.
+     *
+     * @throws IOException if reading fails or a quoted field is not closed before the end of the input
+     */
+    public List<String> readRecord() throws IOException {
+        if (!started) {
+            started = true;
+            if (fill() && buffer[position] == '\uFEFF') {
+                position++;
+            }
+        }
+        
+        int c;
+        // Skip blank lines between records
+        while ((c = peek()) == '\r' || c == '\n') {
+            consumeLineBreak();
+        }
+        if (c < 0) {
+            return null;
+        }
+        
+        recordLineNumber = lineNumber;
+        List<String> record = new ArrayList<>();
+        while (true) {
+            record.add(readField());
+            c = peek();
+            if (c == ',') {
+                position++;
+            } else {
+                if (c >= 0) {
+                    consumeLineBreak();
+                }
+                return record;
+            }
+        }
+    }
+    
+    /**
+     * Line on which the record last returned by {@link #readRecord()} started, counting from 1.
+     */
+    public long getLineNumber() {
+        return recordLineNumber;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+    
+    private String readField() throws IOException {
+        field.setLength(0);
+        if (peek() != '"') {
+            int c;
+            while ((c = peek()) >= 0 && c != ',' && c != '\r' && c != '\n') {
+                field.append((char) c);
+                position++;
+            }
+            return field.toString();
+        }
+        
+        position++;
+        long startLine = lineNumber;
+        while (true) {
+            int c = peek();
+            if (c < 0) {
+                throw new IOException("Unterminated quoted field starting on line " + startLine);
+            }
+            position++;
+            if (c == '"') {
+                if (peek() == '"') {
+                    field.append('"');
+                    position++;
+                } else {
+                    // Anything between the closing quote and the next separator is kept as is
+                    while ((c = peek()) >= 0 && c != ',' && c != '\r' && c != '\n') {
+                        field.append((char) c);
+                        position++;
+                    }
+                    return field.toString();
+                }
+            } else {
+                if (c == '\n') {
+                    lineNumber++;
+                }
+                field.append((char) c);
+            }
+        }
+    }
+    
+    private void consumeLineBreak() throws IOException {
+        if (peek() == '\r') {
+            position++;
+        }
+        if (peek() == '\n') {
+            position++;
+        }
+        lineNumber++;
+    }
+    
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+    
+    private boolean fill() throws IOException {
+        int read;
+        do {
+            read = in.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read < 0) {
+            position = limit = 0;
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+}
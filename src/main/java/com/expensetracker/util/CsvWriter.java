@@ -0,0 +1,200 @@
+package com.expensetracker.util;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * Buffered RFC 4180 CSV encoder.
+ * <p>
+ * Fields are separated by commas and records end with CRLF. A text field is quoted only when it
+ * contains a comma, a double quote, CR or LF, and embedded quotes are doubled. Numbers, cent
+ * amounts and dates are encoded straight into the buffer without intermediate strings, so writing
+ * a row does not allocate.
+ */
+public class CsvWriter implements Closeable, Flushable {
+    private static final int BUFFER_SIZE = 16 * 1024;
+    
+    private final Writer out;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private boolean firstField = true;
+    
+    public CsvWriter(Writer out) {
+        this.out = out;
+    }
+    
+    /**
+     * Creates or truncates {@code file} and writes UTF-8 to it through a file channel.
+     */
+    public static CsvWriter open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                               StandardOpenOption.TRUNCATE_EXISTING);
+        return new CsvWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE));
+    }
+    
+    /**
+     * Writes a text field, quoting it if necessary. {@code null} is written as an empty field.
+     */
+    public CsvWriter field(CharSequence value) throws IOException {
+        separate();
+        if (value == null) {
+            return this;
+        }
+        
+        int length = value.length();
+        if (!needsQuotes(value, length)) {
+            for (int i = 0; i < length; i++) {
+                put(value.charAt(i));
+            }
+            return this;
+        }
+        
+        put('"');
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                put('"');
+            }
+            put(c);
+        }
+        put('"');
+        return this;
+    }
+    
+    public CsvWriter field(long value) throws IOException {
+        separate();
+        putLong(value);
+        return this;
+    }
+    
+    /**
+     * Writes an amount of cents as a plain decimal with two fraction digits, e.g. {@code -12.05}.
+     */
+    public CsvWriter cents(long cents) throws IOException {
+        separate();
+        if (cents < 0) {
+            put('-');
+        }
+        // Math.abs would overflow for Long.MIN_VALUE; work with the negative remainder instead
+        long whole = cents / 100;
+        int fraction = (int) Math.abs(cents % 100);
+        putLong(Math.abs(whole));
+        put('.');
+        put((char) ('0' + fraction / 10));
+        put((char) ('0' + fraction % 10));
+        return this;
+    }
+    
+    /**
+     * Writes a date in ISO format, e.g. {@code 2024-03-07}.
+     */
+    public CsvWriter date(LocalDate date) throws IOException {
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            return field(date.toString());
+        }
+        separate();
+        putDigits(year, 4);
+        put('-');
+        putDigits(date.getMonthValue(), 2);
+        put('-');
+        putDigits(date.getDayOfMonth(), 2);
+        return this;
+    }
+    
+    /**
+     * Ends the current record.
+     */
+    public CsvWriter endRow() throws IOException {
+        put('\r');
+        put('\n');
+        firstField = true;
+        return this;
+    }
+    
+    @Override
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            out.close();
+        }
+    }
+    
+    private static boolean needsQuotes(CharSequence value, int length) {
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private void separate() throws IOException {
+        if (firstField) {
+            firstField = false;
+        } else {
+            put(',');
+        }
+    }
+    
+    private void putLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            for (char c : Long.toString(value).toCharArray()) {
+                put(c);
+            }
+            return;
+        }
+        if (value < 0) {
+            put('-');
+            value = -value;
+        }
+        
+        long divisor = 1;
+        while (divisor <= value / 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            put((char) ('0' + (value / divisor) % 10));
+        }
+    }
+    
+    private void putDigits(int value, int width) throws IOException {
+        int divisor = 1;
+        for (int i = 1; i < width; i++) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            put((char) ('0' + (value / divisor) % 10));
+        }
+    }
+    
+    private void put(char c) throws IOException {
+        if (position == buffer.length) {
+            drain();
+        }
+        buffer[position++] = c;
+    }
+    
+    private void drain() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.expensetracker.util;
 
 import java.sql.*;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -11,19 +13,62 @@ public class DatabaseManager {
     private static final Logger LOGGER = Logger.getLogger(DatabaseManager.class.getName());
     private static final String DB_URL = getDatabaseUrl();
     
+    /**
+     * The database file is {@code db.file} (default {@code expense_tracker.db} in the working
+     * directory). Tests override it with {@code test.db.name}. Both are read once, when the class
+     * is first used.
+     */
     private static String getDatabaseUrl() {
         String testDbName = System.getProperty("test.db.name");
         if (testDbName != null) {
             return "jdbc:sqlite:" + testDbName;
         }
-        return "jdbc:sqlite:expense_tracker.db";
+        return "jdbc:sqlite:" + System.getProperty("db.file", "expense_tracker.db");
     }
     
+    private static final int POOL_READERS = Integer.getInteger("db.pool.readers", 4);
+    private static final long POOL_TIMEOUT_MILLIS = Long.getLong("db.pool.timeoutMillis", 30_000L);
+    private static final int WRITE_BATCH_SIZE = Integer.getInteger("db.write.batchSize", 512);
+    
+    // Per-connection tuning; WAL itself is a persistent property of the database file
+    private static final String SYNCHRONOUS = System.getProperty("db.synchronous", "NORMAL");
+    private static final long CACHE_SIZE = Long.getLong("db.cacheSize", -20_000L);
+    private static final long MMAP_SIZE = Long.getLong("db.mmapSize", 268_435_456L);
+    private static final long BUSY_TIMEOUT_MILLIS = Long.getLong("db.busyTimeoutMillis", 5_000L);
+    private static final int MIGRATION_CHUNK_SIZE = Integer.getInteger("db.migration.chunkSize", 5_000);
+    
     private static DatabaseManager instance;
-    private Connection connection;
+    private final ConnectionPool pool;
+    private final WriteQueue writeQueue;
+    private List<SchemaMigrator.MigrationResult> migrationHistory = List.of();
     
     private DatabaseManager() {
+        this.pool = new ConnectionPool(DB_URL, connectionPragmas(), POOL_READERS, POOL_TIMEOUT_MILLIS);
         initializeDatabase();
+        this.writeQueue = new WriteQueue(pool, WRITE_BATCH_SIZE);
+        registerPoolGauges();
+    }
+    
+    private void registerPoolGauges() {
+        Metrics metrics = Metrics.getInstance();
+        metrics.gauge("db_connections_open", "Open pooled connections", null, null,
+                      () -> pool.getStats().getOpenConnections());
+        metrics.gauge("db_connections_active", "Pooled connections currently borrowed", null, null,
+                      () -> pool.getStats().getActiveConnections());
+        metrics.gauge("db_connection_borrows", "Connections borrowed from the pool since startup", null, null,
+                      () -> pool.getStats().getTotalBorrows());
+    }
+    
+    private static List<String> connectionPragmas() {
+        if (!SYNCHRONOUS.matches("(?i)OFF|NORMAL|FULL|EXTRA")) {
+            throw new IllegalArgumentException("Invalid db.synchronous value: " + SYNCHRONOUS);
+        }
+        return List.of(
+            "PRAGMA busy_timeout = " + BUSY_TIMEOUT_MILLIS,
+            "PRAGMA synchronous = " + SYNCHRONOUS,
+            "PRAGMA cache_size = " + CACHE_SIZE,
+            "PRAGMA mmap_size = " + MMAP_SIZE
+        );
     }
     
     public static synchronized DatabaseManager getInstance() {
@@ -33,74 +78,62 @@ public class DatabaseManager {
         return instance;
     }
     
+    /**
+     * Borrows the writer connection directly, bypassing the write queue. Reserved for schema
+     * setup and maintenance; application writes go through {@link #submitWrite}.
+     * Closing the returned connection hands it back to the pool.
+     */
     public Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            connection = DriverManager.getConnection(DB_URL);
-        }
-        return connection;
+        return pool.borrowWriter();
+    }
+    
+    /**
+     * Borrows a read-only connection from the pool. Closing it hands it back to the pool.
+     */
+    public Connection getReadConnection() throws SQLException {
+        return pool.borrowReader();
+    }
+    
+    /**
+     * Queues a mutation on the single writer thread. Writes queued close together are
+     * group-committed in one transaction; the future completes after the commit.
+     */
+    public <T> CompletableFuture<T> submitWrite(WriteQueue.WriteTask<T> task) {
+        return writeQueue.submit(task);
+    }
+    
+    /**
+     * Migrations applied while opening the database in this session, with their timings.
+     */
+    public List<SchemaMigrator.MigrationResult> getMigrationHistory() {
+        return migrationHistory;
+    }
+    
+    public ConnectionPool.PoolStats getPoolStats() {
+        return pool.getStats();
     }
     
     public void closeConnection() {
-        if (connection != null) {
-            try {
-                connection.close();
-            } catch (SQLException e) {
-                LOGGER.log(Level.SEVERE, "Error closing database connection", e);
-            }
-        }
+        LOGGER.info("Closing database connections: " + pool.getStats());
+        writeQueue.close();
+        pool.close();
     }
     
     private void initializeDatabase() {
         try (Connection conn = getConnection()) {
-            createTables(conn);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("PRAGMA journal_mode = WAL");
+            }
+            SchemaMigrator migrator = new SchemaMigrator(SchemaMigrations.all(), MIGRATION_CHUNK_SIZE,
+                (migration, chunks, lastKey) -> LOGGER.fine("Migration " + migration.getVersion() +
+                                                            ": " + chunks + " chunks committed"));
+            migrationHistory = migrator.migrate(conn);
             insertSeedData(conn);
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error initializing database", e);
         }
     }
     
-    private void createTables(Connection conn) throws SQLException {
-        // Create categories table
-        String createCategoriesTable = """
-            CREATE TABLE IF NOT EXISTS categories (
-                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                name TEXT UNIQUE NOT NULL,
-                color TEXT NOT NULL
-            )
-            """;
-        
-        // Create budgets table
-        String createBudgetsTable = """
-            CREATE TABLE IF NOT EXISTS budgets (
-                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                category_id INTEGER NOT NULL,
-                amount REAL NOT NULL,
-                month INTEGER NOT NULL,
-                year INTEGER NOT NULL,
-                FOREIGN KEY (category_id) REFERENCES categories (id),
-                UNIQUE(category_id, month, year)
-            )
-            """;
-        
-        // Create expenses table
-        String createExpensesTable = """
-            CREATE TABLE IF NOT EXISTS expenses (
-                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                amount REAL NOT NULL,
-                category_id INTEGER NOT NULL,
-                date TEXT NOT NULL,
-                notes TEXT,
-                FOREIGN KEY (category_id) REFERENCES categories (id)
-            )
-            """;
-        
-        try (Statement stmt = conn.createStatement()) {
-            stmt.execute(createCategoriesTable);
-            stmt.execute(createBudgetsTable);
-            stmt.execute(createExpensesTable);
-        }
-    }
-    
     private void insertSeedData(Connection conn) throws SQLException {
         // Check if categories table is empty
         String checkCategories = "SELECT COUNT(*) FROM categories";
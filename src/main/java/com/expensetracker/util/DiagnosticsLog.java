@@ -0,0 +1,67 @@
+package com.expensetracker.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.FileHandler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.logging.SimpleFormatter;
+
+/**
+ * Logger for field diagnostics: slow SQL statements and stalls of the FX thread.
+ * <p>
+ * Records always go to the console like any other log. Once {@link #start()} has been called
+ * they are also written to a rotating set of files, {@code diagnostics-0.log} being the newest,
+ * in {@code diagnostics.logDir} (default {@code logs} in the working directory). Each file grows
+ * to at most {@code diagnostics.logLimitBytes} (default 5 MB) and {@code diagnostics.logCount}
+ * (default 5) files are kept.
+ */
+public class DiagnosticsLog {
+    private static final Logger LOGGER = Logger.getLogger(DiagnosticsLog.class.getName());
+    private static final Logger DIAGNOSTICS = Logger.getLogger("com.expensetracker.diagnostics");
+    private static final String LOG_DIR = System.getProperty("diagnostics.logDir", "logs");
+    private static final int LOG_LIMIT_BYTES = Integer.getInteger("diagnostics.logLimitBytes", 5 * 1024 * 1024);
+    private static final int LOG_COUNT = Math.max(1, Integer.getInteger("diagnostics.logCount", 5));
+    
+    private static FileHandler fileHandler;
+    
+    private DiagnosticsLog() {
+    }
+    
+    public static Logger getLogger() {
+        return DIAGNOSTICS;
+    }
+    
+    /**
+     * Starts writing diagnostics to the rotating files. If the directory cannot be written,
+     * diagnostics only go to the console.
+     */
+    public static synchronized void start() {
+        if (fileHandler != null) {
+            return;
+        }
+        try {
+            Path dir = Path.of(LOG_DIR);
+            Files.createDirectories(dir);
+            fileHandler = new FileHandler(dir.resolve("diagnostics-%g.log").toString(), LOG_LIMIT_BYTES, LOG_COUNT, true);
+            fileHandler.setFormatter(new SimpleFormatter());
+            fileHandler.setEncoding("UTF-8");
+            DIAGNOSTICS.addHandler(fileHandler);
+        } catch (IOException | SecurityException e) {
+            LOGGER.log(Level.WARNING, "Could not open the diagnostics log in " + LOG_DIR, e);
+            fileHandler = null;
+        }
+    }
+    
+    /**
+     * Flushes and closes the files.
+     */
+    public static synchronized void stop() {
+        if (fileHandler != null) {
+            DIAGNOSTICS.removeHandler(fileHandler);
+            fileHandler.close();
+            fileHandler = null;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.expensetracker.util;
+
+/**
+ * 64-bit fingerprint of an expense's date, amount and normalized notes, stored in the indexed
+ * {@code expenses.fingerprint} column to find duplicates when statements are imported again.
+ * <p>
+ * Notes are normalized before hashing: letters and digits are lowercased and every run of other
+ * characters collapses to a single space, so "AMAZON.COM*Mktp  US" and "amazon com mktp us" match.
+ * Equal fingerprints only mark candidates; callers that need certainty compare the fields.
+ */
+public final class ExpenseFingerprint {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    
+    private ExpenseFingerprint() {
+    }
+    
+    public static long of(long epochDay, long amountCents, String notes) {
+        long hash = FNV_OFFSET_BASIS;
+        hash = mixLong(hash, epochDay);
+        hash = mixLong(hash, amountCents);
+        
+        String normalized = normalizeNotes(notes);
+        for (int i = 0; i < normalized.length(); i++) {
+            hash = mix(hash, normalized.charAt(i));
+        }
+        return hash;
+    }
+    
+    /**
+     * The normalized form of {@code notes} that {@link #of} hashes.
+     */
+    public static String normalizeNotes(String notes) {
+        if (notes == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(notes.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < notes.length(); i++) {
+            char c = notes.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                normalized.append(Character.toLowerCase(c));
+                pendingSpace = false;
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return normalized.toString();
+    }
+    
+    private static long mixLong(long hash, long value) {
+        for (int shift = 0; shift < 64; shift += 8) {
+            hash ^= (value >>> shift) & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+    
+    private static long mix(long hash, char c) {
+        hash ^= c & 0xff;
+        hash *= FNV_PRIME;
+        hash ^= c >>> 8;
+        hash *= FNV_PRIME;
+        return hash;
+    }
+}
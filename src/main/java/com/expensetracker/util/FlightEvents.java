@@ -0,0 +1,199 @@
+package com.expensetracker.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+import java.time.LocalDate;
+
+/**
+ * Custom JDK Flight Recorder events for the database, report and UI refresh paths.
+ * <p>
+ * Each event records its duration and is only written while a flight recording is running and
+ * the event lasted at least its threshold: 10 ms for single SQL statements, which also carry a
+ * stack trace to the DAO that ran them, and any duration for the others. The bundled profile
+ * {@code jfr/expense-tracker.jfc} (see {@link FlightRecording}) uses the same settings. When no
+ * recording is running, creating and finishing an event costs next to nothing. Use them as:
+ * <pre>{@code
+ * FlightEvents.DatabaseQuery event = FlightEvents.DatabaseQuery.start("ExpenseDAO.findByMonth", sql, month, year);
+ * ...
+ * event.finish(rows.size());
+ * }</pre>
+ */
+public class FlightEvents {
+    
+    private FlightEvents() {
+    }
+    
+    /**
+     * One DAO method call, with the rows it read or wrote. Month and year are set for methods
+     * about one month and the first and last day for methods about a date range; the others leave
+     * them 0 and empty.
+     */
+    @Name("com.expensetracker.DatabaseQuery")
+    @Label("Database Query")
+    @Category({"Expense Tracker", "Database"})
+    @Description("A DAO method call with its SQL and the rows it read or wrote")
+    @StackTrace(false)
+    public static class DatabaseQuery extends Event {
+        @Label("Method")
+        String method;
+        
+        @Label("SQL")
+        String sql;
+        
+        @Label("Rows")
+        long rows;
+        
+        @Label("Month")
+        int month;
+        
+        @Label("Year")
+        int year;
+        
+        @Label("First Day")
+        String firstDay;
+        
+        @Label("Last Day")
+        String lastDay;
+        
+        public static DatabaseQuery start(String method, String sql, int month, int year) {
+            DatabaseQuery event = new DatabaseQuery();
+            event.method = method;
+            event.sql = sql;
+            event.month = month;
+            event.year = year;
+            event.begin();
+            return event;
+        }
+        
+        /**
+         * Starts the event of a method about the inclusive range from {@code first} to {@code last}.
+         */
+        public static DatabaseQuery start(String method, String sql, LocalDate first, LocalDate last) {
+            DatabaseQuery event = new DatabaseQuery();
+            event.method = method;
+            event.sql = sql;
+            if (event.isEnabled()) {
+                event.firstDay = first.toString();
+                event.lastDay = last.toString();
+            }
+            event.begin();
+            return event;
+        }
+        
+        public void finish(long rows) {
+            end();
+            if (shouldCommit()) {
+                this.rows = rows;
+                commit();
+            }
+        }
+    }
+    
+    /**
+     * One execution of a JDBC statement, recorded by the statement wrapper of
+     * {@link ConnectionPool}, so it covers every DAO.
+     */
+    @Name("com.expensetracker.SqlStatement")
+    @Label("SQL Statement")
+    @Category({"Expense Tracker", "Database"})
+    @Description("Execution of a single JDBC statement with its bound parameters")
+    @Threshold("10 ms")
+    public static class SqlStatement extends Event {
+        @Label("SQL")
+        String sql;
+        
+        @Label("Parameters")
+        String parameters;
+        
+        @Label("Update Count")
+        @Description("Rows changed by an update or batch; 0 for queries")
+        long updateCount;
+        
+        @Label("Batch Size")
+        int batchSize;
+    }
+    
+    /**
+     * Building a report or export.
+     */
+    @Name("com.expensetracker.Report")
+    @Label("Report")
+    @Category({"Expense Tracker", "Reports"})
+    @Description("Building a report or writing an export")
+    @StackTrace(false)
+    public static class Report extends Event {
+        @Label("Report")
+        String report;
+        
+        @Label("Rows")
+        long rows;
+        
+        @Label("Month")
+        int month;
+        
+        @Label("Year")
+        int year;
+        
+        public static Report start(String report, int month, int year) {
+            Report event = new Report();
+            event.report = report;
+            event.month = month;
+            event.year = year;
+            event.begin();
+            return event;
+        }
+        
+        public void finish(long rows) {
+            end();
+            if (shouldCommit()) {
+                this.rows = rows;
+                commit();
+            }
+        }
+    }
+    
+    /**
+     * Refreshing part of a view, from the request until the result is shown.
+     */
+    @Name("com.expensetracker.ViewRefresh")
+    @Label("View Refresh")
+    @Category({"Expense Tracker", "UI"})
+    @Description("Refreshing part of a view, from the request until the result is shown")
+    @StackTrace(false)
+    public static class ViewRefresh extends Event {
+        @Label("View")
+        String view;
+        
+        @Label("Rows")
+        long rows;
+        
+        @Label("Month")
+        int month;
+        
+        @Label("Year")
+        int year;
+        
+        public static ViewRefresh start(String view, int month, int year) {
+            ViewRefresh event = new ViewRefresh();
+            event.view = view;
+            event.month = month;
+            event.year = year;
+            event.begin();
+            return event;
+        }
+        
+        public void finish(long rows) {
+            end();
+            if (shouldCommit()) {
+                this.rows = rows;
+                commit();
+            }
+        }
+    }
+}
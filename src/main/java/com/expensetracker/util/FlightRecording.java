@@ -0,0 +1,100 @@
+package com.expensetracker.util;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Continuous flight recording from inside the application with the bundled low overhead profile
+ * {@code jfr/expense-tracker.jfc}.
+ * <p>
+ * Runs when the application is started with {@code -Djfr.enabled=true}. The recording keeps the
+ * last {@code jfr.maxAgeMinutes} (default 30) minutes, at most {@code jfr.maxSizeMB} (default 100)
+ * megabytes, and is written to {@code jfr.file} (default {@code logs/expense-tracker.jfr}) when
+ * the application exits. While it runs, {@code jcmd <pid> JFR.dump name=expense-tracker} writes
+ * the recent data at any time. A recording started with {@code -XX:StartFlightRecording} needs
+ * none of this; it records the {@link FlightEvents} as well.
+ */
+public class FlightRecording {
+    private static final Logger LOGGER = Logger.getLogger(FlightRecording.class.getName());
+    public static final String PROFILE = "/jfr/expense-tracker.jfc";
+    private static final String NAME = "expense-tracker";
+    private static final boolean ENABLED = Boolean.getBoolean("jfr.enabled");
+    private static final String FILE = System.getProperty("jfr.file", "logs/expense-tracker.jfr");
+    private static final long MAX_AGE_MINUTES = Long.getLong("jfr.maxAgeMinutes", 30L);
+    private static final long MAX_SIZE_MB = Long.getLong("jfr.maxSizeMB", 100L);
+    
+    private static Recording recording;
+    
+    private FlightRecording() {
+    }
+    
+    /**
+     * Starts the recording if it is enabled. A failure is logged and the application runs on
+     * without it.
+     */
+    public static synchronized void start() {
+        if (!ENABLED || recording != null) {
+            return;
+        }
+        try {
+            Path file = Path.of(FILE).toAbsolutePath();
+            Files.createDirectories(file.getParent());
+            
+            recording = new Recording(loadProfile());
+            recording.setName(NAME);
+            recording.setToDisk(true);
+            recording.setMaxAge(Duration.ofMinutes(MAX_AGE_MINUTES));
+            recording.setMaxSize(MAX_SIZE_MB * 1024 * 1024);
+            recording.setDestination(file);
+            // Also written if the JVM exits without stop(), e.g. through System.exit
+            recording.setDumpOnExit(true);
+            recording.start();
+            LOGGER.info("Flight recording to " + file);
+        } catch (IOException | ParseException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not start the flight recording", e);
+            recording = null;
+        }
+    }
+    
+    /**
+     * Stops the recording and writes it to {@code jfr.file}.
+     */
+    public static synchronized void stop() {
+        if (recording == null) {
+            return;
+        }
+        try {
+            recording.stop();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not write the flight recording", e);
+        } finally {
+            recording.close();
+            recording = null;
+        }
+    }
+    
+    /**
+     * Reads the bundled recording profile.
+     */
+    public static Configuration loadProfile() throws IOException, ParseException {
+        InputStream in = FlightRecording.class.getResourceAsStream(PROFILE);
+        if (in == null) {
+            throw new IOException("Missing recording profile " + PROFILE);
+        }
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return Configuration.create(reader);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.expensetracker.util;
+
+import java.util.function.Supplier;
+
+/**
+ * A value created on first use. Used for services whose construction opens the database, so
+ * that it happens on the background thread that first needs them rather than on the FX thread
+ * while the window is being built. Safe to use from any thread; the factory runs at most once.
+ */
+public class Lazy<T> implements Supplier<T> {
+    private final Supplier<? extends T> factory;
+    private volatile T value;
+    
+    public Lazy(Supplier<? extends T> factory) {
+        this.factory = factory;
+    }
+    
+    @Override
+    public T get() {
+        T result = value;
+        if (result == null) {
+            synchronized (this) {
+                result = value;
+                if (result == null) {
+                    result = factory.get();
+                    value = result;
+                }
+            }
+        }
+        return result;
+    }
+}
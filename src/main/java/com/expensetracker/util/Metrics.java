@@ -0,0 +1,314 @@
+package com.expensetracker.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Process-wide registry of the timers, counters and gauges recorded on the DAO, service and UI
+ * hot paths.
+ * <p>
+ * Recording is off unless the application runs with {@code -Dmetrics.enabled=true}. Instruments
+ * are created and registered either way, usually once into a {@code static final} field, but
+ * when recording is off {@link Timer#start()}, {@link Timer#stop(long)} and {@link Counter#add}
+ * return after checking a constant, so the hot paths pay nothing measurable. Timers keep a fixed
+ * set of latency buckets from 100 microseconds to 10 seconds, from which percentiles are estimated.
+ * <p>
+ * Each instrument belongs to a named family and has at most one label, e.g. the query timer
+ * family {@code db_query_seconds} with one timer per DAO method. {@link MetricsExporter} writes
+ * the registry as JSON or Prometheus text.
+ */
+public class Metrics {
+    public static final boolean ENABLED = Boolean.getBoolean("metrics.enabled");
+    private static Metrics instance;
+    
+    private final Map<String, Metric> metrics = new ConcurrentHashMap<>();
+    
+    private Metrics() {
+    }
+    
+    public static synchronized Metrics getInstance() {
+        if (instance == null) {
+            instance = new Metrics();
+        }
+        return instance;
+    }
+    
+    /**
+     * Returns the timer of a family for one label value, creating it on first use.
+     *
+     * @param labelName the label distinguishing timers of the family, or {@code null} for none
+     */
+    public Timer timer(String name, String help, String labelName, String labelValue) {
+        return (Timer) metrics.computeIfAbsent(key(name, labelValue),
+            k -> new Timer(name, help, labelName, labelValue));
+    }
+    
+    public Counter counter(String name, String help, String labelName, String labelValue) {
+        return (Counter) metrics.computeIfAbsent(key(name, labelValue),
+            k -> new Counter(name, help, labelName, labelValue));
+    }
+    
+    /**
+     * Registers a value read when the metrics are exported, replacing an earlier gauge of the same
+     * name and label.
+     */
+    public void gauge(String name, String help, String labelName, String labelValue, DoubleSupplier value) {
+        metrics.put(key(name, labelValue), new Gauge(name, help, labelName, labelValue, value));
+    }
+    
+    /**
+     * Timer and row counter for one DAO method that reads rows.
+     */
+    public static QueryMetrics readQuery(String method) {
+        Metrics registry = getInstance();
+        return new QueryMetrics(
+            registry.timer("db_query_seconds", "Latency of DAO queries", "method", method),
+            registry.counter("db_rows_read_total", "Rows read by DAO queries", "method", method));
+    }
+    
+    /**
+     * Timer and row counter for one DAO method that writes rows.
+     */
+    public static QueryMetrics writeQuery(String method) {
+        Metrics registry = getInstance();
+        return new QueryMetrics(
+            registry.timer("db_query_seconds", "Latency of DAO queries", "method", method),
+            registry.counter("db_rows_written_total", "Rows written by DAO queries", "method", method));
+    }
+    
+    /**
+     * Returns every registered metric, ordered by family and label value.
+     */
+    public List<Metric> snapshot() {
+        List<Metric> snapshot = new ArrayList<>(metrics.values());
+        snapshot.sort(Comparator.comparing(Metric::getName)
+            .thenComparing(metric -> metric.getLabelValue() == null ? "" : metric.getLabelValue()));
+        return snapshot;
+    }
+    
+    private static String key(String name, String labelValue) {
+        return labelValue == null ? name : name + '\u0000' + labelValue;
+    }
+    
+    /**
+     * A registered instrument: its family name, help text and optional label.
+     */
+    public abstract static class Metric {
+        private final String name;
+        private final String help;
+        private final String labelName;
+        private final String labelValue;
+        
+        Metric(String name, String help, String labelName, String labelValue) {
+            this.name = name;
+            this.help = help;
+            this.labelName = labelName;
+            this.labelValue = labelValue;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public String getHelp() {
+            return help;
+        }
+        
+        public String getLabelName() {
+            return labelName;
+        }
+        
+        public String getLabelValue() {
+            return labelValue;
+        }
+    }
+    
+    /**
+     * Latency histogram with count, sum and maximum.
+     */
+    public static class Timer extends Metric {
+        private static final long[] BUCKET_BOUNDS_NANOS = {
+            100_000L, 250_000L, 500_000L, 1_000_000L, 2_500_000L, 5_000_000L, 10_000_000L, 25_000_000L,
+            50_000_000L, 100_000_000L, 250_000_000L, 500_000_000L, 1_000_000_000L, 2_500_000_000L,
+            5_000_000_000L, 10_000_000_000L
+        };
+        
+        // One more bucket than bounds, for durations above the last bound
+        private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_NANOS.length + 1];
+        private final LongAdder sumNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        
+        Timer(String name, String help, String labelName, String labelValue) {
+            super(name, help, labelName, labelValue);
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+        
+        /**
+         * Returns the start time to pass to {@link #stop(long)}, or 0 when recording is off.
+         */
+        public long start() {
+            return ENABLED ? System.nanoTime() : 0L;
+        }
+        
+        public void stop(long start) {
+            if (ENABLED) {
+                record(System.nanoTime() - start);
+            }
+        }
+        
+        /**
+         * Records a duration whether or not recording is on.
+         */
+        public void record(long nanos) {
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS_NANOS.length && nanos > BUCKET_BOUNDS_NANOS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket].increment();
+            sumNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+        
+        public long getCount() {
+            long count = 0;
+            for (LongAdder bucket : buckets) {
+                count += bucket.sum();
+            }
+            return count;
+        }
+        
+        public long getSumNanos() {
+            return sumNanos.sum();
+        }
+        
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+        
+        public double getMeanNanos() {
+            long count = getCount();
+            return count == 0 ? 0 : (double) getSumNanos() / count;
+        }
+        
+        /**
+         * Upper bounds of the buckets in nanoseconds; the last bucket has no bound.
+         */
+        public static long[] getBucketBoundsNanos() {
+            return BUCKET_BOUNDS_NANOS.clone();
+        }
+        
+        /**
+         * Number of durations in each bucket (not cumulative), one more than there are bounds.
+         */
+        public long[] getBucketCounts() {
+            long[] counts = new long[buckets.length];
+            for (int i = 0; i < buckets.length; i++) {
+                counts[i] = buckets[i].sum();
+            }
+            return counts;
+        }
+        
+        /**
+         * Estimates a percentile as the upper bound of the bucket it falls in, capped at the
+         * maximum seen. Returns 0 if nothing was recorded.
+         *
+         * @param quantile between 0 and 1, e.g. 0.95
+         */
+        public long getPercentileNanos(double quantile) {
+            long[] counts = getBucketCounts();
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && counts[i] > 0) {
+                    return i < BUCKET_BOUNDS_NANOS.length
+                        ? Math.min(BUCKET_BOUNDS_NANOS[i], getMaxNanos())
+                        : getMaxNanos();
+                }
+            }
+            return getMaxNanos();
+        }
+    }
+    
+    /**
+     * Monotonic count, e.g. of rows read.
+     */
+    public static class Counter extends Metric {
+        private final LongAdder value = new LongAdder();
+        
+        Counter(String name, String help, String labelName, String labelValue) {
+            super(name, help, labelName, labelValue);
+        }
+        
+        public void add(long amount) {
+            if (ENABLED) {
+                value.add(amount);
+            }
+        }
+        
+        public long getValue() {
+            return value.sum();
+        }
+    }
+    
+    /**
+     * Value sampled on export, e.g. a pool size or cache hit ratio.
+     */
+    public static class Gauge extends Metric {
+        private final DoubleSupplier value;
+        
+        Gauge(String name, String help, String labelName, String labelValue, DoubleSupplier value) {
+            super(name, help, labelName, labelValue);
+            this.value = value;
+        }
+        
+        public double getValue() {
+            return value.getAsDouble();
+        }
+    }
+    
+    /**
+     * Latency and row count of one DAO method.
+     * <pre>{@code
+     * long start = FIND_BY_MONTH_METRICS.start();
+     * ...
+     * FIND_BY_MONTH_METRICS.stop(start, rows.size());
+     * }</pre>
+     */
+    public static class QueryMetrics {
+        private final Timer timer;
+        private final Counter rows;
+        
+        QueryMetrics(Timer timer, Counter rows) {
+            this.timer = timer;
+            this.rows = rows;
+        }
+        
+        public long start() {
+            return timer.start();
+        }
+        
+        public void stop(long start, long rowCount) {
+            if (ENABLED) {
+                timer.stop(start);
+                rows.add(rowCount);
+            }
+        }
+    }
+}
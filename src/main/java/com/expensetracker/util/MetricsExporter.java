@@ -0,0 +1,254 @@
+package com.expensetracker.util;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes the {@link Metrics} registry as JSON or Prometheus text, and optionally publishes it
+ * while the application runs.
+ * <p>
+ * With {@code -Dmetrics.file=<path>} the registry is written to that file every
+ * {@code metrics.exportIntervalSeconds} (default 10) seconds and on {@link #stop()}, as JSON if
+ * the name ends in {@code .json} and as Prometheus text otherwise. With {@code -Dmetrics.port=<port>}
+ * an HTTP endpoint on the loopback interface serves {@code /metrics} (Prometheus) and
+ * {@code /metrics.json}. Neither is started unless {@code metrics.enabled} is set.
+ */
+public class MetricsExporter {
+    private static final Logger LOGGER = Logger.getLogger(MetricsExporter.class.getName());
+    private static final String PREFIX = "expensetracker_";
+    private static final String FILE = System.getProperty("metrics.file");
+    private static final long EXPORT_INTERVAL_SECONDS = Long.getLong("metrics.exportIntervalSeconds", 10L);
+    private static final Integer PORT = Integer.getInteger("metrics.port");
+    
+    private static ScheduledExecutorService fileExporter;
+    private static HttpServer server;
+    
+    private MetricsExporter() {
+    }
+    
+    /**
+     * Starts the file export and HTTP endpoint that are configured. Does nothing when metrics are
+     * off.
+     */
+    public static synchronized void start() {
+        if (!Metrics.ENABLED) {
+            return;
+        }
+        if (FILE != null && fileExporter == null) {
+            fileExporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "metrics-export");
+                thread.setDaemon(true);
+                return thread;
+            });
+            fileExporter.scheduleWithFixedDelay(MetricsExporter::exportToFile,
+                EXPORT_INTERVAL_SECONDS, EXPORT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+        if (PORT != null && server == null) {
+            try {
+                server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), PORT), 0);
+                server.createContext("/metrics", exchange -> respond(exchange,
+                    exchange.getRequestURI().getPath().endsWith(".json")));
+                server.start();
+                LOGGER.info("Serving metrics on http://localhost:" + server.getAddress().getPort() + "/metrics");
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Could not start the metrics endpoint on port " + PORT, e);
+                server = null;
+            }
+        }
+    }
+    
+    /**
+     * Stops the exports, writing the file one last time.
+     */
+    public static synchronized void stop() {
+        if (fileExporter != null) {
+            fileExporter.shutdownNow();
+            fileExporter = null;
+            exportToFile();
+        }
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+    
+    /**
+     * Writes the current metrics to {@code file}, replacing it, as JSON if the name ends in
+     * {@code .json} and as Prometheus text otherwise.
+     */
+    public static void writeTo(Path file) throws IOException {
+        List<Metrics.Metric> metrics = Metrics.getInstance().snapshot();
+        String text = file.getFileName().toString().endsWith(".json") ? toJson(metrics) : toPrometheus(metrics);
+        Path absolute = file.toAbsolutePath();
+        // Write beside the target and move it into place, so readers never see a partial file
+        Path temp = Files.createTempFile(absolute.getParent(), "metrics", ".tmp");
+        try {
+            Files.writeString(temp, text, StandardCharsets.UTF_8);
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    /**
+     * Formats metrics in the Prometheus text exposition format. Timers become histograms with
+     * cumulative buckets in seconds.
+     */
+    public static String toPrometheus(List<Metrics.Metric> metrics) {
+        StringBuilder out = new StringBuilder();
+        String family = null;
+        for (Metrics.Metric metric : metrics) {
+            String name = PREFIX + metric.getName();
+            if (!metric.getName().equals(family)) {
+                family = metric.getName();
+                out.append("# HELP ").append(name).append(' ').append(metric.getHelp()).append('\n');
+                out.append("# TYPE ").append(name).append(' ').append(type(metric)).append('\n');
+            }
+            
+            if (metric instanceof Metrics.Timer) {
+                Metrics.Timer timer = (Metrics.Timer) metric;
+                long[] bounds = Metrics.Timer.getBucketBoundsNanos();
+                long[] counts = timer.getBucketCounts();
+                long cumulative = 0;
+                for (int i = 0; i < counts.length; i++) {
+                    cumulative += counts[i];
+                    String le = i < bounds.length ? number(bounds[i] / 1e9) : "+Inf";
+                    out.append(name).append("_bucket").append(labels(metric, "le", le)).append(' ')
+                       .append(cumulative).append('\n');
+                }
+                out.append(name).append("_sum").append(labels(metric, null, null)).append(' ')
+                   .append(number(timer.getSumNanos() / 1e9)).append('\n');
+                out.append(name).append("_count").append(labels(metric, null, null)).append(' ')
+                   .append(cumulative).append('\n');
+            } else {
+                out.append(name).append(labels(metric, null, null)).append(' ').append(value(metric)).append('\n');
+            }
+        }
+        return out.toString();
+    }
+    
+    /**
+     * Formats metrics as a JSON object with a timestamp and one entry per metric. Timers report
+     * count, sum, mean, maximum and estimated percentiles in seconds.
+     */
+    public static String toJson(List<Metrics.Metric> metrics) {
+        StringBuilder out = new StringBuilder();
+        out.append("{\n  \"timestamp\": \"").append(Instant.now()).append("\",\n  \"metrics\": [");
+        for (int i = 0; i < metrics.size(); i++) {
+            Metrics.Metric metric = metrics.get(i);
+            out.append(i == 0 ? "\n" : ",\n");
+            out.append("    {\"name\": ").append(quote(metric.getName()))
+               .append(", \"type\": ").append(quote(type(metric)));
+            if (metric.getLabelName() != null) {
+                out.append(", \"labels\": {").append(quote(metric.getLabelName())).append(": ")
+                   .append(quote(metric.getLabelValue())).append('}');
+            }
+            
+            if (metric instanceof Metrics.Timer) {
+                Metrics.Timer timer = (Metrics.Timer) metric;
+                out.append(", \"count\": ").append(timer.getCount())
+                   .append(", \"sumSeconds\": ").append(number(timer.getSumNanos() / 1e9))
+                   .append(", \"meanSeconds\": ").append(number(timer.getMeanNanos() / 1e9))
+                   .append(", \"maxSeconds\": ").append(number(timer.getMaxNanos() / 1e9))
+                   .append(", \"p50Seconds\": ").append(number(timer.getPercentileNanos(0.5) / 1e9))
+                   .append(", \"p95Seconds\": ").append(number(timer.getPercentileNanos(0.95) / 1e9))
+                   .append(", \"p99Seconds\": ").append(number(timer.getPercentileNanos(0.99) / 1e9));
+            } else {
+                out.append(", \"value\": ").append(value(metric));
+            }
+            out.append('}');
+        }
+        out.append(metrics.isEmpty() ? "]\n}\n" : "\n  ]\n}\n");
+        return out.toString();
+    }
+    
+    private static void exportToFile() {
+        try {
+            writeTo(Path.of(FILE));
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not write metrics to " + FILE, e);
+        }
+    }
+    
+    private static void respond(HttpExchange exchange, boolean json) throws IOException {
+        List<Metrics.Metric> metrics = Metrics.getInstance().snapshot();
+        byte[] body = (json ? toJson(metrics) : toPrometheus(metrics)).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type",
+            json ? "application/json" : "text/plain; version=0.0.4; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+    
+    private static String type(Metrics.Metric metric) {
+        if (metric instanceof Metrics.Timer) {
+            return "histogram";
+        }
+        return metric instanceof Metrics.Counter ? "counter" : "gauge";
+    }
+    
+    private static String value(Metrics.Metric metric) {
+        if (metric instanceof Metrics.Counter) {
+            return Long.toString(((Metrics.Counter) metric).getValue());
+        }
+        return number(((Metrics.Gauge) metric).getValue());
+    }
+    
+    private static String labels(Metrics.Metric metric, String extraName, String extraValue) {
+        StringBuilder labels = new StringBuilder();
+        if (metric.getLabelName() != null) {
+            labels.append(metric.getLabelName()).append("=\"").append(escapeLabel(metric.getLabelValue())).append('"');
+        }
+        if (extraName != null) {
+            if (labels.length() > 0) {
+                labels.append(',');
+            }
+            labels.append(extraName).append("=\"").append(extraValue).append('"');
+        }
+        return labels.length() == 0 ? "" : "{" + labels + "}";
+    }
+    
+    private static String number(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return "0";
+        }
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+    
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+    
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
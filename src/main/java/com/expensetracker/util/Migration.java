@@ -0,0 +1,50 @@
+package com.expensetracker.util;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * A single versioned schema change applied by {@link SchemaMigrator}.
+ */
+public interface Migration {
+    
+    /**
+     * Schema version this migration upgrades the database to. Versions are applied in ascending order.
+     */
+    int getVersion();
+    
+    String getDescription();
+    
+    /**
+     * Applies the change. Runs inside a transaction that also records the new schema version,
+     * so it must not commit or change the auto-commit mode.
+     */
+    void apply(Connection conn) throws SQLException;
+    
+    /**
+     * Creates a migration that executes the given SQL statements in order.
+     */
+    static Migration of(int version, String description, String... statements) {
+        return new Migration() {
+            @Override
+            public int getVersion() {
+                return version;
+            }
+            
+            @Override
+            public String getDescription() {
+                return description;
+            }
+            
+            @Override
+            public void apply(Connection conn) throws SQLException {
+                try (Statement stmt = conn.createStatement()) {
+                    for (String sql : statements) {
+                        stmt.execute(sql);
+                    }
+                }
+            }
+        };
+    }
+}
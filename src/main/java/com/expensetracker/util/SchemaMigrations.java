@@ -0,0 +1,367 @@
+package com.expensetracker.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Ordered list of every schema migration. Append new steps with the next version number;
+ * never change a step that has already shipped.
+ */
+public final class SchemaMigrations {
+    
+    /**
+     * Recomputes {@code monthly_category_totals} from the expenses table in one grouped pass.
+     * The table must be empty beforehand.
+     */
+    public static final String MONTHLY_TOTALS_REBUILD_SQL =
+        "INSERT INTO monthly_category_totals (category_id, year, month, total_cents, expense_count) " +
+        "SELECT category_id, " + yearOf("epoch_day") + ", " + monthOf("epoch_day") + ", " +
+        "SUM(amount_cents), COUNT(*) FROM expenses GROUP BY 1, 2, 3";
+    
+    private SchemaMigrations() {
+    }
+    
+    public static List<Migration> all() {
+        return List.of(
+            // Baseline schema. IF NOT EXISTS adopts databases created before versioning existed.
+            Migration.of(1, "Create categories, budgets and expenses tables",
+                """
+                CREATE TABLE IF NOT EXISTS categories (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    name TEXT UNIQUE NOT NULL,
+                    color TEXT NOT NULL
+                )
+                """,
+                """
+                CREATE TABLE IF NOT EXISTS budgets (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    category_id INTEGER NOT NULL,
+                    amount REAL NOT NULL,
+                    month INTEGER NOT NULL,
+                    year INTEGER NOT NULL,
+                    FOREIGN KEY (category_id) REFERENCES categories (id),
+                    UNIQUE(category_id, month, year)
+                )
+                """,
+                """
+                CREATE TABLE IF NOT EXISTS expenses (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    amount REAL NOT NULL,
+                    category_id INTEGER NOT NULL,
+                    date TEXT NOT NULL,
+                    notes TEXT,
+                    FOREIGN KEY (category_id) REFERENCES categories (id)
+                )
+                """),
+            
+            // Month views filter on a half-open date range; the second index also covers
+            // per-category totals (and category-only lookups through its prefix)
+            Migration.of(2, "Index expenses by date and by category, date and amount",
+                "CREATE INDEX IF NOT EXISTS idx_expenses_date ON expenses (date)",
+                "CREATE INDEX IF NOT EXISTS idx_expenses_category_date_amount ON expenses (category_id, date, amount)"),
+            
+            new ExpenseStorageMigration(),
+            
+            Migration.of(4, "Store budget amounts as integer cents",
+                """
+                CREATE TABLE budgets_new (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    category_id INTEGER NOT NULL,
+                    amount_cents INTEGER NOT NULL,
+                    month INTEGER NOT NULL,
+                    year INTEGER NOT NULL,
+                    FOREIGN KEY (category_id) REFERENCES categories (id),
+                    UNIQUE(category_id, month, year)
+                )
+                """,
+                "INSERT INTO budgets_new (id, category_id, amount_cents, month, year) " +
+                "SELECT id, category_id, CAST(ROUND(amount * 100) AS INTEGER), month, year FROM budgets",
+                "DELETE FROM sqlite_sequence WHERE name = 'budgets_new'",
+                "INSERT INTO sqlite_sequence (name, seq) SELECT 'budgets_new', seq FROM sqlite_sequence WHERE name = 'budgets'",
+                "DROP TABLE budgets",
+                "ALTER TABLE budgets_new RENAME TO budgets"),
+            
+            // Per-category monthly rollup kept in step with expenses by triggers, so budget
+            // checks and summaries read one row instead of summing the month's expenses
+            Migration.of(5, "Maintain monthly category totals",
+                """
+                CREATE TABLE monthly_category_totals (
+                    category_id INTEGER NOT NULL,
+                    year INTEGER NOT NULL,
+                    month INTEGER NOT NULL,
+                    total_cents INTEGER NOT NULL,
+                    expense_count INTEGER NOT NULL,
+                    PRIMARY KEY (category_id, year, month)
+                ) WITHOUT ROWID
+                """,
+                "CREATE INDEX idx_monthly_totals_month ON monthly_category_totals (year, month)",
+                """
+                CREATE TRIGGER trg_expenses_totals_insert AFTER INSERT ON expenses
+                BEGIN
+                    %s
+                END
+                """.formatted(addToTotals("NEW")),
+                """
+                CREATE TRIGGER trg_expenses_totals_delete AFTER DELETE ON expenses
+                BEGIN
+                    %s
+                END
+                """.formatted(removeFromTotals("OLD")),
+                """
+                CREATE TRIGGER trg_expenses_totals_update AFTER UPDATE OF amount_cents, category_id, epoch_day ON expenses
+                BEGIN
+                    %s
+                    %s
+                END
+                """.formatted(removeFromTotals("OLD"), addToTotals("NEW")),
+                MONTHLY_TOTALS_REBUILD_SQL),
+            
+            new ExpenseFingerprintMigration(),
+            
+            new ExpenseSearchMigration()
+        );
+    }
+    
+    private static String yearOf(String epochDay) {
+        return "CAST(strftime('%Y', " + epochDay + " * 86400, 'unixepoch') AS INTEGER)";
+    }
+    
+    private static String monthOf(String epochDay) {
+        return "CAST(strftime('%m', " + epochDay + " * 86400, 'unixepoch') AS INTEGER)";
+    }
+    
+    private static String addToTotals(String row) {
+        return "INSERT INTO monthly_category_totals (category_id, year, month, total_cents, expense_count) " +
+               "VALUES (" + row + ".category_id, " + yearOf(row + ".epoch_day") + ", " +
+               monthOf(row + ".epoch_day") + ", " + row + ".amount_cents, 1) " +
+               "ON CONFLICT (category_id, year, month) DO UPDATE SET " +
+               "total_cents = total_cents + excluded.total_cents, expense_count = expense_count + 1;";
+    }
+    
+    private static String removeFromTotals(String row) {
+        String key = "category_id = " + row + ".category_id AND year = " + yearOf(row + ".epoch_day") +
+                     " AND month = " + monthOf(row + ".epoch_day");
+        return "UPDATE monthly_category_totals SET total_cents = total_cents - " + row + ".amount_cents, " +
+               "expense_count = expense_count - 1 WHERE " + key + ";\n" +
+               "DELETE FROM monthly_category_totals WHERE " + key + " AND expense_count = 0;";
+    }
+    
+    /**
+     * Rewrites expenses with integer cents and epoch-day dates. The table can be large,
+     * so rows are copied into the new table in id order, one chunk per transaction.
+     */
+    private static class ExpenseStorageMigration implements ChunkedMigration {
+        
+        @Override
+        public int getVersion() {
+            return 3;
+        }
+        
+        @Override
+        public String getDescription() {
+            return "Store expense amounts as integer cents and dates as epoch days";
+        }
+        
+        @Override
+        public void apply(Connection conn) throws SQLException {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("""
+                    CREATE TABLE IF NOT EXISTS expenses_new (
+                        id INTEGER PRIMARY KEY AUTOINCREMENT,
+                        amount_cents INTEGER NOT NULL,
+                        category_id INTEGER NOT NULL,
+                        epoch_day INTEGER NOT NULL,
+                        notes TEXT,
+                        FOREIGN KEY (category_id) REFERENCES categories (id)
+                    )
+                    """);
+            }
+        }
+        
+        @Override
+        public long applyChunk(Connection conn, long afterKey, int chunkSize) throws SQLException {
+            // julianday() of an ISO date is midnight, i.e. N.5; 2440587.5 is 1970-01-01
+            String copy = "INSERT INTO expenses_new (id, amount_cents, category_id, epoch_day, notes) " +
+                         "SELECT id, CAST(ROUND(amount * 100) AS INTEGER), category_id, " +
+                         "CAST(julianday(date) - 2440587.5 AS INTEGER), notes " +
+                         "FROM expenses WHERE id > ? ORDER BY id LIMIT ?";
+            
+            try (PreparedStatement stmt = conn.prepareStatement(copy)) {
+                stmt.setLong(1, afterKey);
+                stmt.setInt(2, chunkSize);
+                if (stmt.executeUpdate() == 0) {
+                    return DONE;
+                }
+            }
+            
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT MAX(id) FROM expenses_new")) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+        
+        @Override
+        public void finish(Connection conn) throws SQLException {
+            try (Statement stmt = conn.createStatement()) {
+                // Keep AUTOINCREMENT from reusing ids of expenses deleted before the upgrade
+                stmt.execute("DELETE FROM sqlite_sequence WHERE name = 'expenses_new'");
+                stmt.execute("INSERT INTO sqlite_sequence (name, seq) " +
+                             "SELECT 'expenses_new', seq FROM sqlite_sequence WHERE name = 'expenses'");
+                stmt.execute("DROP TABLE expenses");
+                stmt.execute("ALTER TABLE expenses_new RENAME TO expenses");
+                stmt.execute("CREATE INDEX idx_expenses_date ON expenses (epoch_day)");
+                stmt.execute("CREATE INDEX idx_expenses_category_date_amount " +
+                             "ON expenses (category_id, epoch_day, amount_cents)");
+            }
+        }
+    }
+    
+    /**
+     * Adds the indexed {@code fingerprint} column used to detect duplicate imports. SQLite has no
+     * suitable hash function, so existing rows are fingerprinted in Java, one chunk at a time.
+     */
+    private static class ExpenseFingerprintMigration implements ChunkedMigration {
+        
+        @Override
+        public int getVersion() {
+            return 6;
+        }
+        
+        @Override
+        public String getDescription() {
+            return "Fingerprint expenses for duplicate detection";
+        }
+        
+        @Override
+        public void apply(Connection conn) throws SQLException {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("ALTER TABLE expenses ADD COLUMN fingerprint INTEGER");
+                stmt.execute("CREATE INDEX idx_expenses_fingerprint ON expenses (fingerprint)");
+            }
+        }
+        
+        @Override
+        public long applyChunk(Connection conn, long afterKey, int chunkSize) throws SQLException {
+            long lastId = DONE;
+            try (PreparedStatement select = conn.prepareStatement(
+                     "SELECT id, epoch_day, amount_cents, notes FROM expenses WHERE id > ? ORDER BY id LIMIT ?");
+                 PreparedStatement update = conn.prepareStatement(
+                     "UPDATE expenses SET fingerprint = ? WHERE id = ?")) {
+                select.setLong(1, afterKey);
+                select.setInt(2, chunkSize);
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        lastId = rs.getLong(1);
+                        update.setLong(1, ExpenseFingerprint.of(rs.getLong(2), rs.getLong(3), rs.getString(4)));
+                        update.setLong(2, lastId);
+                        update.addBatch();
+                    }
+                }
+                if (lastId != DONE) {
+                    update.executeBatch();
+                }
+            }
+            return lastId;
+        }
+        
+        @Override
+        public void finish(Connection conn) {
+        }
+    }
+    
+    /**
+     * Creates the {@code expense_search} FTS5 index over expense notes and category names, keyed
+     * by expense id, with triggers that keep it in step with both tables. Existing expenses are
+     * indexed in id order, one chunk per transaction.
+     */
+    private static class ExpenseSearchMigration implements ChunkedMigration {
+        
+        @Override
+        public int getVersion() {
+            return 7;
+        }
+        
+        @Override
+        public String getDescription() {
+            return "Index expense notes and category names for full-text search";
+        }
+        
+        @Override
+        public void apply(Connection conn) throws SQLException {
+            try (Statement stmt = conn.createStatement()) {
+                // Prefix indexes make short as-you-type prefixes a single index lookup
+                stmt.execute("CREATE VIRTUAL TABLE expense_search USING fts5(" +
+                             "notes, category, tokenize = 'unicode61 remove_diacritics 2', prefix = '2 3')");
+                stmt.execute("""
+                    CREATE TRIGGER trg_expenses_search_insert AFTER INSERT ON expenses
+                    BEGIN
+                        INSERT INTO expense_search (rowid, notes, category)
+                        VALUES (NEW.id, NEW.notes, (SELECT name FROM categories WHERE id = NEW.category_id));
+                    END
+                    """);
+                stmt.execute("""
+                    CREATE TRIGGER trg_expenses_search_delete AFTER DELETE ON expenses
+                    BEGIN
+                        DELETE FROM expense_search WHERE rowid = OLD.id;
+                    END
+                    """);
+                stmt.execute("""
+                    CREATE TRIGGER trg_expenses_search_update AFTER UPDATE OF notes, category_id ON expenses
+                    BEGIN
+                        UPDATE expense_search
+                        SET notes = NEW.notes, category = (SELECT name FROM categories WHERE id = NEW.category_id)
+                        WHERE rowid = NEW.id;
+                    END
+                    """);
+                stmt.execute("""
+                    CREATE TRIGGER trg_categories_search_rename AFTER UPDATE OF name ON categories
+                    BEGIN
+                        UPDATE expense_search SET category = NEW.name
+                        WHERE rowid IN (SELECT id FROM expenses WHERE category_id = NEW.id);
+                    END
+                    """);
+            }
+        }
+        
+        @Override
+        public long applyChunk(Connection conn, long afterKey, int chunkSize) throws SQLException {
+            long lastId = DONE;
+            try (PreparedStatement select = conn.prepareStatement(
+                     "SELECT MAX(id) FROM (SELECT id FROM expenses WHERE id > ? ORDER BY id LIMIT ?)")) {
+                select.setLong(1, afterKey);
+                select.setInt(2, chunkSize);
+                try (ResultSet rs = select.executeQuery()) {
+                    if (rs.next() && rs.getObject(1) != null) {
+                        lastId = rs.getLong(1);
+                    }
+                }
+            }
+            if (lastId == DONE) {
+                return DONE;
+            }
+            
+            try (PreparedStatement stmt = conn.prepareStatement(
+                     "INSERT INTO expense_search (rowid, notes, category) " +
+                     "SELECT e.id, e.notes, c.name FROM expenses e LEFT JOIN categories c ON c.id = e.category_id " +
+                     "WHERE e.id > ? AND e.id <= ?")) {
+                stmt.setLong(1, afterKey);
+                stmt.setLong(2, lastId);
+                stmt.executeUpdate();
+            }
+            return lastId;
+        }
+        
+        @Override
+        public void finish(Connection conn) throws SQLException {
+            try (Statement stmt = conn.createStatement()) {
+                // Merge the per-chunk index segments so the first searches do not pay for it
+                stmt.execute("INSERT INTO expense_search (expense_search) VALUES ('optimize')");
+            }
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.expensetracker.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Applies ordered {@link Migration}s to bring a database up to the latest schema version.
+ * <p>
+ * The current version is tracked in {@code PRAGMA user_version}. Every plain migration runs in
+ * one transaction together with the version bump, so a failed step leaves the database at the
+ * previous version. {@link ChunkedMigration}s commit after every chunk and record their progress
+ * in {@code schema_migration_progress} so they can resume after an interruption.
+ */
+public class SchemaMigrator {
+    private static final Logger LOGGER = Logger.getLogger(SchemaMigrator.class.getName());
+    
+    /**
+     * Receives progress of chunked data rewrites.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onChunkCommitted(Migration migration, int chunksCommitted, long lastKey);
+    }
+    
+    private final List<Migration> migrations;
+    private final int chunkSize;
+    private final ProgressListener listener;
+    
+    public SchemaMigrator(List<Migration> migrations, int chunkSize) {
+        this(migrations, chunkSize, (migration, chunks, lastKey) -> { });
+    }
+    
+    public SchemaMigrator(List<Migration> migrations, int chunkSize, ProgressListener listener) {
+        List<Migration> sorted = new ArrayList<>(migrations);
+        sorted.sort(Comparator.comparingInt(Migration::getVersion));
+        for (int i = 0; i < sorted.size(); i++) {
+            int version = sorted.get(i).getVersion();
+            if (version <= 0 || (i > 0 && version == sorted.get(i - 1).getVersion())) {
+                throw new IllegalArgumentException("Migration versions must be positive and unique: " + version);
+            }
+        }
+        this.migrations = sorted;
+        this.chunkSize = chunkSize;
+        this.listener = listener;
+    }
+    
+    public int getLatestVersion() {
+        return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).getVersion();
+    }
+    
+    /**
+     * Applies every migration newer than the database's current version.
+     *
+     * @return one result per migration applied during this call, in order
+     */
+    public List<MigrationResult> migrate(Connection conn) throws SQLException {
+        int currentVersion = getUserVersion(conn);
+        if (currentVersion > getLatestVersion()) {
+            throw new SQLException("Database schema version " + currentVersion +
+                                   " is newer than the latest supported version " + getLatestVersion());
+        }
+        
+        List<MigrationResult> results = new ArrayList<>();
+        for (Migration migration : migrations) {
+            if (migration.getVersion() <= currentVersion) {
+                continue;
+            }
+            
+            long start = System.nanoTime();
+            int chunks;
+            if (migration instanceof ChunkedMigration) {
+                chunks = applyChunked(conn, (ChunkedMigration) migration);
+            } else {
+                inTransaction(conn, () -> {
+                    migration.apply(conn);
+                    setUserVersion(conn, migration.getVersion());
+                });
+                chunks = 0;
+            }
+            long durationMillis = (System.nanoTime() - start) / 1_000_000;
+            
+            MigrationResult result = new MigrationResult(migration.getVersion(), migration.getDescription(),
+                                                         durationMillis, chunks);
+            LOGGER.info("Applied schema migration " + result);
+            results.add(result);
+            currentVersion = migration.getVersion();
+        }
+        return results;
+    }
+    
+    private int applyChunked(Connection conn, ChunkedMigration migration) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_migration_progress (" +
+                         "version INTEGER PRIMARY KEY, last_key INTEGER NOT NULL)");
+        }
+        
+        Long resumeKey = readProgress(conn, migration.getVersion());
+        long lastKey;
+        if (resumeKey == null) {
+            lastKey = migration.initialKey();
+            long initialKey = lastKey;
+            inTransaction(conn, () -> {
+                migration.apply(conn);
+                writeProgress(conn, migration.getVersion(), initialKey);
+            });
+        } else {
+            lastKey = resumeKey;
+            LOGGER.info("Resuming schema migration " + migration.getVersion() + " after key " + lastKey);
+        }
+        
+        int chunks = 0;
+        while (true) {
+            long afterKey = lastKey;
+            long[] processed = new long[1];
+            inTransaction(conn, () -> {
+                processed[0] = migration.applyChunk(conn, afterKey, chunkSize);
+                if (processed[0] != ChunkedMigration.DONE) {
+                    writeProgress(conn, migration.getVersion(), processed[0]);
+                }
+            });
+            if (processed[0] == ChunkedMigration.DONE) {
+                break;
+            }
+            lastKey = processed[0];
+            chunks++;
+            listener.onChunkCommitted(migration, chunks, lastKey);
+        }
+        
+        inTransaction(conn, () -> {
+            migration.finish(conn);
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "DELETE FROM schema_migration_progress WHERE version = ?")) {
+                stmt.setInt(1, migration.getVersion());
+                stmt.executeUpdate();
+            }
+            setUserVersion(conn, migration.getVersion());
+        });
+        return chunks;
+    }
+    
+    public static int getUserVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+    
+    private static void setUserVersion(Connection conn, int version) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA user_version = " + version);
+        }
+    }
+    
+    private static Long readProgress(Connection conn, int version) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT last_key FROM schema_migration_progress WHERE version = ?")) {
+            stmt.setInt(1, version);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : null;
+            }
+        }
+    }
+    
+    private static void writeProgress(Connection conn, int version, long lastKey) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT OR REPLACE INTO schema_migration_progress (version, last_key) VALUES (?, ?)")) {
+            stmt.setInt(1, version);
+            stmt.setLong(2, lastKey);
+            stmt.executeUpdate();
+        }
+    }
+    
+    private static void inTransaction(Connection conn, SqlAction action) throws SQLException {
+        conn.setAutoCommit(false);
+        try {
+            action.run();
+            conn.commit();
+        } catch (Throwable e) {
+            // Roll back before auto-commit is restored, which would otherwise commit the partial step
+            rollback(conn, e);
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+    
+    private static void rollback(Connection conn, Throwable cause) {
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+    
+    @FunctionalInterface
+    private interface SqlAction {
+        void run() throws SQLException;
+    }
+    
+    /**
+     * Outcome of one applied migration.
+     */
+    public static class MigrationResult {
+        private final int version;
+        private final String description;
+        private final long durationMillis;
+        private final int chunks;
+        
+        public MigrationResult(int version, String description, long durationMillis, int chunks) {
+            this.version = version;
+            this.description = description;
+            this.durationMillis = durationMillis;
+            this.chunks = chunks;
+        }
+        
+        public int getVersion() {
+            return version;
+        }
+        
+        public String getDescription() {
+            return description;
+        }
+        
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+        
+        public int getChunks() {
+            return chunks;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("v%d '%s' in %d ms (%d chunks)", version, description, durationMillis, chunks);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.expensetracker.util;
+
+import jdk.jfr.EventType;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Logs SQL statements that take longer than {@code diagnostics.slowQueryMillis} (default 500,
+ * 0 turns it off) to the {@link DiagnosticsLog}, with their bound parameters and the
+ * {@code EXPLAIN QUERY PLAN} output.
+ * <p>
+ * {@link ConnectionPool} wraps every statement it creates, so this covers all DAOs without
+ * changing them. For {@code executeQuery} the time measured is until the result set is returned,
+ * which in SQLite includes finding the first row but not reading the rest. A batch is logged
+ * once for the whole {@code executeBatch}, without parameters: once a statement is batched its
+ * parameters are no longer recorded, since imports bind millions of them. Hot batch paths bind
+ * their rows on {@code unwrap(PreparedStatement.class)}, which bypasses the wrapper entirely.
+ * <p>
+ * The same wrapper records a {@link FlightEvents.SqlStatement} event for each execution while a
+ * flight recording has it enabled.
+ */
+public class SlowQueryLog {
+    private static final Logger LOGGER = Logger.getLogger(SlowQueryLog.class.getName());
+    private static final long THRESHOLD_MILLIS = Long.getLong("diagnostics.slowQueryMillis", 500L);
+    private static final int MAX_PARAMETER_LENGTH = 200;
+    private static final Metrics.Counter SLOW_QUERIES = Metrics.getInstance().counter(
+        "db_slow_queries_total", "SQL statements slower than diagnostics.slowQueryMillis", null, null);
+    private static final EventType SQL_STATEMENT_EVENT = EventType.getEventType(FlightEvents.SqlStatement.class);
+    private static SlowQueryLog instance;
+    
+    private final long thresholdNanos;
+    private final Logger logger;
+    
+    SlowQueryLog(long thresholdNanos, Logger logger) {
+        this.thresholdNanos = thresholdNanos;
+        this.logger = logger;
+    }
+    
+    public static synchronized SlowQueryLog getInstance() {
+        if (instance == null) {
+            instance = new SlowQueryLog(THRESHOLD_MILLIS * 1_000_000, DiagnosticsLog.getLogger());
+        }
+        return instance;
+    }
+    
+    /**
+     * Whether statements need wrapping: slow statements are logged, or a flight recording has
+     * the {@link FlightEvents.SqlStatement} event enabled.
+     */
+    public boolean isEnabled() {
+        return thresholdNanos > 0 || SQL_STATEMENT_EVENT.isEnabled();
+    }
+    
+    /**
+     * Returns a statement that times its {@code execute} calls.
+     *
+     * @param connection the connection the plan is explained on
+     */
+    public Statement wrap(Statement statement, Connection connection) {
+        return (Statement) Proxy.newProxyInstance(SlowQueryLog.class.getClassLoader(),
+            new Class<?>[] { Statement.class }, new TimedStatement(statement, null, connection));
+    }
+    
+    /**
+     * Returns a prepared statement that records its parameters, unless it is batched, and times
+     * its {@code execute} calls.
+     *
+     * @param connection the connection the plan is explained on
+     */
+    public PreparedStatement wrap(PreparedStatement statement, String sql, Connection connection) {
+        return (PreparedStatement) Proxy.newProxyInstance(SlowQueryLog.class.getClassLoader(),
+            new Class<?>[] { PreparedStatement.class }, new TimedStatement(statement, sql, connection));
+    }
+    
+    private void log(String sql, Map<Integer, Object> parameters, int batchSize, long elapsedNanos,
+                     Connection connection) {
+        SLOW_QUERIES.add(1);
+        StringBuilder message = new StringBuilder();
+        message.append(String.format("Slow SQL statement (%.1f ms", elapsedNanos / 1e6));
+        if (batchSize > 0) {
+            message.append(", batch of ").append(batchSize);
+        }
+        message.append("): ").append(sql.strip());
+        if (!parameters.isEmpty()) {
+            message.append("\n  parameters: ").append(formatParameters(parameters));
+        }
+        message.append("\n  plan:");
+        explain(sql, parameters, connection, message);
+        logger.warning(message.toString());
+    }
+    
+    /**
+     * Appends the query plan, indenting each step under its parent.
+     */
+    private void explain(String sql, Map<Integer, Object> parameters, Connection connection, StringBuilder out) {
+        Map<Integer, Integer> depths = new HashMap<>();
+        try (PreparedStatement stmt = connection.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            for (Map.Entry<Integer, Object> parameter : parameters.entrySet()) {
+                stmt.setObject(parameter.getKey(), parameter.getValue());
+            }
+            boolean empty = true;
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int depth = depths.getOrDefault(rs.getInt("parent"), 0) + 1;
+                    depths.put(rs.getInt("id"), depth);
+                    out.append('\n').append("  ".repeat(depth + 1)).append(rs.getString("detail"));
+                    empty = false;
+                }
+            }
+            if (empty) {
+                out.append(" (none)");
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Could not explain " + sql, e);
+            out.append(" unavailable (").append(e.getMessage()).append(')');
+        }
+    }
+    
+    private static String formatParameters(Map<Integer, Object> parameters) {
+        StringBuilder out = new StringBuilder();
+        parameters.forEach((index, value) -> {
+            if (out.length() > 0) {
+                out.append(' ');
+            }
+            out.append(index).append('=').append(format(value));
+        });
+        return out.toString();
+    }
+    
+    /**
+     * Rows changed according to the result of an {@code execute} call; 0 for a query.
+     */
+    private static long updateCount(Object result) {
+        if (result instanceof Number) {
+            return ((Number) result).longValue();
+        }
+        long total = 0;
+        if (result instanceof int[]) {
+            for (int count : (int[]) result) {
+                total += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(0, count);
+            }
+        } else if (result instanceof long[]) {
+            for (long count : (long[]) result) {
+                total += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(0, count);
+            }
+        }
+        return total;
+    }
+    
+    /**
+     * Statements in a batch according to the result of {@code executeBatch}; 0 for other calls.
+     * Counted from the result so that rows added on the unwrapped statement are included too.
+     */
+    private static int batchSize(Object result) {
+        if (result instanceof int[]) {
+            return ((int[]) result).length;
+        }
+        if (result instanceof long[]) {
+            return ((long[]) result).length;
+        }
+        return 0;
+    }
+    
+    private static String format(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        if (value instanceof String) {
+            String text = (String) value;
+            if (text.length() > MAX_PARAMETER_LENGTH) {
+                text = text.substring(0, MAX_PARAMETER_LENGTH) + "...";
+            }
+            return "'" + text.replace("'", "''") + "'";
+        }
+        if (value instanceof byte[]) {
+            return "<" + ((byte[]) value).length + " bytes>";
+        }
+        return String.valueOf(value);
+    }
+    
+    /**
+     * Proxy handler that remembers the parameters bound with {@code setXxx(index, value)} until
+     * the first {@code addBatch}, and logs {@code execute} calls that exceed the threshold.
+     */
+    private class TimedStatement implements InvocationHandler {
+        private final Statement statement;
+        private final String preparedSql;
+        private final Connection connection;
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+        private boolean batched;
+        
+        TimedStatement(Statement statement, String preparedSql, Connection connection) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+            this.connection = connection;
+        }
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("equals")) {
+                return proxy == args[0];
+            }
+            if (name.equals("hashCode")) {
+                return System.identityHashCode(proxy);
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                if (!batched) {
+                    parameters.put((Integer) args[0], name.equals("setNull") ? null : args[1]);
+                }
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            } else if (name.equals("addBatch")) {
+                batched = true;
+                parameters.clear();
+            } else if (name.startsWith("execute")) {
+                return timeExecute(method, args);
+            }
+            return call(method, args);
+        }
+        
+        private Object timeExecute(Method method, Object[] args) throws Throwable {
+            FlightEvents.SqlStatement event = new FlightEvents.SqlStatement();
+            event.begin();
+            long start = System.nanoTime();
+            Object result = call(method, args);
+            long elapsed = System.nanoTime() - start;
+            event.end();
+            
+            int executedBatchSize = batchSize(result);
+            // Statement.execute(sql) passes its SQL; a prepared statement was given it up front
+            boolean hasSql = args != null && args.length > 0 && args[0] instanceof String;
+            String sql = hasSql ? (String) args[0] : preparedSql;
+            if (sql == null) {
+                return result;
+            }
+            Map<Integer, Object> bound = hasSql ? Map.of() : parameters;
+            
+            if (event.shouldCommit()) {
+                event.sql = sql;
+                event.parameters = formatParameters(bound);
+                event.updateCount = updateCount(result);
+                event.batchSize = executedBatchSize;
+                event.commit();
+            }
+            if (thresholdNanos > 0 && elapsed >= thresholdNanos) {
+                log(sql, bound, executedBatchSize, elapsed, connection);
+            }
+            return result;
+        }
+        
+        private Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
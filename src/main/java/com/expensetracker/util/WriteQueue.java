@@ -0,0 +1,181 @@
+package com.expensetracker.util;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Single writer thread that applies every database mutation.
+ * <p>
+ * Tasks queued while a transaction is being committed are drained together and group-committed
+ * in one transaction on the pool's writer connection. Each task runs inside its own savepoint,
+ * so a failing task is rolled back on its own without affecting the rest of the batch.
+ * Futures complete only after the batch has been committed.
+ */
+public class WriteQueue implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(WriteQueue.class.getName());
+    private static final PendingWrite<Void> SHUTDOWN = new PendingWrite<>(conn -> null);
+    
+    /**
+     * Unit of work executed on the writer connection inside the current batch transaction.
+     * Implementations must not commit, roll back or change the auto-commit mode.
+     */
+    @FunctionalInterface
+    public interface WriteTask<T> {
+        T execute(Connection conn) throws SQLException;
+    }
+    
+    private final ConnectionPool pool;
+    private final int maxBatchSize;
+    private final LinkedBlockingQueue<PendingWrite<?>> queue = new LinkedBlockingQueue<>();
+    private final Thread writerThread;
+    private volatile boolean accepting = true;
+    
+    public WriteQueue(ConnectionPool pool, int maxBatchSize) {
+        this.pool = pool;
+        this.maxBatchSize = maxBatchSize;
+        this.writerThread = new Thread(this::run, "sqlite-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+    
+    /**
+     * Queues a write. The returned future completes with the task's result once the
+     * transaction containing it has been committed, or exceptionally if the task or the commit failed.
+     * Must not be called from within a running task.
+     */
+    public <T> CompletableFuture<T> submit(WriteTask<T> task) {
+        if (Thread.currentThread() == writerThread) {
+            return CompletableFuture.failedFuture(
+                new IllegalStateException("Nested write submitted from the writer thread"));
+        }
+        if (!accepting) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Write queue is closed"));
+        }
+        PendingWrite<T> pending = new PendingWrite<>(task);
+        queue.add(pending);
+        return pending.future;
+    }
+    
+    public int getQueuedCount() {
+        return queue.size();
+    }
+    
+    /**
+     * Stops accepting writes, lets the writer thread finish everything already queued and waits for it.
+     */
+    @Override
+    public void close() {
+        accepting = false;
+        queue.add(SHUTDOWN);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void run() {
+        List<PendingWrite<?>> batch = new ArrayList<>(maxBatchSize);
+        boolean shuttingDown = false;
+        while (!shuttingDown) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            queue.drainTo(batch, maxBatchSize - 1);
+            
+            if (batch.remove(SHUTDOWN)) {
+                shuttingDown = true;
+            }
+            if (!batch.isEmpty()) {
+                commitBatch(batch);
+            }
+            batch.clear();
+        }
+        
+        PendingWrite<?> leftover;
+        while ((leftover = queue.poll()) != null) {
+            leftover.future.completeExceptionally(new IllegalStateException("Write queue is closed"));
+        }
+    }
+    
+    private void commitBatch(List<PendingWrite<?>> batch) {
+        try (Connection conn = pool.borrowWriter()) {
+            conn.setAutoCommit(false);
+            try {
+                for (PendingWrite<?> pending : batch) {
+                    Savepoint savepoint = conn.setSavepoint();
+                    try {
+                        pending.run(conn);
+                        conn.releaseSavepoint(savepoint);
+                    } catch (SQLException | RuntimeException e) {
+                        conn.rollback(savepoint);
+                        pending.failure = e;
+                    }
+                }
+                conn.commit();
+            } catch (Throwable e) {
+                // Turning auto-commit back on would commit what the batch has written so far
+                rollback(conn, e);
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (Throwable e) {
+            // Also catches errors, which must not end the writer thread and leave callers waiting
+            LOGGER.log(Level.SEVERE, "Error committing batch of " + batch.size() + " writes", e);
+            for (PendingWrite<?> pending : batch) {
+                if (pending.failure == null) {
+                    pending.failure = e;
+                }
+            }
+        }
+        
+        for (PendingWrite<?> pending : batch) {
+            pending.complete();
+        }
+    }
+    
+    private static void rollback(Connection conn, Throwable cause) {
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+    
+    /**
+     * A queued task together with its outcome, which is only published after the commit.
+     */
+    private static class PendingWrite<T> {
+        private final WriteTask<T> task;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private T result;
+        private Throwable failure;
+        
+        PendingWrite(WriteTask<T> task) {
+            this.task = task;
+        }
+        
+        void run(Connection conn) throws SQLException {
+            result = task.execute(conn);
+        }
+        
+        void complete() {
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+}
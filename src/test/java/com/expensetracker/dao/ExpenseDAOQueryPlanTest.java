@@ -0,0 +1,84 @@
+package com.expensetracker.dao;
+
+import com.expensetracker.util.DatabaseManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Regression tests asserting that the month queries in ExpenseDAO are answered from indexes
+ * or the monthly totals rollup.
+ */
+public class ExpenseDAOQueryPlanTest {
+    
+    private static final long MARCH_2024 = LocalDate.of(2024, 3, 1).toEpochDay();
+    private static final long APRIL_2024 = LocalDate.of(2024, 4, 1).toEpochDay();
+    
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) {
+        // Set up test database in temp directory with unique name
+        String uniqueDbName = "test_db_" + System.currentTimeMillis() + ".db";
+        System.setProperty("user.dir", tempDir.toString());
+        System.setProperty("test.db.name", uniqueDbName);
+        new ExpenseDAO();
+    }
+    
+    @Test
+    void testFindByMonthSearchesDateIndex() throws SQLException {
+        String plan = explain(ExpenseDAO.FIND_BY_MONTH_SQL, MARCH_2024, APRIL_2024);
+        
+        assertTrue(plan.contains("USING INDEX idx_expenses_date"), plan);
+        assertFalse(plan.contains("SCAN expenses"), plan);
+    }
+    
+    @Test
+    void testFindPageWalksDateIndexWithoutSorting() throws SQLException {
+        String plan = explain(ExpenseDAO.FIND_PAGE_SQL, MARCH_2024, APRIL_2024, APRIL_2024, 42, 200, 0);
+        
+        assertTrue(plan.contains("USING INDEX idx_expenses_date"), plan);
+        assertFalse(plan.contains("TEMP B-TREE"), plan);
+    }
+    
+    @Test
+    void testTotalByCategoryAndMonthReadsOneRollupRow() throws SQLException {
+        String plan = explain(ExpenseDAO.TOTAL_BY_CATEGORY_AND_MONTH_SQL, 1, 2024, 3);
+        
+        assertTrue(plan.contains("SEARCH monthly_category_totals USING PRIMARY KEY"), plan);
+        assertFalse(plan.contains("expenses"), plan);
+    }
+    
+    @Test
+    void testTotalByMonthSearchesRollupIndex() throws SQLException {
+        String plan = explain(ExpenseDAO.TOTAL_BY_MONTH_SQL, 2024, 3);
+        
+        assertTrue(plan.contains("USING INDEX idx_monthly_totals_month"), plan);
+        assertFalse(plan.contains("SCAN"), plan);
+    }
+    
+    private String explain(String sql, Object... params) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Connection conn = DatabaseManager.getInstance().getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    plan.append(rs.getString("detail")).append('\n');
+                }
+            }
+        }
+        return plan.toString();
+    }
+}
@@ -2,6 +2,7 @@ package com.expensetracker.dao;
 
 import com.expensetracker.model.Category;
 import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseRow;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -10,6 +11,8 @@ import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -152,4 +155,121 @@ public class ExpenseDAOTest {
         
         assertEquals(300.0, total, 0.01);
     }
+    
+    @Test
+    void testTotalCentsAreExact() {
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < 10; i++) {
+            expenseDAO.save(new Expense(0.1, testCategory.getId(), today, "Dime " + i));
+        }
+        
+        long totalCents = expenseDAO.getTotalCentsByCategoryAndMonth(testCategory.getId(),
+            today.getMonthValue(), today.getYear());
+        
+        assertEquals(100L, totalCents);
+    }
+    
+    @Test
+    void testSummarizeMonthGroupsByCategoryAndDay() {
+        // Other tests share the database: use fresh categories and compare with the month before
+        Category summarized = new Category("Summary Category " + System.nanoTime(), "#FF0000");
+        Category other = new Category("Other Summary Category " + System.nanoTime(), "#00FF00");
+        categoryDAO.save(summarized);
+        categoryDAO.save(other);
+        LocalDate firstDay = LocalDate.of(2024, 3, 1);
+        LocalDate secondDay = LocalDate.of(2024, 3, 15);
+        ExpenseDAO.MonthSummary before = expenseDAO.summarizeMonth(3, 2024);
+        expenseDAO.save(new Expense(10.0, summarized.getId(), firstDay, "A"));
+        expenseDAO.save(new Expense(25.5, summarized.getId(), secondDay, "B"));
+        expenseDAO.save(new Expense(4.5, other.getId(), secondDay, "C"));
+        expenseDAO.save(new Expense(99.0, summarized.getId(), LocalDate.of(2024, 4, 1), "Next month"));
+        
+        ExpenseDAO.MonthSummary summary = expenseDAO.summarizeMonth(3, 2024);
+        
+        assertEquals(before.getCount() + 3, summary.getCount());
+        assertEquals(before.getTotalCents() + 4000L, summary.getTotalCents());
+        ExpenseDAO.CategorySummary test = summary.getCategories().stream()
+            .filter(c -> c.getCategoryId() == summarized.getId()).findFirst().orElseThrow();
+        assertEquals(2, test.getCount());
+        assertEquals(3550L, test.getTotalCents());
+        assertEquals(1000L, test.getMinCents());
+        assertEquals(2550L, test.getMaxCents());
+        assertEquals(before.getDailyTotalsCents().getOrDefault(firstDay, 0L) + 1000L,
+                     summary.getDailyTotalsCents().get(firstDay).longValue());
+        assertEquals(before.getDailyTotalsCents().getOrDefault(secondDay, 0L) + 3000L,
+                     summary.getDailyTotalsCents().get(secondDay).longValue());
+    }
+    
+    @Test
+    void testFindRowsByMonthMatchesModels() {
+        Expense expense = new Expense(19.99, testCategory.getId(), LocalDate.of(2024, 5, 17), "Row expense");
+        expenseDAO.save(expense);
+        
+        // Other tests may add expenses to the same month
+        List<ExpenseRow> rows = expenseDAO.findRowsByMonth(5, 2024).stream()
+            .filter(r -> r.id() == expense.getId())
+            .collect(Collectors.toList());
+        
+        assertEquals(1, rows.size());
+        ExpenseRow row = rows.get(0);
+        assertEquals(new ExpenseRow(expense.getId(), 1999L, testCategory.getId(),
+                                    LocalDate.of(2024, 5, 17).toEpochDay(), "Row expense"), row);
+        assertEquals(ExpenseRow.of(expense), ExpenseRow.of(row.toExpense()));
+    }
+    
+    @Test
+    void testStreamByDateRangeFiltersAndReleasesConnection() {
+        // Fresh categories, so rows of other tests in the shared database are filtered out
+        Category streamed = new Category("Stream Category " + System.nanoTime(), "#FF0000");
+        Category otherCategory = new Category("Other Stream Category " + System.nanoTime(), "#00FF00");
+        categoryDAO.save(streamed);
+        categoryDAO.save(otherCategory);
+        LocalDate start = LocalDate.of(2023, 6, 1);
+        for (int i = 0; i < 30; i++) {
+            expenseDAO.save(new Expense(1.0 + i, i % 3 == 0 ? otherCategory.getId() : streamed.getId(),
+                                        start.plusDays(i), "Streamed " + i));
+        }
+        
+        List<ExpenseRow> rows;
+        try (Stream<ExpenseRow> stream = expenseDAO.streamByDateRange(start, start.plusDays(19), streamed.getId())) {
+            rows = stream.collect(Collectors.toList());
+        }
+        
+        assertEquals(13, rows.size());
+        assertTrue(rows.stream().allMatch(row -> row.categoryId() == streamed.getId()));
+        assertEquals(start.plusDays(19), rows.get(0).date());
+        
+        // More streams than pooled readers: each partially consumed stream must give its connection back
+        for (int i = 0; i < 10; i++) {
+            try (Stream<ExpenseRow> stream = expenseDAO.streamAll()) {
+                assertTrue(stream.findFirst().isPresent());
+            }
+        }
+    }
+    
+    @Test
+    void testFindRowsPageContinuesAfterLastRow() {
+        LocalDate start = LocalDate.of(2022, 5, 1);
+        // Other tests share the database, so only count what this test adds
+        long monthBefore = expenseDAO.countByMonth(5, 2022);
+        long allBefore = expenseDAO.countAll();
+        for (int i = 0; i < 25; i++) {
+            // Two expenses a day, so pages break between rows of the same date
+            expenseDAO.save(new Expense(1.0 + i, testCategory.getId(), start.plusDays(i / 2), "Paged " + i));
+        }
+        expenseDAO.save(new Expense(5.0, testCategory.getId(), start.plusMonths(1), "Next month"));
+        LocalDate end = start.plusMonths(1).minusDays(1);
+        
+        List<ExpenseRow> all = expenseDAO.findRowsPage(start, end, null, 0, 100);
+        List<ExpenseRow> first = expenseDAO.findRowsPage(start, end, null, 0, 10);
+        List<ExpenseRow> second = expenseDAO.findRowsPage(start, end, first.get(9), 0, 10);
+        List<ExpenseRow> skipped = expenseDAO.findRowsPage(start, end, first.get(9), 10, 10);
+        
+        assertEquals(monthBefore + 25, all.size());
+        assertEquals(all.subList(0, 10), first);
+        assertEquals(all.subList(10, 20), second);
+        assertEquals(all.subList(20, Math.min(30, all.size())), skipped);
+        assertEquals(monthBefore + 25, expenseDAO.countByMonth(5, 2022));
+        assertEquals(allBefore + 26, expenseDAO.countAll());
+    }
 }
@@ -0,0 +1,92 @@
+package com.expensetracker.dao;
+
+import com.expensetracker.model.Category;
+import com.expensetracker.model.Expense;
+import com.expensetracker.util.DatabaseManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the monthly category totals rollup and MonthlyTotalsDAO.
+ */
+public class MonthlyTotalsDAOTest {
+    
+    private ExpenseDAO expenseDAO;
+    private MonthlyTotalsDAO monthlyTotalsDAO;
+    private Category category;
+    private Category otherCategory;
+    
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) {
+        // Set up test database in temp directory with unique name
+        String uniqueDbName = "test_db_" + System.currentTimeMillis() + ".db";
+        System.setProperty("user.dir", tempDir.toString());
+        System.setProperty("test.db.name", uniqueDbName);
+        expenseDAO = new ExpenseDAO();
+        monthlyTotalsDAO = new MonthlyTotalsDAO();
+        
+        CategoryDAO categoryDAO = new CategoryDAO();
+        category = new Category("Totals Category " + System.nanoTime(), "#FF0000");
+        otherCategory = new Category("Other Totals Category " + System.nanoTime(), "#00FF00");
+        categoryDAO.save(category);
+        categoryDAO.save(otherCategory);
+    }
+    
+    @Test
+    void testTotalsFollowInsertUpdateAndDelete() {
+        Expense first = new Expense(10.25, category.getId(), LocalDate.of(2024, 1, 31), "First");
+        Expense second = new Expense(5.0, category.getId(), LocalDate.of(2024, 1, 2), "Second");
+        expenseDAO.save(first);
+        expenseDAO.save(second);
+        
+        assertEquals(1525L, expenseDAO.getTotalCentsByCategoryAndMonth(category.getId(), 1, 2024));
+        
+        // Moving an expense to another month and category shifts it between rollup rows
+        second.setDate(LocalDate.of(2024, 2, 1));
+        second.setCategoryId(otherCategory.getId());
+        second.setAmount(7.5);
+        expenseDAO.save(second);
+        
+        assertEquals(1025L, expenseDAO.getTotalCentsByCategoryAndMonth(category.getId(), 1, 2024));
+        assertEquals(750L, expenseDAO.getTotalCentsByCategoryAndMonth(otherCategory.getId(), 2, 2024));
+        
+        expenseDAO.delete(first.getId());
+        
+        assertEquals(0L, expenseDAO.getTotalCentsByCategoryAndMonth(category.getId(), 1, 2024));
+        assertTrue(monthlyTotalsDAO.verify().isEmpty());
+    }
+    
+    @Test
+    void testVerifyReportsAndRebuildRepairsDrift() {
+        expenseDAO.save(new Expense(20.0, category.getId(), LocalDate.of(2024, 3, 5), "March"));
+        expenseDAO.save(new Expense(30.0, category.getId(), LocalDate.of(2024, 4, 5), "April"));
+        
+        DatabaseManager.getInstance().submitWrite(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "UPDATE monthly_category_totals SET total_cents = 1 WHERE category_id = ? AND month = 3")) {
+                stmt.setInt(1, category.getId());
+                return stmt.executeUpdate();
+            }
+        }).join();
+        
+        List<MonthlyTotalsDAO.Discrepancy> discrepancies = monthlyTotalsDAO.verify();
+        
+        assertEquals(1, discrepancies.size());
+        assertEquals(3, discrepancies.get(0).getMonth());
+        assertEquals(2000L, discrepancies.get(0).getExpectedCents());
+        assertEquals(1L, discrepancies.get(0).getStoredCents());
+        
+        assertTrue(monthlyTotalsDAO.rebuild());
+        
+        assertTrue(monthlyTotalsDAO.verify().isEmpty());
+        assertEquals(2000L, expenseDAO.getTotalCentsByCategoryAndMonth(category.getId(), 3, 2024));
+    }
+}
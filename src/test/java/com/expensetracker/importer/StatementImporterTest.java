@@ -0,0 +1,144 @@
+package com.expensetracker.importer;
+
+import com.expensetracker.dao.CategoryDAO;
+import com.expensetracker.dao.ExpenseDAO;
+import com.expensetracker.model.ExpenseRow;
+import com.expensetracker.util.DatabaseManager;
+import com.expensetracker.util.ExpenseFingerprint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StatementImporter and the OFX and QIF parsers.
+ */
+public class StatementImporterTest {
+    
+    private static final String OFX_HEADER =
+        "OFXHEADER:100\nDATA:OFXSGML\nVERSION:102\n\n<OFX><BANKMSGSRSV1><STMTTRNRS><STMTRS><BANKTRANLIST>\n";
+    private static final String OFX_FOOTER = "</BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>\n";
+    
+    private Path tempDir;
+    private StatementImporter importer;
+    private ExpenseDAO expenseDAO;
+    
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) {
+        // Set up test database in temp directory with unique name
+        String uniqueDbName = "test_db_" + System.currentTimeMillis() + ".db";
+        System.setProperty("user.dir", tempDir.toString());
+        System.setProperty("test.db.name", uniqueDbName);
+        this.tempDir = tempDir;
+        importer = new StatementImporter();
+        expenseDAO = new ExpenseDAO();
+    }
+    
+    @Test
+    void testOfxParserReadsSgmlTransactions() {
+        StatementParser.ParsedStatement statement = new OfxParser().parse(OFX_HEADER +
+            transaction("20230402120000[-5:EST]", "-4.50", "COFFEE &amp; CO", "Card 1234") +
+            transaction("20230403", "2500.00", "PAYROLL", "") +
+            transaction("2023-04", "-1.00", "BROKEN", "") +
+            OFX_FOOTER);
+        
+        assertEquals(2, statement.getTransactions().size());
+        assertEquals(1, statement.getErrors().size());
+        StatementTransaction coffee = statement.getTransactions().get(0);
+        assertEquals(LocalDate.of(2023, 4, 2), coffee.date());
+        assertEquals(-450L, coffee.amountCents());
+        assertEquals("COFFEE & CO - Card 1234", coffee.notes());
+        assertEquals(250000L, statement.getTransactions().get(1).amountCents());
+    }
+    
+    @Test
+    void testQifParserReadsDatesAmountsAndCategories() {
+        StatementParser.ParsedStatement statement = new QifParser().parse(
+            "!Type:Bank\n" +
+            "D4/ 2'23\nT-1,020.10\nPBookshop\nLEducation:Books\n^\n" +
+            "D04/03/2023\nU-12.00\nPTransfer\nL[Savings]\n^\n" +
+            "D13/40/2023\nT-1.00\n^\n");
+        
+        assertEquals(2, statement.getTransactions().size());
+        assertEquals(1, statement.getErrors().size());
+        assertTrue(statement.getErrors().get(0).startsWith("Line 12:"));
+        StatementTransaction books = statement.getTransactions().get(0);
+        assertEquals(LocalDate.of(2023, 4, 2), books.date());
+        assertEquals(-102010L, books.amountCents());
+        assertEquals("Education", books.category());
+        assertEquals("", statement.getTransactions().get(1).category());
+    }
+    
+    @Test
+    void testReimportingOverlappingStatementsAddsOnlyNewTransactions() throws IOException {
+        Path march = tempDir.resolve("march.ofx");
+        Files.writeString(march, OFX_HEADER +
+            transaction("20230301", "-3.00", "Bakery", "") +
+            transaction("20230301", "-3.00", "Bakery", "") +
+            transaction("20230302", "-20.00", "Fuel", "") +
+            OFX_FOOTER);
+        // Overlaps march.ofx with differently formatted notes, and adds one new expense
+        Path overlap = tempDir.resolve("overlap.qif");
+        Files.writeString(overlap, "!Type:Bank\n" +
+            "D3/1/2023\nT-3.00\nPBAKERY\n^\n" +
+            "D3/1/2023\nT-3.00\nP bakery.\n^\n" +
+            "D3/2/2023\nT-20.00\nPFUEL\n^\n" +
+            "D3/3/2023\nT-7.25\nPLunch\n^\n");
+        // Other tests share the database, so compare with the month before importing
+        List<ExpenseRow> before = expenseDAO.findRowsByMonth(3, 2023);
+        
+        List<StatementImporter.FileResult> first = importer.importFiles(List.of(march, overlap), null);
+        assertEquals(3, first.get(0).getImported());
+        assertEquals(1, first.get(1).getImported());
+        assertEquals(3, first.get(1).getDuplicates());
+        
+        List<StatementImporter.FileResult> again = importer.importFiles(List.of(overlap, march), null);
+        assertEquals(0, again.get(0).getImported());
+        assertEquals(4, again.get(0).getDuplicates());
+        assertEquals(0, again.get(1).getImported());
+        
+        List<ExpenseRow> rows = expenseDAO.findRowsByMonth(3, 2023);
+        assertEquals(before.size() + 4, rows.size());
+        assertEquals(before.stream().mapToLong(ExpenseRow::amountCents).sum() + 3325L,
+                     rows.stream().mapToLong(ExpenseRow::amountCents).sum());
+    }
+    
+    @Test
+    void testFingerprintCollisionIsNotADuplicate() throws IOException {
+        LocalDate day = LocalDate.of(2019, 7, 14);
+        long fingerprint = ExpenseFingerprint.of(day.toEpochDay(), 1234L, "Collision check");
+        int categoryId = new CategoryDAO().findByName("Other").orElseThrow().getId();
+        // A stored expense with the same fingerprint but different notes, as a hash collision would leave it
+        DatabaseManager.getInstance().submitWrite(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO expenses (amount_cents, category_id, epoch_day, notes, fingerprint) VALUES (?, ?, ?, ?, ?)")) {
+                stmt.setLong(1, 1234L);
+                stmt.setInt(2, categoryId);
+                stmt.setLong(3, day.toEpochDay());
+                stmt.setString(4, "Not the same purchase");
+                stmt.setLong(5, fingerprint);
+                return stmt.executeUpdate();
+            }
+        }).join();
+        Path statement = tempDir.resolve("collision.qif");
+        Files.writeString(statement, "!Type:Bank\nD7/14/2019\nT-12.34\nPCollision check\n^\n");
+        
+        StatementImporter.FileResult result = importer.importFiles(List.of(statement), null).get(0);
+        
+        assertEquals(1, result.getImported());
+        assertEquals(0, result.getDuplicates());
+    }
+    
+    private static String transaction(String posted, String amount, String name, String memo) {
+        return "<STMTTRN>\n<TRNTYPE>DEBIT\n<DTPOSTED>" + posted + "\n<TRNAMT>" + amount + "\n<FITID>1\n" +
+               "<NAME>" + name + "\n" + (memo.isEmpty() ? "" : "<MEMO>" + memo + "\n") + "</STMTTRN>\n";
+    }
+}
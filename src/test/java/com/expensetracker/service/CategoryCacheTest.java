@@ -0,0 +1,100 @@
+package com.expensetracker.service;
+
+import com.expensetracker.dao.CategoryDAO;
+import com.expensetracker.model.Category;
+import com.expensetracker.util.DatabaseManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CategoryCache.
+ */
+public class CategoryCacheTest {
+    
+    private CategoryDAO categoryDAO;
+    private CategoryCache cache;
+    
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) {
+        // Set up test database in temp directory with unique name
+        String uniqueDbName = "test_db_" + System.currentTimeMillis() + ".db";
+        System.setProperty("user.dir", tempDir.toString());
+        System.setProperty("test.db.name", uniqueDbName);
+        categoryDAO = new CategoryDAO();
+        cache = CategoryCache.getInstance();
+        cache.invalidate();
+    }
+    
+    @Test
+    void testRepeatedLookupsAreServedFromCache() {
+        long misses = cache.getMissCount();
+        long hits = cache.getHitCount();
+        
+        cache.getAll();
+        cache.findByName("Food & Dining");
+        cache.getCategoryMap();
+        
+        assertEquals(misses + 1, cache.getMissCount());
+        assertEquals(hits + 2, cache.getHitCount());
+    }
+    
+    @Test
+    void testChangesToReturnedCategoriesDoNotReachTheCache() {
+        Category category = cache.findByName("Food & Dining").orElseThrow();
+        category.setName("Changed");
+        category.setColor("#000000");
+        
+        assertNotSame(category, cache.findById(category.getId()).orElseThrow());
+        assertEquals("Food & Dining", cache.findRowById(category.getId()).orElseThrow().name());
+        assertTrue(cache.findByName("Food & Dining").isPresent());
+        assertFalse(cache.findByName("Changed").isPresent());
+    }
+    
+    @Test
+    void testFailedLoadIsRetried() {
+        // Without the table the load fails; that must not be cached as an empty category list
+        rename("categories", "categories_hidden");
+        try {
+            assertFalse(cache.findByName("Food & Dining").isPresent());
+        } finally {
+            rename("categories_hidden", "categories");
+        }
+        
+        assertTrue(cache.findByName("Food & Dining").isPresent());
+    }
+    
+    @Test
+    void testSaveAndDeleteInvalidateCache() {
+        String name = "Cached " + System.nanoTime();
+        assertFalse(cache.findByName(name).isPresent());
+        
+        Category category = new Category(name, "#123456");
+        categoryDAO.save(category);
+        
+        assertEquals(name, cache.findById(category.getId()).map(Category::getName).orElse(null));
+        
+        category.setName(name + " renamed");
+        categoryDAO.save(category);
+        
+        assertFalse(cache.findByName(name).isPresent());
+        assertTrue(cache.findByName(name + " renamed").isPresent());
+        
+        categoryDAO.delete(category.getId());
+        
+        assertFalse(cache.findById(category.getId()).isPresent());
+    }
+    
+    private static void rename(String table, String newName) {
+        DatabaseManager.getInstance().submitWrite(conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                return stmt.executeUpdate("ALTER TABLE " + table + " RENAME TO " + newName);
+            }
+        }).join();
+    }
+}
@@ -0,0 +1,116 @@
+package com.expensetracker.service;
+
+import com.expensetracker.dao.CategoryDAO;
+import com.expensetracker.dao.ExpenseDAO;
+import com.expensetracker.model.Category;
+import com.expensetracker.model.Expense;
+import com.expensetracker.util.DatabaseManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ExportService.
+ */
+public class ExportServiceTest {
+    
+    private Path tempDir;
+    private ExportService exportService;
+    private Category category;
+    
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) {
+        // Set up test database in temp directory with unique name
+        String uniqueDbName = "test_db_" + System.currentTimeMillis() + ".db";
+        System.setProperty("user.dir", tempDir.toString());
+        System.setProperty("test.db.name", uniqueDbName);
+        this.tempDir = tempDir;
+        exportService = new ExportService();
+        
+        category = new Category("Export, Category " + System.nanoTime(), "#FF0000");
+        new CategoryDAO().save(category);
+    }
+    
+    @Test
+    void testExportsRangeForCategoryWithQuoting() throws IOException {
+        ExpenseDAO expenseDAO = new ExpenseDAO();
+        expenseDAO.save(new Expense(12.5, category.getId(), LocalDate.of(2024, 2, 10), "Lunch, \"team\""));
+        expenseDAO.save(new Expense(3.0, category.getId(), LocalDate.of(2024, 3, 1), "Outside range"));
+        Path file = tempDir.resolve("export.csv");
+        
+        ExportService.ExportResult result = exportService.exportExpenses(
+            file, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29), category.getId(), null);
+        
+        assertTrue(result.isCompleted());
+        assertEquals(1, result.getRowCount());
+        List<String> lines = Files.readAllLines(file);
+        assertEquals("Date,Category,Amount,Notes", lines.get(0));
+        assertEquals("2024-02-10,\"" + category.getName() + "\",12.50,\"Lunch, \"\"team\"\"\"", lines.get(1));
+        assertEquals(2, lines.size());
+    }
+    
+    @Test
+    void testCancelledExportRemovesFile() {
+        ExpenseDAO expenseDAO = new ExpenseDAO();
+        for (int i = 0; i < 5001; i++) {
+            expenseDAO.saveAsync(new Expense(1.0, category.getId(), LocalDate.of(2024, 1, 1 + i % 28), "Bulk"));
+        }
+        expenseDAO.save(new Expense(1.0, category.getId(), LocalDate.of(2024, 1, 1), "Last"));
+        Path file = tempDir.resolve("cancelled.csv");
+        
+        ExportService.ExportResult result = exportService.exportExpenses(
+            file, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), category.getId(),
+            new ExportService.ProgressListener() {
+                @Override
+                public void onProgress(long rows, double rowsPerSecond) {
+                }
+                
+                @Override
+                public boolean isCancelled() {
+                    return true;
+                }
+            });
+        
+        assertEquals(ExportService.ExportResult.Status.CANCELLED, result.getStatus());
+        assertFalse(Files.exists(file));
+    }
+    
+    @Test
+    void testDatabaseFailureFailsExport() throws Exception {
+        Path file = tempDir.resolve("failed.csv");
+        Path monthlyFile = tempDir.resolve("failed-monthly.csv");
+        
+        // Without the table the export's cursor cannot be opened
+        rename("expenses", "expenses_hidden");
+        ExportService.ExportResult result;
+        boolean monthlyExported;
+        try {
+            result = exportService.exportExpenses(file, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), null, null);
+            monthlyExported = new ReportService().exportToCSV(monthlyFile.toString(), 1, 2024);
+        } finally {
+            rename("expenses_hidden", "expenses");
+        }
+        
+        assertEquals(ExportService.ExportResult.Status.FAILED, result.getStatus());
+        assertFalse(Files.exists(file));
+        assertFalse(monthlyExported);
+        assertFalse(Files.exists(monthlyFile));
+    }
+    
+    private static void rename(String table, String newName) {
+        DatabaseManager.getInstance().submitWrite(conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                return stmt.executeUpdate("ALTER TABLE " + table + " RENAME TO " + newName);
+            }
+        }).join();
+    }
+}
@@ -0,0 +1,94 @@
+package com.expensetracker.service;
+
+import com.expensetracker.dao.CategoryDAO;
+import com.expensetracker.dao.ExpenseDAO;
+import com.expensetracker.model.Category;
+import com.expensetracker.model.ExpenseRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ImportService.
+ */
+public class ImportServiceTest {
+    
+    private Path tempDir;
+    private ImportService importService;
+    private ExpenseDAO expenseDAO;
+    private Category category;
+    
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) {
+        // Set up test database in temp directory with unique name
+        String uniqueDbName = "test_db_" + System.currentTimeMillis() + ".db";
+        System.setProperty("user.dir", tempDir.toString());
+        System.setProperty("test.db.name", uniqueDbName);
+        this.tempDir = tempDir;
+        importService = new ImportService();
+        expenseDAO = new ExpenseDAO();
+        
+        category = new Category("Import Category " + System.nanoTime(), "#FF0000");
+        new CategoryDAO().save(category);
+    }
+    
+    @Test
+    void testImportsMappedRowsAndReportsErrors() throws IOException {
+        Path file = tempDir.resolve("statement.csv");
+        Files.writeString(file,
+            "Posted Date,Description,Amount,Category\n" +
+            "2023-04-02,\"Coffee, large\",$4.50," + category.getName() + "\n" +
+            "4/3/2023,Salary,-2500.00,\n" +
+            "2023-04-04,Bookshop,\"1,020.10\",No Such Category\n" +
+            "not a date,Broken,1.00,\n");
+        
+        ImportService.ImportResult result = importService.importCsv(file, null);
+        
+        assertEquals(ImportService.ImportResult.Status.COMPLETED, result.getStatus());
+        assertEquals(4, result.getRowsRead());
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getSkipped());
+        assertEquals(1, result.getErrorCount());
+        assertTrue(result.getErrors().get(0).startsWith("Line 5:"));
+        
+        // Other tests share the database; only look at the rows this file added
+        List<ExpenseRow> rows = expenseDAO.findRowsByMonth(4, 2023).stream()
+            .filter(row -> row.notes().equals("Coffee, large") || row.notes().equals("Bookshop"))
+            .toList();
+        assertEquals(2, rows.size());
+        assertEquals(102010L, rows.get(0).amountCents());
+        assertEquals("Other", CategoryCache.getInstance().findById(rows.get(0).categoryId()).get().getName());
+        assertEquals(450L, rows.get(1).amountCents());
+        assertEquals(category.getId(), rows.get(1).categoryId());
+        assertEquals("Coffee, large", rows.get(1).notes());
+        assertEquals(LocalDate.of(2023, 4, 2), rows.get(1).date());
+    }
+    
+    @Test
+    void testReadErrorKeepsCountOfCommittedRows() throws IOException {
+        Path file = tempDir.resolve("truncated.csv");
+        Files.writeString(file,
+            "Date,Amount,Category\n" +
+            "2022-05-01,10.00," + category.getName() + "\n" +
+            "2022-05-02,-5.00," + category.getName() + "\n" +
+            "2022-05-03,20.00,\"" + category.getName() + "\n");
+        
+        ImportService.ImportResult result = importService.importCsv(file, null);
+        
+        assertEquals(ImportService.ImportResult.Status.FAILED, result.getStatus());
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getSkipped());
+        assertTrue(result.getErrors().get(0).contains("Unterminated quoted field"), result.getErrors().toString());
+        assertEquals(1, expenseDAO.findRowsByMonth(5, 2022).stream()
+            .filter(row -> row.categoryId() == category.getId())
+            .count());
+    }
+}
@@ -0,0 +1,121 @@
+package com.expensetracker.service;
+
+import com.expensetracker.dao.CategoryDAO;
+import com.expensetracker.dao.ExpenseDAO;
+import com.expensetracker.model.Category;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SearchService.
+ */
+public class SearchServiceTest {
+    
+    private SearchService searchService;
+    private ExpenseDAO expenseDAO;
+    private CategoryDAO categoryDAO;
+    private Category category;
+    private String tag;
+    
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) {
+        // Set up test database in temp directory with unique name
+        String uniqueDbName = "test_db_" + System.currentTimeMillis() + ".db";
+        System.setProperty("user.dir", tempDir.toString());
+        System.setProperty("test.db.name", uniqueDbName);
+        searchService = new SearchService();
+        expenseDAO = new ExpenseDAO();
+        categoryDAO = new CategoryDAO();
+        
+        // Other tests share the database, so searches add this word from the category name to
+        // match only the expenses of this test
+        tag = "g" + System.nanoTime();
+        category = new Category("Groceries " + tag, "#00FF00");
+        categoryDAO.save(category);
+    }
+    
+    @Test
+    void testToMatchExpressionQuotesWords() {
+        assertEquals("\"caf\u00e9\"* \"5\"*", SearchService.toMatchExpression(" caf\u00e9 -5 ", SearchService.Mode.PREFIX));
+        assertEquals("\"corner shop\"", SearchService.toMatchExpression("\"corner\" AND shop", SearchService.Mode.PHRASE));
+        assertEquals("\"a\" \"b\"", SearchService.toMatchExpression("a*b", SearchService.Mode.ALL_WORDS));
+        assertEquals("", SearchService.toMatchExpression(" *- ", SearchService.Mode.PREFIX));
+    }
+    
+    @Test
+    void testSearchesNotesAndCategoriesAcrossMonths() {
+        Expense coffee = save(4.5, LocalDate.of(2021, 1, 5), "Coffee at the corner shop");
+        Expense corner = save(12.0, LocalDate.of(2023, 6, 1), "Shop on the corner");
+        save(30.0, LocalDate.of(2024, 2, 9), "Fuel");
+        
+        assertEquals(List.of(corner.getId(), coffee.getId()), ids(search(tag + " cor", SearchService.Mode.PREFIX)));
+        List<Integer> phrase = ids(search("corner shop", SearchService.Mode.PHRASE));
+        assertTrue(phrase.contains(coffee.getId()));
+        assertFalse(phrase.contains(corner.getId()));
+        assertEquals(2, search("shop corner " + tag, SearchService.Mode.ALL_WORDS).getRows().size());
+        assertEquals(3, search(category.getName(), SearchService.Mode.PHRASE).getRows().size());
+        
+        SearchService.SearchPage relevance = searchService.search("corner " + tag, SearchService.Mode.ALL_WORDS,
+                                                                  SearchService.Order.RELEVANCE, 0, 10);
+        assertEquals(2, relevance.getRows().size());
+    }
+    
+    @Test
+    void testIndexFollowsUpdatesDeletesAndRenames() {
+        Expense expense = save(8.0, LocalDate.of(2022, 3, 3), "Bakery");
+        Expense other = save(9.0, LocalDate.of(2022, 3, 4), "Bakery");
+        
+        expense.setNotes("Butcher");
+        expenseDAO.save(expense);
+        expenseDAO.delete(other.getId());
+        assertTrue(search(tag + " bakery", SearchService.Mode.PREFIX).getRows().isEmpty());
+        assertEquals(List.of(expense.getId()), ids(search(tag + " butch", SearchService.Mode.PREFIX)));
+        
+        category.setName("Renamed " + tag);
+        categoryDAO.save(category);
+        assertEquals(List.of(expense.getId()), ids(search(category.getName(), SearchService.Mode.PHRASE)));
+    }
+    
+    @Test
+    void testPagesThroughMatches() {
+        for (int i = 0; i < 5; i++) {
+            save(1.0 + i, LocalDate.of(2020, 1, 1 + i), "Lunch " + i);
+        }
+        
+        SearchService.SearchPage first = searchService.search(tag + " lunch", SearchService.Mode.PREFIX,
+                                                              SearchService.Order.RECENT, 0, 2);
+        SearchService.SearchPage last = searchService.search(tag + " lunch", SearchService.Mode.PREFIX,
+                                                             SearchService.Order.RECENT, 4, 2);
+        
+        assertEquals(2, first.getRows().size());
+        assertTrue(first.hasMore());
+        assertEquals(2, first.getNextOffset());
+        assertEquals(1, last.getRows().size());
+        assertFalse(last.hasMore());
+        assertEquals("Lunch 0", last.getRows().get(0).notes());
+    }
+    
+    private Expense save(double amount, LocalDate date, String notes) {
+        Expense expense = new Expense(amount, category.getId(), date, notes);
+        assertTrue(expenseDAO.save(expense));
+        return expense;
+    }
+    
+    private SearchService.SearchPage search(String text, SearchService.Mode mode) {
+        return searchService.search(text, mode, SearchService.Order.RECENT, 0, 50);
+    }
+    
+    private static List<Integer> ids(SearchService.SearchPage page) {
+        return page.getRows().stream().map(ExpenseRow::id).collect(Collectors.toList());
+    }
+}
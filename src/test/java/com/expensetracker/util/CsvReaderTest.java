@@ -0,0 +1,36 @@
+package com.expensetracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CsvReader.
+ */
+public class CsvReaderTest {
+    
+    @Test
+    void testParsesQuotedFieldsAndLineEndings() throws IOException {
+        String csv = "\uFEFFdate,notes\r\n2024-01-02,\"a, \"\"b\"\"\nc\"\n\n2024-01-03,,\n";
+        
+        try (CsvReader reader = new CsvReader(new StringReader(csv))) {
+            assertEquals(List.of("date", "notes"), reader.readRecord());
+            assertEquals(List.of("2024-01-02", "a, \"b\"\nc"), reader.readRecord());
+            assertEquals(2, reader.getLineNumber());
+            assertEquals(List.of("2024-01-03", "", ""), reader.readRecord());
+            assertEquals(5, reader.getLineNumber());
+            assertNull(reader.readRecord());
+        }
+    }
+    
+    @Test
+    void testRejectsUnterminatedQuote() {
+        CsvReader reader = new CsvReader(new StringReader("\"open,field\n"));
+        
+        assertThrows(IOException.class, reader::readRecord);
+    }
+}
@@ -0,0 +1,36 @@
+package com.expensetracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CsvWriter.
+ */
+public class CsvWriterTest {
+    
+    @Test
+    void testQuotesOnlyFieldsThatNeedIt() throws IOException {
+        StringWriter out = new StringWriter();
+        try (CsvWriter csv = new CsvWriter(out)) {
+            csv.field("plain").field("a,b").field("say \"hi\"").field("two\nlines").field(null).endRow();
+        }
+        
+        assertEquals("plain,\"a,b\",\"say \"\"hi\"\"\",\"two\nlines\",\r\n", out.toString());
+    }
+    
+    @Test
+    void testEncodesNumbersCentsAndDates() throws IOException {
+        StringWriter out = new StringWriter();
+        try (CsvWriter csv = new CsvWriter(out)) {
+            csv.field(0).field(-42).cents(123456).cents(5).cents(-1205).endRow();
+            csv.date(LocalDate.of(2024, 3, 7)).date(LocalDate.of(987, 12, 31)).endRow();
+        }
+        
+        assertEquals("0,-42,1234.56,0.05,-12.05\r\n2024-03-07,0987-12-31\r\n", out.toString());
+    }
+}
@@ -0,0 +1,66 @@
+package com.expensetracker.util;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FlightEvents and the bundled recording profile.
+ */
+public class FlightEventsTest {
+    
+    @Test
+    void testProfileEnablesApplicationEvents() throws Exception {
+        Map<String, String> settings = FlightRecording.loadProfile().getSettings();
+        
+        assertEquals("true", settings.get("com.expensetracker.DatabaseQuery#enabled"));
+        assertEquals("true", settings.get("com.expensetracker.Report#enabled"));
+        assertEquals("true", settings.get("com.expensetracker.ViewRefresh#enabled"));
+        assertEquals("10 ms", settings.get("com.expensetracker.SqlStatement#threshold"));
+    }
+    
+    @Test
+    void testEventsAreRecordedWithTheirFields(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("events.jfr");
+        try (Recording recording = new Recording(FlightRecording.loadProfile())) {
+            recording.start();
+            FlightEvents.DatabaseQuery.start("ExpenseDAO.findByMonth", "SELECT 1", 6, 2025).finish(42);
+            FlightEvents.DatabaseQuery.start("ExpenseDAO.findRowsPage", "SELECT 2",
+                                             LocalDate.of(2025, 1, 1), LocalDate.of(2025, 3, 31)).finish(5);
+            FlightEvents.Report.start("monthly", 6, 2025).finish(7);
+            recording.stop();
+            recording.dump(file);
+        }
+        
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        RecordedEvent query = events.stream()
+            .filter(event -> event.getEventType().getName().equals("com.expensetracker.DatabaseQuery")
+                             && event.getString("method").equals("ExpenseDAO.findByMonth"))
+            .findFirst().orElseThrow();
+        assertEquals("ExpenseDAO.findByMonth", query.getString("method"));
+        assertEquals("SELECT 1", query.getString("sql"));
+        assertEquals(42, query.getLong("rows"));
+        assertEquals(6, query.getInt("month"));
+        assertEquals(2025, query.getInt("year"));
+        
+        RecordedEvent page = events.stream()
+            .filter(event -> event.getEventType().getName().equals("com.expensetracker.DatabaseQuery")
+                             && event.getString("method").equals("ExpenseDAO.findRowsPage"))
+            .findFirst().orElseThrow();
+        assertEquals("2025-01-01", page.getString("firstDay"));
+        assertEquals("2025-03-31", page.getString("lastDay"));
+        assertEquals(0, page.getInt("month"));
+        
+        assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals("com.expensetracker.Report")
+                                                     && event.getLong("rows") == 7));
+    }
+}
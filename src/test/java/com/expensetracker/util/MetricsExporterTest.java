@@ -0,0 +1,64 @@
+package com.expensetracker.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Metrics and MetricsExporter.
+ */
+public class MetricsExporterTest {
+    
+    @Test
+    void testTimerBucketsAndPercentiles() {
+        Metrics.Timer timer = Metrics.getInstance().timer("test_percentiles_seconds", "Test", null, null);
+        for (int i = 0; i < 98; i++) {
+            timer.record(800_000L);
+        }
+        timer.record(40_000_000L);
+        timer.record(60_000_000L);
+        
+        assertEquals(100, timer.getCount());
+        assertEquals(1_000_000L, timer.getPercentileNanos(0.5));
+        assertEquals(50_000_000L, timer.getPercentileNanos(0.99));
+        assertEquals(60_000_000L, timer.getPercentileNanos(1.0));
+        assertEquals(60_000_000L, timer.getMaxNanos());
+    }
+    
+    @Test
+    void testPrometheusTextHasCumulativeBucketsAndOneHeaderPerFamily() {
+        Metrics registry = Metrics.getInstance();
+        Metrics.Timer first = registry.timer("test_query_seconds", "Test queries", "method", "a");
+        Metrics.Timer second = registry.timer("test_query_seconds", "Test queries", "method", "b\"q");
+        first.record(200_000L);
+        first.record(3_000_000L);
+        second.record(20_000_000_000L);
+        
+        String text = MetricsExporter.toPrometheus(List.of(first, second));
+        
+        assertEquals(1, text.split("# TYPE expensetracker_test_query_seconds histogram", -1).length - 1);
+        assertTrue(text.contains("expensetracker_test_query_seconds_bucket{method=\"a\",le=\"0.00025\"} 1\n"), text);
+        assertTrue(text.contains("expensetracker_test_query_seconds_bucket{method=\"a\",le=\"0.005\"} 2\n"), text);
+        assertTrue(text.contains("expensetracker_test_query_seconds_sum{method=\"a\"} 0.0032\n"), text);
+        assertTrue(text.contains("expensetracker_test_query_seconds_bucket{method=\"b\\\"q\",le=\"+Inf\"} 1\n"), text);
+    }
+    
+    @Test
+    void testJsonListsTimersGaugesAndCounters() {
+        Metrics registry = Metrics.getInstance();
+        Metrics.Timer timer = registry.timer("test_json_seconds", "Test", "report", "monthly");
+        timer.record(2_000_000L);
+        registry.gauge("test_json_ratio", "Test", null, null, () -> 0.75);
+        Metrics.Counter counter = registry.counter("test_json_total", "Test", null, null);
+        
+        String json = MetricsExporter.toJson(List.of(timer, registry.snapshot().stream()
+            .filter(metric -> metric.getName().equals("test_json_ratio")).findFirst().orElseThrow(), counter));
+        
+        assertTrue(json.contains("{\"name\": \"test_json_seconds\", \"type\": \"histogram\", " +
+                                 "\"labels\": {\"report\": \"monthly\"}, \"count\": 1, \"sumSeconds\": 0.002"), json);
+        assertTrue(json.contains("{\"name\": \"test_json_ratio\", \"type\": \"gauge\", \"value\": 0.75}"), json);
+        assertTrue(json.contains("{\"name\": \"test_json_total\", \"type\": \"counter\", \"value\": 0}"), json);
+    }
+}
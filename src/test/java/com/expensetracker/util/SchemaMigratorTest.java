@@ -0,0 +1,212 @@
+package com.expensetracker.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SchemaMigrator.
+ */
+public class SchemaMigratorTest {
+    
+    private Connection conn;
+    
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) throws SQLException {
+        conn = DriverManager.getConnection("jdbc:sqlite:" + tempDir.resolve("migrations.db"));
+    }
+    
+    @AfterEach
+    void tearDown() throws SQLException {
+        conn.close();
+    }
+    
+    @Test
+    void testAppliesMigrationsInOrderAndRecordsVersion() throws SQLException {
+        SchemaMigrator migrator = new SchemaMigrator(List.of(
+            Migration.of(2, "add column", "ALTER TABLE items ADD COLUMN name TEXT"),
+            Migration.of(1, "create table", "CREATE TABLE items (id INTEGER PRIMARY KEY)")
+        ), 10);
+        
+        List<SchemaMigrator.MigrationResult> results = migrator.migrate(conn);
+        
+        assertEquals(2, results.size());
+        assertEquals(1, results.get(0).getVersion());
+        assertEquals(2, results.get(1).getVersion());
+        assertEquals(2, SchemaMigrator.getUserVersion(conn));
+    }
+    
+    @Test
+    void testSkipsAlreadyAppliedMigrations() throws SQLException {
+        Migration create = Migration.of(1, "create table", "CREATE TABLE items (id INTEGER PRIMARY KEY)");
+        new SchemaMigrator(List.of(create), 10).migrate(conn);
+        
+        List<SchemaMigrator.MigrationResult> results = new SchemaMigrator(List.of(create), 10).migrate(conn);
+        
+        assertTrue(results.isEmpty());
+        assertEquals(1, SchemaMigrator.getUserVersion(conn));
+    }
+    
+    @Test
+    void testFailedMigrationRollsBackAndKeepsVersion() throws SQLException {
+        SchemaMigrator migrator = new SchemaMigrator(List.of(
+            Migration.of(1, "create table", "CREATE TABLE items (id INTEGER PRIMARY KEY)"),
+            Migration.of(2, "broken", "CREATE TABLE other (id INTEGER)", "NOT VALID SQL")
+        ), 10);
+        
+        assertThrows(SQLException.class, () -> migrator.migrate(conn));
+        
+        assertEquals(1, SchemaMigrator.getUserVersion(conn));
+        assertFalse(tableExists("other"));
+    }
+    
+    @Test
+    void testErrorInMigrationRollsBack() throws SQLException {
+        Migration failing = new Migration() {
+            @Override
+            public int getVersion() {
+                return 1;
+            }
+            
+            @Override
+            public String getDescription() {
+                return "create table, then fail";
+            }
+            
+            @Override
+            public void apply(Connection conn) throws SQLException {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("CREATE TABLE items (id INTEGER PRIMARY KEY)");
+                }
+                throw new AssertionError("boom");
+            }
+        };
+        
+        assertThrows(AssertionError.class, () -> new SchemaMigrator(List.of(failing), 10).migrate(conn));
+        
+        assertEquals(0, SchemaMigrator.getUserVersion(conn));
+        assertFalse(tableExists("items"));
+    }
+    
+    @Test
+    void testRejectsDatabaseNewerThanApplication() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA user_version = 5");
+        }
+        SchemaMigrator migrator = new SchemaMigrator(
+            List.of(Migration.of(1, "create table", "CREATE TABLE items (id INTEGER PRIMARY KEY)")), 10);
+        
+        assertThrows(SQLException.class, () -> migrator.migrate(conn));
+    }
+    
+    @Test
+    void testChunkedMigrationRewritesAllRowsAndResumes() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE items (id INTEGER PRIMARY KEY, value INTEGER)");
+            for (int i = 1; i <= 25; i++) {
+                stmt.execute("INSERT INTO items (id, value) VALUES (" + i + ", " + i + ")");
+            }
+            stmt.execute("PRAGMA user_version = 1");
+        }
+        
+        DoublingMigration failing = new DoublingMigration(2);
+        assertThrows(SQLException.class, () -> new SchemaMigrator(List.of(failing), 10).migrate(conn));
+        assertEquals(1, SchemaMigrator.getUserVersion(conn));
+        
+        DoublingMigration resumed = new DoublingMigration(Integer.MAX_VALUE);
+        List<SchemaMigrator.MigrationResult> results = new SchemaMigrator(List.of(resumed), 10).migrate(conn);
+        
+        assertEquals(2, SchemaMigrator.getUserVersion(conn));
+        assertEquals(1, results.size());
+        assertEquals(20L, resumed.firstAfterKey.longValue());
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM items WHERE value_doubled = value * 2")) {
+            rs.next();
+            assertEquals(25, rs.getInt(1));
+        }
+    }
+    
+    private boolean tableExists(String name) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?")) {
+            stmt.setString(1, name);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+    
+    /**
+     * Fills a new column chunk by chunk and fails after a given number of chunks.
+     */
+    private static class DoublingMigration implements ChunkedMigration {
+        private final int failAfterChunks;
+        private int chunks;
+        private Long firstAfterKey;
+        
+        DoublingMigration(int failAfterChunks) {
+            this.failAfterChunks = failAfterChunks;
+        }
+        
+        @Override
+        public int getVersion() {
+            return 2;
+        }
+        
+        @Override
+        public String getDescription() {
+            return "double values";
+        }
+        
+        @Override
+        public void apply(Connection conn) throws SQLException {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("ALTER TABLE items ADD COLUMN value_doubled INTEGER");
+            }
+        }
+        
+        @Override
+        public long applyChunk(Connection conn, long afterKey, int chunkSize) throws SQLException {
+            if (firstAfterKey == null) {
+                firstAfterKey = afterKey;
+            }
+            if (chunks++ == failAfterChunks) {
+                throw new SQLException("simulated crash");
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "UPDATE items SET value_doubled = value * 2 WHERE id IN " +
+                    "(SELECT id FROM items WHERE id > ? ORDER BY id LIMIT ?)")) {
+                stmt.setLong(1, afterKey);
+                stmt.setInt(2, chunkSize);
+                if (stmt.executeUpdate() == 0) {
+                    return DONE;
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT MAX(id) FROM (SELECT id FROM items WHERE id > ? ORDER BY id LIMIT ?)")) {
+                stmt.setLong(1, afterKey);
+                stmt.setInt(2, chunkSize);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    return rs.getLong(1);
+                }
+            }
+        }
+        
+        @Override
+        public void finish(Connection conn) {
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.expensetracker.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SlowQueryLog.
+ */
+public class SlowQueryLogTest {
+    
+    private Connection conn;
+    private Logger logger;
+    private final List<String> messages = new ArrayList<>();
+    
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) throws SQLException {
+        conn = DriverManager.getConnection("jdbc:sqlite:" + tempDir.resolve("slow.db"));
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE items (id INTEGER PRIMARY KEY, name TEXT, day INTEGER)");
+            stmt.execute("CREATE INDEX idx_items_day ON items(day)");
+        }
+        
+        logger = Logger.getAnonymousLogger();
+        logger.setUseParentHandlers(false);
+        logger.addHandler(new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                messages.add(record.getMessage());
+            }
+            
+            @Override
+            public void flush() {
+            }
+            
+            @Override
+            public void close() {
+            }
+        });
+    }
+    
+    @AfterEach
+    void tearDown() throws SQLException {
+        conn.close();
+    }
+    
+    @Test
+    void testLogsStatementWithParametersAndPlan() throws SQLException {
+        // A threshold of one nanosecond treats every statement as slow
+        SlowQueryLog slowQueryLog = new SlowQueryLog(1, logger);
+        String sql = "SELECT name FROM items WHERE day = ? AND name = ?";
+        
+        try (PreparedStatement stmt = slowQueryLog.wrap(conn.prepareStatement(sql), sql, conn)) {
+            stmt.setLong(1, 20_000);
+            stmt.setString(2, "O'Brien");
+            try (ResultSet rs = stmt.executeQuery()) {
+                assertFalse(rs.next());
+            }
+        }
+        
+        assertEquals(1, messages.size());
+        String message = messages.get(0);
+        assertTrue(message.contains(sql), message);
+        assertTrue(message.contains("1=20000 2='O''Brien'"), message);
+        assertTrue(message.contains("SEARCH items USING INDEX idx_items_day (day=?)"), message);
+    }
+    
+    @Test
+    void testLogsBatchOnceWithItsSizeButNoParameters() throws SQLException {
+        SlowQueryLog slowQueryLog = new SlowQueryLog(1, logger);
+        String sql = "INSERT INTO items (name, day) VALUES (?, ?)";
+        
+        try (PreparedStatement stmt = slowQueryLog.wrap(conn.prepareStatement(sql), sql, conn)) {
+            for (int i = 0; i < 3; i++) {
+                stmt.setString(1, "item" + i);
+                stmt.setInt(2, i);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        
+        assertEquals(1, messages.size());
+        assertTrue(messages.get(0).contains("batch of 3"), messages.get(0));
+        assertFalse(messages.get(0).contains("parameters:"), messages.get(0));
+    }
+    
+    @Test
+    void testFastStatementsAreNotLogged() throws SQLException {
+        SlowQueryLog slowQueryLog = new SlowQueryLog(60_000_000_000L, logger);
+        
+        try (Statement stmt = slowQueryLog.wrap(conn.createStatement(), conn)) {
+            stmt.executeUpdate("INSERT INTO items (name, day) VALUES ('a', 1)");
+        }
+        
+        assertTrue(messages.isEmpty());
+    }
+}
@@ -0,0 +1,89 @@
+package com.expensetracker.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for WriteQueue.
+ */
+public class WriteQueueTest {
+    
+    private ConnectionPool pool;
+    private WriteQueue writeQueue;
+    
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) throws SQLException {
+        pool = new ConnectionPool("jdbc:sqlite:" + tempDir.resolve("writes.db"),
+                                  List.of("PRAGMA foreign_keys = ON"), 1, 5000);
+        try (Connection conn = pool.borrowWriter(); Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE parents (id INTEGER PRIMARY KEY)");
+            stmt.execute("CREATE TABLE children (id INTEGER PRIMARY KEY, parent_id INTEGER " +
+                         "REFERENCES parents(id) DEFERRABLE INITIALLY DEFERRED)");
+        }
+        writeQueue = new WriteQueue(pool, 100);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        writeQueue.close();
+        pool.close();
+    }
+    
+    @Test
+    void testFailedCommitIsRolledBack() throws Exception {
+        // The deferred foreign key is only checked, and fails, at commit
+        CompletableFuture<Integer> failing = writeQueue.submit(conn -> {
+            update(conn, "INSERT INTO parents (id) VALUES (1)");
+            return update(conn, "INSERT INTO children (parent_id) VALUES (99)");
+        });
+        assertThrows(ExecutionException.class, () -> failing.get(5, TimeUnit.SECONDS));
+        
+        int inserted = writeQueue.submit(conn -> update(conn, "INSERT INTO parents (id) VALUES (2)"))
+            .get(5, TimeUnit.SECONDS);
+        assertEquals(1, inserted);
+        assertEquals(1, count("parents"));
+        assertEquals(0, count("children"));
+    }
+    
+    @Test
+    void testErrorInTaskDoesNotStopTheWriter() throws Exception {
+        CompletableFuture<Integer> failing = writeQueue.submit(conn -> {
+            throw new AssertionError("boom");
+        });
+        
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failing.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(AssertionError.class, e.getCause());
+        int inserted = writeQueue.submit(conn -> update(conn, "INSERT INTO parents (id) VALUES (2)"))
+            .get(5, TimeUnit.SECONDS);
+        assertEquals(1, inserted);
+        assertEquals(1, count("parents"));
+    }
+    
+    private static int update(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            return stmt.executeUpdate(sql);
+        }
+    }
+    
+    private int count(String table) throws SQLException {
+        try (Connection conn = pool.borrowReader();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            return rs.getInt(1);
+        }
+    }
+}